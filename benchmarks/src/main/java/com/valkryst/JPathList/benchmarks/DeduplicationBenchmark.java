@@ -0,0 +1,81 @@
+package com.valkryst.JPathList.benchmarks;
+
+import com.google.common.jimfs.Jimfs;
+import com.valkryst.JPathList.JPathList;
+import com.valkryst.JPathList.PathListModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Measures the cost of adding inputs which consist mostly of paths that are already in the list. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeduplicationBenchmark {
+    /** The number of unique paths. */
+    @Param({"10000", "100000"})
+    private int size;
+
+    /** The number of times that each path appears in the input. */
+    @Param({"4"})
+    private int repetitions;
+
+    private FileSystem fileSystem;
+
+    /** The unique paths. */
+    private List<Path> paths;
+
+    /** The input, in which each unique path appears several times. */
+    private List<Path> input;
+
+    /** A list which already contains half of the unique paths. */
+    private JPathList list;
+
+    /** A model which already contains half of the unique paths. */
+    private PathListModel model;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        fileSystem = Jimfs.newFileSystem();
+        paths = FileTrees.createFiles(fileSystem.getPath("directory"), size);
+
+        input = new ArrayList<>(size * repetitions);
+        for (int i = 0 ; i < repetitions ; i++) {
+            input.addAll(paths);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        list = new JPathList();
+        list.addPaths(paths.subList(0, size / 2));
+
+        model = new PathListModel();
+        model.addAll(paths.subList(0, size / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fileSystem.close();
+    }
+
+    @Benchmark
+    public JPathList addPaths() throws IOException {
+        list.addPaths(input);
+        return list;
+    }
+
+    @Benchmark
+    public PathListModel addAll() {
+        model.addAll(input);
+        return model;
+    }
+}
@@ -0,0 +1,70 @@
+package com.valkryst.JPathList.benchmarks;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Creates the file trees used by the benchmarks. */
+public final class FileTrees {
+    private FileTrees() {}
+
+    /**
+     * Creates a tree of directories, where each directory contains {@code fanOut} files and, unless the maximum depth
+     * has been reached, {@code fanOut} subdirectories.
+     *
+     * @param root The root directory.
+     * @param depth The depth of the tree.
+     * @param fanOut The number of files and subdirectories in each directory.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void createTree(final Path root, final int depth, final int fanOut) throws IOException {
+        Files.createDirectories(root);
+
+        for (int i = 0 ; i < fanOut ; i++) {
+            Files.createFile(root.resolve("file" + i));
+
+            if (depth > 0) {
+                createTree(root.resolve("directory" + i), depth - 1, fanOut);
+            }
+        }
+    }
+
+    /**
+     * Creates a directory containing a number of files.
+     *
+     * @param directory The directory.
+     * @param count The number of files.
+     * @return The files, in the order that they were created.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public static List<Path> createFiles(final Path directory, final int count) throws IOException {
+        Files.createDirectories(directory);
+
+        final var files = new ArrayList<Path>(count);
+        for (int i = 0 ; i < count ; i++) {
+            files.add(Files.createFile(directory.resolve("file" + i)));
+        }
+
+        return files;
+    }
+
+    /**
+     * Converts the name of a recursion mode into its {@link JFileChooser} constant.
+     *
+     * @param name The name of the recursion mode.
+     * @return The recursion mode.
+     */
+    public static int recursionMode(final String name) {
+        return switch (name) {
+            case "FILES_ONLY" -> JFileChooser.FILES_ONLY;
+            case "DIRECTORIES_ONLY" -> JFileChooser.DIRECTORIES_ONLY;
+            case "FILES_AND_DIRECTORIES" -> JFileChooser.FILES_AND_DIRECTORIES;
+            default -> throw new IllegalArgumentException("Unknown recursion mode: " + name);
+        };
+    }
+}
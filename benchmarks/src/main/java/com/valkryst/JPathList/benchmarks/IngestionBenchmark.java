@@ -0,0 +1,58 @@
+package com.valkryst.JPathList.benchmarks;
+
+import com.google.common.jimfs.Jimfs;
+import com.valkryst.JPathList.JPathList;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Measures the cost of adding a directory tree to a {@link JPathList}, in each recursion mode. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestionBenchmark {
+    /** The depth of the tree. */
+    @Param({"2", "4"})
+    private int depth;
+
+    /** The number of files and subdirectories in each directory. */
+    @Param({"8"})
+    private int fanOut;
+
+    @Param({"FILES_ONLY", "DIRECTORIES_ONLY", "FILES_AND_DIRECTORIES"})
+    private String recursionMode;
+
+    @Param({"1", "4"})
+    private int traversalParallelism;
+
+    private FileSystem fileSystem;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fileSystem = Jimfs.newFileSystem();
+        root = fileSystem.getPath("root");
+        FileTrees.createTree(root, depth, fanOut);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fileSystem.close();
+    }
+
+    @Benchmark
+    public JPathList addPath() throws IOException {
+        final var list = new JPathList();
+        list.setRecursionMode(FileTrees.recursionMode(recursionMode));
+        list.setTraversalParallelism(traversalParallelism);
+        list.addPath(root);
+        return list;
+    }
+}
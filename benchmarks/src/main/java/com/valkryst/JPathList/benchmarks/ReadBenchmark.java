@@ -0,0 +1,56 @@
+package com.valkryst.JPathList.benchmarks;
+
+import com.valkryst.JPathList.PathListModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of reading the paths of a list, either as a copy, as a snapshot, or one at a time as a renderer
+ * does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadBenchmark {
+    /** The number of paths in the list. */
+    @Param({"10000", "100000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean compactStorage;
+
+    private PathListModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = new PathListModel();
+        model.setCompactStorageEnabled(compactStorage);
+        for (int i = 0 ; i < size ; i++) {
+            model.add(Path.of("directory" + (i % 100), "file" + i));
+        }
+    }
+
+    @Benchmark
+    public List<Path> toList() {
+        return model.toList();
+    }
+
+    @Benchmark
+    public List<Path> snapshot() {
+        return model.snapshot();
+    }
+
+    @Benchmark
+    public void getElementAt(final Blackhole blackhole) {
+        for (int i = 0 ; i < model.getSize() ; i++) {
+            blackhole.consume(model.getElementAt(i));
+        }
+    }
+}
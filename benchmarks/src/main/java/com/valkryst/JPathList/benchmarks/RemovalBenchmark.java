@@ -0,0 +1,60 @@
+package com.valkryst.JPathList.benchmarks;
+
+import com.valkryst.JPathList.PathListModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Measures the cost of removing many paths, scattered throughout the list, at once. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemovalBenchmark {
+    /** The number of paths in the list. */
+    @Param({"10000", "100000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean compactStorage;
+
+    /** The paths in the list. */
+    private List<Path> paths;
+
+    /** Every other path in the list. */
+    private List<Path> removals;
+
+    private PathListModel model;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        paths = new ArrayList<>(size);
+        removals = new ArrayList<>(size / 2);
+        for (int i = 0 ; i < size ; i++) {
+            final var path = Path.of("directory" + (i % 100), "file" + i);
+            paths.add(path);
+
+            if (i % 2 == 0) {
+                removals.add(path);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        model = new PathListModel();
+        model.setCompactStorageEnabled(compactStorage);
+        model.addAll(paths);
+    }
+
+    @Benchmark
+    public PathListModel removeAll() {
+        model.removeAll(removals);
+        return model;
+    }
+}
@@ -0,0 +1,57 @@
+package com.valkryst.JPathList.benchmarks;
+
+import com.valkryst.JPathList.FilteredPathListModel;
+import com.valkryst.JPathList.PathListModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of each keystroke when typing a query into a filtered view, as it narrows and then clears.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    /** The queries typed, one keystroke at a time, by each invocation. */
+    private static final String[] QUERIES = {"f", "fi", "fil", "file", "file1", "file12", "file123", ""};
+
+    /** The number of paths in the list. */
+    @Param({"100000", "500000"})
+    private int size;
+
+    private FilteredPathListModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var source = new PathListModel();
+        source.setCompactStorageEnabled(true);
+        for (int i = 0 ; i < size ; i++) {
+            source.add(Path.of("directory" + (i % 100), "file" + i + ".txt"));
+        }
+
+        model = new FilteredPathListModel(source);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public int typeQuery() {
+        for (final var query : QUERIES) {
+            model.setQuery(query);
+        }
+
+        return model.getSize();
+    }
+
+    @Benchmark
+    public int jumpToQuery() {
+        model.setQuery("file4242");
+        final var size = model.getSize();
+        model.setQuery("");
+        return size;
+    }
+}
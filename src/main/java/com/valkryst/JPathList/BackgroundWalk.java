@@ -0,0 +1,405 @@
+package com.valkryst.JPathList;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * <p>Walks paths on an executor, and holds on to its results until it is known what is to be done with them.</p>
+ *
+ * <p>
+ *     The walk can be started before it is known whether its paths will be added to the list, such as whilst they are
+ *     being dragged over it. Until the walk is {@link #attach(Consumer, Consumer, BooleanSupplier) attached}, the
+ *     chunks of found paths, and the directories which were listed, are buffered rather than published. Once it is
+ *     attached, the buffered results are passed on in the order in which they were found, and any further results are
+ *     passed on as soon as they are found. If the walk is never needed, then it can be {@link #cancel() cancelled}, and
+ *     its results are discarded.
+ * </p>
+ *
+ * <p>
+ *     At most {@link #MAX_QUEUED_CHUNKS} chunks are buffered at once. Once the buffer is full, the walker waits until
+ *     a chunk has been passed on, so a walk which is never attached, such as that of a huge tree which is dragged over
+ *     the list, doesn't pull the entire tree into memory. The consumer's sinks are never called whilst the walk's
+ *     monitor is held, so cancelling the walk never waits for a sink.
+ * </p>
+ *
+ * <p>The walker must be created with {@link #offerChunk(List)} as its sink, and {@link #isCancelled()} as its check.</p>
+ */
+class BackgroundWalk {
+    /** The maximum number of chunks which are buffered, before the walker waits for them to be passed on. */
+    static final int MAX_QUEUED_CHUNKS = 16;
+
+    /** The paths to be walked. */
+    private final List<Path> roots;
+
+    /** Records the counters and timings of the walk. */
+    private final IngestionRecorder recorder = new IngestionRecorder();
+
+    /** Completes once every path has been walked, and every chunk has been offered. */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /** Completes once the walk has completed, and every chunk has been passed on to the consumer. */
+    private final CompletableFuture<Void> delivery = new CompletableFuture<>();
+
+    /** The chunks which have been offered, but not yet passed on. Guarded by {@code this}. */
+    private final ArrayDeque<List<Path>> queuedChunks = new ArrayDeque<>();
+
+    /** The directories which have been offered, but not yet passed on. Guarded by {@code this}. */
+    private final ArrayDeque<Path> queuedDirectories = new ArrayDeque<>();
+
+    /** Receives each chunk of found paths, or {@code null} if the walk has not been attached. */
+    private volatile Consumer<List<Path>> chunkSink;
+
+    /** Receives each listed directory, or {@code null} if the walk has not been attached. */
+    private volatile Consumer<Path> directorySink;
+
+    /** Whether a thread is passing on the queued results. Guarded by {@code this}. */
+    private boolean isDraining = false;
+
+    /** Whether the consumer, to which the walk has been attached, has cancelled it. */
+    private volatile BooleanSupplier isAttachedCancelled = () -> false;
+
+    /** Whether the walk has been cancelled. */
+    private volatile boolean isCancelled = false;
+
+    /** The walker, or {@code null} if the walk has not been started. */
+    private volatile PathWalker walker;
+
+    /**
+     * Constructs a new {@code BackgroundWalk}.
+     *
+     * @param roots The paths to be walked.
+     * @throws NullPointerException If {@code roots}, or any of its elements, is {@code null}.
+     */
+    BackgroundWalk(final List<Path> roots) {
+        this.roots = List.copyOf(roots);
+    }
+
+    /**
+     * <p>Starts the walk on an executor.</p>
+     *
+     * <p>If the executor rejects the walk, then the walk's completion is completed exceptionally.</p>
+     *
+     * @param walker The walker, whose sink is {@link #offerChunk(List)}.
+     * @param executor The executor on which the paths are walked.
+     *
+     * @throws NullPointerException If {@code walker} or {@code executor} is {@code null}.
+     */
+    void start(final PathWalker walker, final Executor executor) {
+        Objects.requireNonNull(walker);
+        Objects.requireNonNull(executor);
+
+        synchronized (this) {
+            this.walker = walker;
+
+            if (isCancelled) {
+                walker.discardFingerprints();
+            }
+        }
+
+        final Runnable task = () -> {
+            Throwable error = null;
+
+            for (final var root : roots) {
+                try {
+                    walker.walk(root);
+                } catch (final CancellationException e) {
+                    completion.cancel(false);
+                    return;
+                } catch (final Exception | Error e) {
+                    recorder.recordFailure();
+
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+
+            walker.flush();
+
+            if (error == null) {
+                completion.complete(null);
+            } else {
+                completion.completeExceptionally(error);
+            }
+        };
+
+        // Once the walk has completed, the delivery completes as soon as the remaining results have been passed on.
+        completion.whenComplete((result, error) -> this.drainIfAttached());
+
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            completion.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * <p>Attaches the walk to the consumer of its results.</p>
+     *
+     * <p>
+     *     The results which were buffered before the walk was attached are passed on, on the executor, and any further
+     *     results are passed on, on the walk's thread, as soon as they are found. The sinks are never called on the
+     *     calling thread, unless it is the executor's thread, and they are never called by two threads at once.
+     * </p>
+     *
+     * <p>If the executor rejects the task, then the walk is cancelled, and its delivery is completed exceptionally.</p>
+     *
+     * @param chunkSink Receives each chunk of found paths.
+     * @param directorySink Receives each directory which was listed.
+     * @param isCancelled Whether the consumer has cancelled the walk.
+     * @param executor The executor on which the buffered results are passed on.
+     *
+     * @throws IllegalStateException If the walk has already been attached.
+     * @throws NullPointerException If {@code chunkSink}, {@code directorySink}, {@code isCancelled}, or {@code executor}
+     *                              is {@code null}.
+     */
+    void attach(final Consumer<List<Path>> chunkSink, final Consumer<Path> directorySink, final BooleanSupplier isCancelled, final Executor executor) {
+        Objects.requireNonNull(chunkSink);
+        Objects.requireNonNull(directorySink);
+        Objects.requireNonNull(isCancelled);
+        Objects.requireNonNull(executor);
+
+        synchronized (this) {
+            if (this.chunkSink != null) {
+                throw new IllegalStateException("The walk has already been attached.");
+            }
+
+            this.isAttachedCancelled = isCancelled;
+            this.directorySink = directorySink;
+            this.chunkSink = chunkSink;
+
+            // The walker may be waiting for space in the buffer, in which case it passes on the buffered results itself.
+            this.notifyAll();
+        }
+
+        // The walk's thread may not offer another result, so the buffered results are also passed on by the executor,
+        // unless the walk's thread has already started to pass them on. The executor isn't relied upon to make space
+        // in the buffer, as it may be the executor whose thread is running the walk.
+        try {
+            executor.execute(this::drainIfAttached);
+        } catch (final RejectedExecutionException e) {
+            delivery.completeExceptionally(e);
+            this.cancel();
+        }
+    }
+
+    /**
+     * <p>Offers a chunk of found paths, which is buffered until the walk is attached.</p>
+     *
+     * <p>
+     *     If the buffer is full, then this waits until another thread has passed on a chunk, the walk has been attached,
+     *     or the walk has been cancelled. Once the walk is attached, the chunk is passed on by the calling thread,
+     *     unless another thread is already passing on the buffered results.
+     * </p>
+     *
+     * @param chunk The chunk.
+     *
+     * @throws CancellationException If the calling thread is interrupted whilst waiting.
+     */
+    void offerChunk(final List<Path> chunk) {
+        synchronized (this) {
+            while (!isCancelled && queuedChunks.size() >= MAX_QUEUED_CHUNKS && (chunkSink == null || isDraining)) {
+                try {
+                    this.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("The walk was interrupted whilst its buffer was full.");
+                }
+            }
+
+            if (isCancelled) {
+                return;
+            }
+
+            queuedChunks.add(chunk);
+            if (chunkSink == null || isDraining) {
+                return;
+            }
+
+            isDraining = true;
+        }
+
+        this.drain();
+    }
+
+    /**
+     * Offers a directory which was listed, which is buffered until the walk is attached.
+     *
+     * @param directory The directory.
+     */
+    void offerListedDirectory(final Path directory) {
+        synchronized (this) {
+            if (isCancelled) {
+                return;
+            }
+
+            queuedDirectories.add(directory);
+            if (chunkSink == null || isDraining) {
+                return;
+            }
+
+            isDraining = true;
+        }
+
+        this.drain();
+    }
+
+    /** Passes on the queued results, if the walk has been attached, and no other thread is passing them on. */
+    private void drainIfAttached() {
+        synchronized (this) {
+            if (chunkSink == null || isDraining) {
+                return;
+            }
+
+            isDraining = true;
+        }
+
+        this.drain();
+    }
+
+    /**
+     * <p>Passes on the queued results, in the order in which they were offered, until there are none left.</p>
+     *
+     * <p>
+     *     The calling thread must have set {@link #isDraining}. The directories are passed on before the chunks, as
+     *     each directory is listed before any of its paths are found. If the walk has completed once the queues are
+     *     empty, then the delivery is completed.
+     * </p>
+     */
+    private void drain() {
+        while (true) {
+            final Path directory;
+            final List<Path> chunk;
+            synchronized (this) {
+                directory = isCancelled ? null : queuedDirectories.poll();
+                chunk = isCancelled || directory != null ? null : queuedChunks.poll();
+
+                if (directory == null && chunk == null) {
+                    isDraining = false;
+                    break;
+                }
+
+                // The walker may be waiting for space in the buffer.
+                this.notifyAll();
+            }
+
+            try {
+                if (directory != null) {
+                    directorySink.accept(directory);
+                } else {
+                    chunkSink.accept(chunk);
+                }
+            } catch (final RuntimeException | Error e) {
+                synchronized (this) {
+                    isDraining = false;
+                }
+
+                delivery.completeExceptionally(e);
+                this.cancel();
+                throw e;
+            }
+        }
+
+        // Every result which was offered before the walk completed has now been passed on.
+        if (completion.isDone()) {
+            completion.whenComplete((result, error) -> {
+                if (error == null) {
+                    delivery.complete(null);
+                } else {
+                    delivery.completeExceptionally(error);
+                }
+            });
+        }
+    }
+
+    /**
+     * <p>Cancels the walk, and discards any results which have not yet been passed on.</p>
+     *
+     * <p>
+     *     The fingerprints of the directories which were listed are also discarded, as some of their paths may never be
+     *     added to the list.
+     * </p>
+     */
+    void cancel() {
+        synchronized (this) {
+            isCancelled = true;
+
+            if (walker != null) {
+                walker.discardFingerprints();
+            }
+
+            queuedChunks.clear();
+            queuedDirectories.clear();
+
+            // The walker may be waiting for space in the buffer.
+            this.notifyAll();
+        }
+
+        delivery.cancel(false);
+    }
+
+    /**
+     * Determines whether the walk has been cancelled, either directly or by the consumer to which it is attached.
+     *
+     * @return Whether the walk has been cancelled.
+     */
+    boolean isCancelled() {
+        return isCancelled || isAttachedCancelled.getAsBoolean();
+    }
+
+    /**
+     * Retrieves the paths to be walked.
+     *
+     * @return The paths.
+     */
+    List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Retrieves the recorder of the walk's counters and timings.
+     *
+     * @return The recorder.
+     */
+    IngestionRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * <p>Retrieves the future which completes once every path has been walked, and every chunk has been offered.</p>
+     *
+     * <p>It is completed exceptionally if any path could not be walked, and it is cancelled if the walk is cancelled.</p>
+     *
+     * @return The future.
+     */
+    CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * <p>
+     *     Retrieves the future which completes once the walk has completed, and every chunk has been passed on to the
+     *     consumer, so it never completes before the walk has been attached.
+     * </p>
+     *
+     * <p>
+     *     It is completed exceptionally if the walk's completion was, or if a sink failed, and it is cancelled if the
+     *     walk is cancelled.
+     * </p>
+     *
+     * @return The future.
+     */
+    CompletableFuture<Void> getDelivery() {
+        return delivery;
+    }
+}
@@ -0,0 +1,324 @@
+package com.valkryst.JPathList;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Stores paths in a compact form, to reduce the memory used by very large lists.</p>
+ *
+ * <p>
+ *     Each path is split into its parent directory and its file name. Parent directories are interned, so a directory
+ *     containing many files is only stored once, and each file name is stored as UTF-8 bytes within a single shared
+ *     array. A path is therefore stored as two {@code int}s and the bytes of its file name, rather than as a full
+ *     {@link Path} object with its own byte array and cached string.
+ * </p>
+ *
+ * <p>
+ *     {@link Path} objects are only created when they are retrieved with {@link #get(int)}, and they are not cached. The
+ *     index is an open-addressing hash table of {@code int}s, so it does not hold any {@link Path} objects either.
+ * </p>
+ *
+ * <p>
+ *     A file name which may not survive being encoded as UTF-8, and decoded again, is not stored as bytes. This includes
+ *     names containing unpaired surrogates, and names containing replacement characters, such as a Unix file name whose
+ *     bytes aren't valid in the platform's encoding. The path is stored whole, as its own parent, with an empty name,
+ *     so it is retrieved exactly as it was added, and is only equal to paths which locate the same file.
+ * </p>
+ */
+class CompactPathStorage implements PathStorage {
+    /** The interned parent directories. */
+    private final List<Path> parents = new ArrayList<>();
+
+    /** Maps each interned parent directory to its index within {@link #parents}. */
+    private final Map<Path, Integer> parentIds = new HashMap<>();
+
+    /** The index of each path's parent directory within {@link #parents}. */
+    private int[] parentIndices = new int[16];
+
+    /** The offset of each path's file name within {@link #names}. */
+    private int[] nameOffsets = new int[16];
+
+    /** The UTF-8 encoded file names of every path, stored one after another. */
+    private byte[] names = new byte[256];
+
+    /** The number of bytes used within {@link #names}. */
+    private int namesLength = 0;
+
+    /**
+     * The hash index. Each slot contains either zero, if it is empty, or one more than the index of the path which
+     * occupies it.
+     */
+    private int[] table = new int[32];
+
+    /** The number of stored paths. */
+    private int size = 0;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Path get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + size + ".");
+        }
+
+        final var parent = parents.get(parentIndices[index]);
+
+        final var nameLength = this.nameLength(index);
+        if (nameLength == 0) {
+            return parent;
+        }
+
+        return parent.resolve(new String(names, nameOffsets[index], nameLength, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int indexOf(final Path path) {
+        final var name = nameOf(path);
+        final Integer parentId = parentIds.get(parentOf(path, name));
+        if (parentId == null) {
+            return -1;
+        }
+
+        final var mask = table.length - 1;
+        for (int slot = hash(parentId, name, 0, name.length) & mask ; table[slot] != 0 ; slot = (slot + 1) & mask) {
+            final var index = table[slot] - 1;
+            if (this.matches(index, parentId, name)) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean add(final Path path) {
+        if (this.indexOf(path) != -1) {
+            return false;
+        }
+
+        final var name = nameOf(path);
+        final var parent = parentOf(path, name);
+        Integer parentId = parentIds.get(parent);
+        if (parentId == null) {
+            parentId = parents.size();
+            parents.add(parent);
+            parentIds.put(parent, parentId);
+        }
+
+        if (size == parentIndices.length) {
+            parentIndices = Arrays.copyOf(parentIndices, size * 2);
+            nameOffsets = Arrays.copyOf(nameOffsets, size * 2);
+        }
+
+        if (namesLength + name.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + name.length));
+        }
+
+        parentIndices[size] = parentId;
+        nameOffsets[size] = namesLength;
+        System.arraycopy(name, 0, names, namesLength, name.length);
+        namesLength += name.length;
+        size++;
+
+        // The table is kept at most half full, so that probe sequences remain short.
+        if (size * 2 > table.length) {
+            this.rebuildTable(table.length * 2);
+        } else {
+            this.insertIntoTable(size - 1);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void removeAll(final boolean[] removed) {
+        // Parent directories which are no longer used are dropped, so they are re-interned as the paths are compacted.
+        final var oldParents = new ArrayList<>(parents);
+        parents.clear();
+        parentIds.clear();
+
+        int writeIndex = 0;
+        int writeOffset = 0;
+        for (int readIndex = 0 ; readIndex < removed.length ; readIndex++) {
+            if (removed[readIndex]) {
+                continue;
+            }
+
+            final var parent = oldParents.get(parentIndices[readIndex]);
+            Integer parentId = parentIds.get(parent);
+            if (parentId == null) {
+                parentId = parents.size();
+                parents.add(parent);
+                parentIds.put(parent, parentId);
+            }
+
+            final var nameLength = this.nameLength(readIndex);
+            System.arraycopy(names, nameOffsets[readIndex], names, writeOffset, nameLength);
+
+            parentIndices[writeIndex] = parentId;
+            nameOffsets[writeIndex] = writeOffset;
+            writeOffset += nameLength;
+            writeIndex++;
+        }
+
+        size = writeIndex;
+        namesLength = writeOffset;
+        this.rebuildTable(table.length);
+    }
+
+    @Override
+    public void clear() {
+        parents.clear();
+        parentIds.clear();
+        parentIndices = new int[16];
+        nameOffsets = new int[16];
+        names = new byte[256];
+        namesLength = 0;
+        table = new int[32];
+        size = 0;
+    }
+
+    @Override
+    public long estimateSizeInBytes() {
+        // Each parent has a slot in the list and in the map's table, a map node, and a boxed index.
+        long size = 0;
+        for (final var parent : parents) {
+            size += 4 + 8 + 32 + 16 + PathStorage.estimatePathSizeInBytes(parent);
+        }
+
+        // Each path has a parent index, a name offset, its name's bytes, and two slots in the table.
+        size += this.size * (4 + 4 + 8L) + namesLength;
+        return size;
+    }
+
+    /**
+     * Retrieves the length, in bytes, of the file name of a path.
+     *
+     * @param index Index of the path.
+     * @return The length of the file name.
+     */
+    private int nameLength(final int index) {
+        final var end = index + 1 < size ? nameOffsets[index + 1] : namesLength;
+        return end - nameOffsets[index];
+    }
+
+    /**
+     * Determines whether a stored path has a specific parent and file name.
+     *
+     * @param index Index of the stored path.
+     * @param parentId Index of the parent directory.
+     * @param name The UTF-8 encoded file name.
+     * @return Whether the stored path matches.
+     */
+    private boolean matches(final int index, final int parentId, final byte[] name) {
+        if (parentIndices[index] != parentId) {
+            return false;
+        }
+
+        final var offset = nameOffsets[index];
+        return Arrays.equals(names, offset, offset + this.nameLength(index), name, 0, name.length);
+    }
+
+    /**
+     * Inserts a stored path into the hash index.
+     *
+     * @param index Index of the stored path.
+     */
+    private void insertIntoTable(final int index) {
+        final var mask = table.length - 1;
+
+        int slot = hash(parentIndices[index], names, nameOffsets[index], this.nameLength(index)) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Replaces the hash index with a new one, containing every stored path.
+     *
+     * @param capacity The capacity of the new index. Must be a power of two.
+     */
+    private void rebuildTable(int capacity) {
+        while (capacity < size * 2) {
+            capacity *= 2;
+        }
+
+        table = new int[capacity];
+        for (int i = 0 ; i < size ; i++) {
+            this.insertIntoTable(i);
+        }
+    }
+
+    /**
+     * Retrieves the parent directory under which a path is stored.
+     *
+     * @param path The path.
+     * @param name The encoded file name under which the path is stored. See {@link #nameOf(Path)}.
+     * @return The parent directory.
+     */
+    private static Path parentOf(final Path path, final byte[] name) {
+        // A root has no file name, and some names can't be stored as bytes, so such paths are stored as their own
+        // parents, with empty names.
+        if (name.length == 0) {
+            return path;
+        }
+
+        // A single-element relative path has no parent, so it is stored under the empty path.
+        final var parent = path.getParent();
+        return parent == null ? path.getFileSystem().getPath("") : parent;
+    }
+
+    /**
+     * Retrieves the UTF-8 encoded file name under which a path is stored.
+     *
+     * @param path The path.
+     * @return The encoded file name, or an empty array if the path has no file name, or if its file name may not be
+     *         decoded to the same name.
+     */
+    private static byte[] nameOf(final Path path) {
+        final var name = path.getFileName();
+        if (name == null) {
+            return new byte[0];
+        }
+
+        // Checking for surrogates, rather than only for unpaired ones, means that some valid names are stored whole,
+        // but avoids decoding every name to check that it survives.
+        final var string = name.toString();
+        for (int i = 0 ; i < string.length() ; i++) {
+            final var character = string.charAt(i);
+            if (character == '\uFFFD' || Character.isSurrogate(character)) {
+                return new byte[0];
+            }
+        }
+
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes a parent directory index and a file name.
+     *
+     * @param parentId Index of the parent directory.
+     * @param bytes Array containing the UTF-8 encoded file name.
+     * @param offset Offset of the file name within the array.
+     * @param length Length of the file name.
+     * @return The hash.
+     */
+    private static int hash(final int parentId, final byte[] bytes, final int offset, final int length) {
+        int hash = parentId;
+        for (int i = offset ; i < offset + length ; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,252 @@
+package com.valkryst.JPathList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>A bounded cache of the digests of the contents of regular files.</p>
+ *
+ * <p>
+ *     Each digest is cached against the file's key, size, and modification time, so a file which is reached through
+ *     several paths, or which is added again, is only hashed once, and a file which has been modified since it was
+ *     hashed is hashed again. Once the cache holds its capacity, the least recently used digests are evicted.
+ * </p>
+ *
+ * <p>
+ *     Files are read through memory-mapped regions of a {@link FileChannel}, so their contents are not copied onto the
+ *     heap. Files which are larger than a single region have each region hashed in parallel, on the cache's
+ *     {@link #setExecutor(Executor) executor}, and their digest is the digest of the regions' digests. As files of
+ *     equal size are always divided into the same regions, their digests are equal if, and only if, their contents are
+ *     equal. Small files, and files whose file system does not support mapping, are read into a buffer instead.
+ * </p>
+ */
+class ContentDigestCache {
+    /** The default maximum number of digests which are cached. */
+    static final int DEFAULT_CAPACITY = 65_536;
+
+    /** The algorithm used to hash the contents of files. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** The size, in bytes, of the regions which are hashed in parallel. */
+    private static final long REGION_SIZE = 16L * 1024 * 1024;
+
+    /** The size, in bytes, below which a region is read into a buffer rather than mapped. */
+    private static final long MAP_THRESHOLD = 256L * 1024;
+
+    /** The size, in bytes, of the buffer used to read regions which are not mapped. */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /** The maximum number of regions of a file which are hashed at once. */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /** The cached digests, from least to most recently used. Guarded by itself. */
+    private final Map<Key, String> digests;
+
+    /** The executor on which the regions of large files are hashed. */
+    private volatile Executor executor = PathWalker.DEFAULT_EXECUTOR;
+
+    /**
+     * Constructs a new {@code ContentDigestCache}.
+     *
+     * @param capacity The maximum number of digests which are cached.
+     * @throws IllegalArgumentException If {@code capacity} is less than one.
+     */
+    ContentDigestCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least one, but it was " + capacity + ".");
+        }
+
+        this.digests = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the digest of a regular file, and hashes the file if its digest is not cached.
+     *
+     * @param path The file.
+     * @param attributes The current attributes of the file.
+     * @return The digest.
+     *
+     * @throws IOException If an I/O error occurs when reading the file.
+     * @throws NullPointerException If {@code path} or {@code attributes} is {@code null}.
+     */
+    String getDigest(final Path path, final BasicFileAttributes attributes) throws IOException {
+        final var key = Key.of(path, attributes);
+
+        synchronized (digests) {
+            final var digest = digests.get(key);
+            if (digest != null) {
+                return digest;
+            }
+        }
+
+        // The file is hashed without holding the lock, so that other files can be hashed concurrently. If two threads
+        // hash the same file, then they compute the same digest.
+        final var digest = HexFormat.of().formatHex(digest(path, attributes.size(), executor));
+
+        synchronized (digests) {
+            digests.put(key, digest);
+        }
+
+        return digest;
+    }
+
+    /**
+     * Retrieves the number of cached digests.
+     *
+     * @return The number of cached digests.
+     */
+    int size() {
+        synchronized (digests) {
+            return digests.size();
+        }
+    }
+
+    /**
+     * Sets the executor on which the regions of large files are hashed.
+     *
+     * @param executor The executor.
+     * @throws NullPointerException If {@code executor} is {@code null}.
+     */
+    void setExecutor(final Executor executor) {
+        Objects.requireNonNull(executor);
+        this.executor = executor;
+    }
+
+    /**
+     * Hashes the contents of a file.
+     *
+     * @param path The file.
+     * @param size The size of the file.
+     * @param executor The executor on which the regions of the file are hashed, if it is larger than a single region.
+     * @return The digest.
+     *
+     * @throws IOException If an I/O error occurs when reading the file.
+     */
+    static byte[] digest(final Path path, final long size, final Executor executor) throws IOException {
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (size <= REGION_SIZE) {
+                return digestRegion(channel, 0, size);
+            }
+
+            final var regionCount = (int) ((size + REGION_SIZE - 1) / REGION_SIZE);
+            final var regionDigests = new byte[regionCount][];
+
+            // Positional reads, and mappings, do not depend on the position of the channel, so the regions can safely
+            // be read from the same channel by several threads.
+            try {
+                ParallelTasks.run(regionCount, PARALLELISM, executor, index -> {
+                    final var position = index * REGION_SIZE;
+                    try {
+                        regionDigests[index] = digestRegion(channel, position, Math.min(REGION_SIZE, size - position));
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            final var digest = newMessageDigest();
+            for (final var regionDigest : regionDigests) {
+                digest.update(regionDigest);
+            }
+            return digest.digest();
+        }
+    }
+
+    /**
+     * Hashes a region of a file.
+     *
+     * @param channel The channel of the file.
+     * @param position The position of the region within the file.
+     * @param length The length of the region.
+     * @return The digest of the region.
+     *
+     * @throws IOException If an I/O error occurs, or if the file ends before the region.
+     */
+    private static byte[] digestRegion(final FileChannel channel, final long position, final long length) throws IOException {
+        final var digest = newMessageDigest();
+
+        if (length >= MAP_THRESHOLD) {
+            try {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                return digest.digest();
+            } catch (final UnsupportedOperationException e) {
+                // The file system does not support mapping, so the region is read instead.
+            }
+        }
+
+        final var buffer = ByteBuffer.allocate((int) Math.min(READ_BUFFER_SIZE, Math.max(length, 1)));
+        long offset = 0;
+        while (offset < length) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), length - offset));
+
+            final var read = channel.read(buffer, position + offset);
+            if (read == -1) {
+                throw new IOException("The file ended %d bytes into a region of %d bytes.".formatted(offset, length));
+            }
+
+            digest.update(buffer.flip());
+            offset += read;
+        }
+
+        return digest.digest();
+    }
+
+    /**
+     * Creates a new message digest for the hashing algorithm.
+     *
+     * @return The message digest.
+     */
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            // Every implementation of the Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The attributes of a file which change when its contents change.
+     *
+     * @param file The file key of the file, or its absolute path if its file system does not provide file keys.
+     * @param size The size of the file.
+     * @param lastModifiedTime The time at which the file was last modified.
+     */
+    private record Key(Object file, long size, FileTime lastModifiedTime) {
+        /**
+         * Creates the key of a file.
+         *
+         * @param path The file.
+         * @param attributes The attributes of the file.
+         * @return The key.
+         */
+        private static Key of(final Path path, final BasicFileAttributes attributes) {
+            Objects.requireNonNull(path);
+            Objects.requireNonNull(attributes);
+
+            final var fileKey = attributes.fileKey();
+            final Object file = fileKey == null ? path.toAbsolutePath().normalize() : fileKey;
+            return new Key(file, attributes.size(), attributes.lastModifiedTime());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.valkryst.JPathList;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Caches a fingerprint of each directory which has been listed, along with its subdirectories.</p>
+ *
+ * <p>
+ *     A directory's fingerprint is its modification time, its size, and its file key. Creating, deleting, or renaming
+ *     an entry of a directory updates its modification time, so if a directory's fingerprint is unchanged since it was
+ *     listed, then its entries are also unchanged, and it does not need to be listed again. Its subdirectories may
+ *     still have changed, so they must still be checked, but this costs a single {@code stat} per directory, rather
+ *     than a listing and a {@code stat} per entry.
+ * </p>
+ *
+ * <p>
+ *     On file systems whose modification times are coarse, a change which occurs within the same tick as the listing
+ *     may not be detected. The size of the directory, which many file systems derive from its number of entries, and
+ *     the file key, which changes when a directory is replaced, reduce the chance of this.
+ * </p>
+ *
+ * <p>
+ *     A directory whose entries were not all added to the list, such as one with entries which were rejected as
+ *     duplicates, can be {@link #exclude(Path) excluded}, so that it is listed each time that it is walked, until the
+ *     cache is cleared.
+ * </p>
+ */
+class DirectoryFingerprintCache {
+    /** The fingerprint and subdirectories of each listed directory. */
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /** The directories whose fingerprints are not recorded. */
+    private final Set<Path> excludedDirectories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records the fingerprint and subdirectories of a directory which has been listed.
+     *
+     * @param directory The directory.
+     * @param attributes The attributes of the directory, which were read before it was listed.
+     * @param subdirectories The subdirectories which were found when the directory was listed.
+     *
+     * @throws NullPointerException If {@code directory}, {@code attributes}, or {@code subdirectories} is {@code null}.
+     */
+    void put(final Path directory, final BasicFileAttributes attributes, final List<Path> subdirectories) {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(attributes);
+        Objects.requireNonNull(subdirectories);
+
+        entries.put(directory, new Entry(Fingerprint.of(attributes), List.copyOf(subdirectories)));
+
+        // The directory is checked after its entry is recorded, as it may be excluded concurrently, by the thread which
+        // rejects its entries.
+        if (excludedDirectories.contains(directory)) {
+            entries.remove(directory);
+        }
+    }
+
+    /**
+     * Retrieves the subdirectories of a directory, if the directory is unchanged since it was listed.
+     *
+     * @param directory The directory.
+     * @param attributes The current attributes of the directory.
+     * @return The subdirectories, or {@code null} if the directory has changed, or has not been listed.
+     */
+    List<Path> getUnchangedSubdirectories(final Path directory, final BasicFileAttributes attributes) {
+        final var entry = entries.get(directory);
+        if (entry == null || !entry.fingerprint().equals(Fingerprint.of(attributes))) {
+            return null;
+        }
+
+        return entry.subdirectories();
+    }
+
+    /**
+     * Determines whether a directory has been listed.
+     *
+     * @param directory The directory.
+     * @return Whether the directory has been listed.
+     */
+    boolean contains(final Path directory) {
+        return entries.containsKey(directory);
+    }
+
+    /**
+     * <p>Discards the entries of a path, and of its parent directory.</p>
+     *
+     * <p>
+     *     This is called when a path is removed from the list, as its parent directory can no longer be skipped on the
+     *     assumption that all of its entries are in the list.
+     * </p>
+     *
+     * @param path The path.
+     */
+    void invalidate(final Path path) {
+        entries.remove(path);
+
+        final var parent = path.getParent();
+        if (parent != null) {
+            entries.remove(parent);
+        }
+    }
+
+    /**
+     * <p>Discards the entry of a directory, and stops recording its fingerprint, until the cache is cleared.</p>
+     *
+     * <p>
+     *     This is called when some of a directory's entries are rejected as duplicates, as it can no longer be skipped
+     *     on the assumption that all of its entries are in the list. The entries may be rejected before the directory's
+     *     fingerprint is recorded, so the fingerprint is not only discarded, but also prevented from being recorded.
+     * </p>
+     *
+     * @param directory The directory.
+     */
+    void exclude(final Path directory) {
+        excludedDirectories.add(directory);
+        entries.remove(directory);
+    }
+
+    /** Discards every entry, and every exclusion. */
+    void clear() {
+        entries.clear();
+        excludedDirectories.clear();
+    }
+
+    /**
+     * The attributes of a directory which change when its entries change.
+     *
+     * @param lastModifiedTime The time at which the directory was last modified.
+     * @param size The size of the directory.
+     * @param fileKey The file key of the directory, or {@code null} if its file system does not provide one.
+     */
+    private record Fingerprint(FileTime lastModifiedTime, long size, Object fileKey) {
+        /**
+         * Creates the fingerprint of a directory.
+         *
+         * @param attributes The attributes of the directory.
+         * @return The fingerprint.
+         */
+        private static Fingerprint of(final BasicFileAttributes attributes) {
+            return new Fingerprint(attributes.lastModifiedTime(), attributes.size(), attributes.fileKey());
+        }
+    }
+
+    /**
+     * The fingerprint and subdirectories of a listed directory.
+     *
+     * @param fingerprint The fingerprint of the directory, when it was listed.
+     * @param subdirectories The subdirectories which were found when the directory was listed.
+     */
+    private record Entry(Fingerprint fingerprint, List<Path> subdirectories) {}
+}
@@ -0,0 +1,275 @@
+package com.valkryst.JPathList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Watches directories for the creation and deletion of their children, using a {@link WatchService}.</p>
+ *
+ * <p>
+ *     Each file system has its own watch service, and its own daemon thread which waits for events. Once an event
+ *     arrives, the thread continues to collect events until none have arrived for the coalescing interval, and then
+ *     passes them to the handler as a single {@link Batch}. Renaming a path is reported as the deletion of its old
+ *     path and the creation of its new path.
+ * </p>
+ *
+ * <p>The handler is called on the watcher's thread, so it should not block for long.</p>
+ */
+class DirectoryWatcher implements Closeable {
+    private final Logger logger = Logger.getLogger(this.getClass().getName());
+
+    /** The maximum number of events in a single batch, so that a constant stream of events is still applied. */
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    /** Receives each batch of events. */
+    private final Consumer<Batch> handler;
+
+    /** The time, in milliseconds, to wait for further events before a batch is passed to the handler. */
+    private final long coalescingInterval;
+
+    /** The watch service of each file system. */
+    private final Map<FileSystem, WatchService> watchServices = new ConcurrentHashMap<>();
+
+    /** The key of each watched directory. */
+    private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+
+    /** Whether the watcher has been closed. */
+    private volatile boolean isClosed = false;
+
+    /**
+     * Constructs a new {@code DirectoryWatcher}.
+     *
+     * @param handler Receives each batch of events.
+     * @param coalescingInterval The time, in milliseconds, to wait for further events before a batch is passed to the
+     *                           handler.
+     *
+     * @throws IllegalArgumentException If {@code coalescingInterval} is negative.
+     * @throws NullPointerException If {@code handler} is {@code null}.
+     */
+    DirectoryWatcher(final Consumer<Batch> handler, final long coalescingInterval) {
+        Objects.requireNonNull(handler);
+
+        if (coalescingInterval < 0) {
+            throw new IllegalArgumentException("The coalescing interval cannot be negative, but it was " + coalescingInterval + ".");
+        }
+
+        this.handler = handler;
+        this.coalescingInterval = coalescingInterval;
+    }
+
+    /**
+     * Starts watching a directory, if it is not already being watched.
+     *
+     * @param directory Directory to be watched.
+     *
+     * @throws IllegalStateException If the watcher has been closed.
+     * @throws IOException If an I/O error occurs.
+     * @throws NullPointerException If {@code directory} is {@code null}.
+     */
+    void register(final Path directory) throws IOException {
+        Objects.requireNonNull(directory);
+
+        if (isClosed) {
+            throw new IllegalStateException("The watcher has been closed.");
+        }
+
+        if (watchKeys.containsKey(directory)) {
+            return;
+        }
+
+        final WatchService watchService;
+        synchronized (watchServices) {
+            final var fileSystem = directory.getFileSystem();
+
+            var existingService = watchServices.get(fileSystem);
+            if (existingService == null) {
+                existingService = fileSystem.newWatchService();
+                watchServices.put(fileSystem, existingService);
+
+                final var thread = new Thread(() -> this.run(fileSystem), "JPathList-Watcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            watchService = existingService;
+        }
+
+        try {
+            watchKeys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE));
+        } catch (final ClosedWatchServiceException e) {
+            throw new IllegalStateException("The watcher has been closed.", e);
+        }
+    }
+
+    /**
+     * Stops watching a directory, and every watched directory within it.
+     *
+     * @param path Path to stop watching.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    void unregister(final Path path) {
+        Objects.requireNonNull(path);
+        this.unregisterIf(directory -> directory.startsWith(path));
+    }
+
+    /**
+     * Stops watching every watched directory which matches a predicate, in a single pass over the watched directories.
+     *
+     * @param predicate The predicate.
+     * @throws NullPointerException If {@code predicate} is {@code null}.
+     */
+    void unregisterIf(final Predicate<Path> predicate) {
+        Objects.requireNonNull(predicate);
+
+        watchKeys.entrySet().removeIf(entry -> {
+            if (predicate.test(entry.getKey())) {
+                entry.getValue().cancel();
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /** Stops watching every directory. */
+    void unregisterAll() {
+        watchKeys.values().forEach(WatchKey::cancel);
+        watchKeys.clear();
+    }
+
+    /**
+     * Determines whether a directory is being watched.
+     *
+     * @param directory The directory.
+     * @return Whether the directory is being watched.
+     */
+    boolean isWatching(final Path directory) {
+        return watchKeys.containsKey(directory);
+    }
+
+    /** Stops watching every directory, and stops the watcher's threads. */
+    @Override
+    public void close() {
+        isClosed = true;
+        this.unregisterAll();
+
+        synchronized (watchServices) {
+            for (final var watchService : watchServices.values()) {
+                try {
+                    watchService.close();
+                } catch (final IOException e) {
+                    logger.log(Level.WARNING, "Failed to close a watch service.", e);
+                }
+            }
+
+            watchServices.clear();
+        }
+    }
+
+    /**
+     * Waits for events from the watch service of a file system, and passes them to the handler in batches, until the
+     * watch service is closed.
+     *
+     * @param fileSystem The file system.
+     */
+    private void run(final FileSystem fileSystem) {
+        final var watchService = watchServices.get(fileSystem);
+        if (watchService == null) {
+            return;
+        }
+
+        try {
+            while (!isClosed) {
+                final var batch = new Batch(new LinkedHashSet<>(), new LinkedHashSet<>(), new LinkedHashSet<>());
+
+                var key = watchService.take();
+                int eventCount = 0;
+                while (key != null) {
+                    eventCount += this.collect(key, batch);
+                    if (eventCount >= MAX_BATCH_SIZE) {
+                        break;
+                    }
+
+                    key = watchService.poll(coalescingInterval, TimeUnit.MILLISECONDS);
+                }
+
+                if (isClosed) {
+                    return;
+                }
+
+                try {
+                    handler.accept(batch);
+                } catch (final RuntimeException e) {
+                    logger.log(Level.WARNING, "Failed to apply a batch of file system events.", e);
+                }
+            }
+        } catch (final ClosedWatchServiceException e) {
+            // The watcher has been closed.
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds the pending events of a key to a batch, and resets the key.
+     *
+     * @param key The key.
+     * @param batch The batch.
+     * @return The number of events which were collected.
+     */
+    private int collect(final WatchKey key, final Batch batch) {
+        final var directory = (Path) key.watchable();
+        final var events = key.pollEvents();
+
+        for (final var event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                batch.overflowed().add(directory);
+                continue;
+            }
+
+            final var child = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                batch.created().add(child);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // A path which was created and then deleted, within the same batch, never needs to be added.
+                batch.created().remove(child);
+                batch.deleted().add(child);
+            }
+        }
+
+        // If the key can't be reset, then the directory is no longer accessible, which is usually because it has been
+        // deleted. If its parent is also being watched, then this will be reported twice, which is harmless.
+        if (!key.reset() && watchKeys.remove(directory, key)) {
+            batch.created().remove(directory);
+            batch.deleted().add(directory);
+        }
+
+        return events.size();
+    }
+
+    /**
+     * A batch of coalesced events.
+     *
+     * @param created Paths which have been created. A path which was deleted and then re-created, within the same
+     *                batch, is in both this set and {@code deleted}.
+     * @param deleted Paths which have been deleted.
+     * @param overflowed Directories for which events may have been lost, and which must be re-listed.
+     */
+    record Batch(Set<Path> created, Set<Path> deleted, Set<Path> overflowed) {}
+}
@@ -0,0 +1,306 @@
+package com.valkryst.JPathList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Rejects paths which are duplicates of those in a list, according to a {@link DuplicateMode}.</p>
+ *
+ * <p>
+ *     The key of each path in the list is registered when the path is added, and is discarded when the path is
+ *     {@link #forget(Collection) forgotten}. A path is a duplicate if its key is already registered to a different
+ *     path. Paths which are equal are never rejected, as the {@link PathListModel} already rejects them.
+ * </p>
+ *
+ * <p>
+ *     In {@link DuplicateMode#CONTENT} mode, the regular files within each batch of paths are hashed in parallel, on the
+ *     detector's {@link #setExecutor(Executor) executor}, and their digests are cached in a {@link ContentDigestCache},
+ *     so a file is only hashed again if it is modified. The digests of a batch can be {@link #prefetch(List)
+ *     prefetched} before the batch is registered, so that the files are hashed whilst they are still being walked,
+ *     rather than whilst they are being added.
+ * </p>
+ *
+ * <p>
+ *     Paths whose attributes can't be read, and files which can't be hashed, are keyed by their absolute paths, so they
+ *     are only rejected if an equal path has been registered.
+ * </p>
+ */
+class DuplicateDetector {
+    private final Logger logger = Logger.getLogger(this.getClass().getName());
+
+    /** The maximum number of paths whose keys are computed at once. */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /** The cache of the digests of the regular files which have been hashed. */
+    private final ContentDigestCache digestCache;
+
+    /** The executor on which the attributes of paths are read, and their regular files hashed. */
+    private volatile Executor executor = PathWalker.DEFAULT_EXECUTOR;
+
+    /** How duplicates are determined. */
+    private volatile DuplicateMode mode = DuplicateMode.PATH;
+
+    /** The path to which each registered key belongs. Guarded by {@code this}. */
+    private final Map<Object, Path> pathsByKey = new HashMap<>();
+
+    /** The key of each registered path. Guarded by {@code this}. */
+    private final Map<Path, Object> keysByPath = new HashMap<>();
+
+    /**
+     * Constructs a new {@code DuplicateDetector}.
+     *
+     * @param digestCache The cache of the digests of the regular files which have been hashed.
+     * @throws NullPointerException If {@code digestCache} is {@code null}.
+     */
+    DuplicateDetector(final ContentDigestCache digestCache) {
+        Objects.requireNonNull(digestCache);
+        this.digestCache = digestCache;
+    }
+
+    /**
+     * <p>Registers the keys of a batch of paths which are to be added to the list, and rejects their duplicates.</p>
+     *
+     * <p>
+     *     A path is rejected if its key has already been registered to a different path, including a path earlier in
+     *     the same batch. If the mode is {@link DuplicateMode#PATH}, then no keys are computed, and the batch is
+     *     returned as it is.
+     * </p>
+     *
+     * @param paths The paths.
+     * @return The paths which are not duplicates, in their original order.
+     *
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    List<Path> register(final List<Path> paths) {
+        Objects.requireNonNull(paths);
+
+        final var currentMode = mode;
+        if (currentMode == DuplicateMode.PATH || paths.isEmpty()) {
+            return paths;
+        }
+
+        final var keys = this.computeKeys(paths, currentMode);
+
+        synchronized (this) {
+            // If the mode was changed whilst the keys were being computed, then they would be registered alongside keys
+            // of a different kind, so the batch is registered again under the new mode.
+            if (currentMode != mode) {
+                return this.register(paths);
+            }
+
+            final var uniquePaths = new ArrayList<Path>(paths.size());
+            for (int i = 0 ; i < paths.size() ; i++) {
+                final var path = paths.get(i);
+                final var existingPath = pathsByKey.putIfAbsent(keys[i], path);
+
+                if (existingPath == null || existingPath.equals(path)) {
+                    keysByPath.put(path, keys[i]);
+                    uniquePaths.add(path);
+                }
+            }
+
+            return uniquePaths;
+        }
+    }
+
+    /**
+     * <p>Registers the keys of a batch of paths which are already in the list, without rejecting any of them.</p>
+     *
+     * <p>
+     *     This is used for paths which are added to the list without being registered first, such as restored paths,
+     *     so that later paths are rejected if they are duplicates of them. If the mode is changed whilst the keys are
+     *     being computed, then nothing is registered, as the new mode registers every path in the list.
+     * </p>
+     *
+     * @param paths The paths.
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    void registerAll(final List<Path> paths) {
+        Objects.requireNonNull(paths);
+
+        final var currentMode = mode;
+        if (currentMode == DuplicateMode.PATH || paths.isEmpty()) {
+            return;
+        }
+
+        final var keys = this.computeKeys(paths, currentMode);
+
+        synchronized (this) {
+            if (currentMode != mode) {
+                return;
+            }
+
+            for (int i = 0 ; i < paths.size() ; i++) {
+                pathsByKey.putIfAbsent(keys[i], paths.get(i));
+                keysByPath.put(paths.get(i), keys[i]);
+            }
+        }
+    }
+
+    /**
+     * Hashes the regular files within a batch of paths, whose digests are not cached, so that the batch can later be
+     * registered without hashing them. This does nothing unless the mode is {@link DuplicateMode#CONTENT}.
+     *
+     * @param paths The paths.
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    void prefetch(final List<Path> paths) {
+        Objects.requireNonNull(paths);
+
+        if (mode == DuplicateMode.CONTENT) {
+            this.computeKeys(paths, DuplicateMode.CONTENT);
+        }
+    }
+
+    /**
+     * Discards the keys of paths which have been removed from the list, so that they are no longer duplicates.
+     *
+     * @param paths The paths.
+     */
+    synchronized void forget(final Collection<Path> paths) {
+        if (keysByPath.isEmpty()) {
+            return;
+        }
+
+        for (final var path : paths) {
+            final var key = keysByPath.remove(path);
+            if (key != null) {
+                pathsByKey.remove(key, path);
+            }
+        }
+    }
+
+    /** Discards the keys of every path. */
+    synchronized void clear() {
+        pathsByKey.clear();
+        keysByPath.clear();
+    }
+
+    /**
+     * Retrieves how duplicates are determined.
+     *
+     * @return The mode.
+     */
+    DuplicateMode getMode() {
+        return mode;
+    }
+
+    /**
+     * <p>Sets how duplicates are determined, and registers the paths which are already in the list under the new mode.</p>
+     *
+     * <p>Duplicates among the paths which are already in the list are registered, but are not rejected.</p>
+     *
+     * @param mode The mode.
+     * @param paths The paths which are already in the list.
+     *
+     * @throws NullPointerException If {@code mode} or {@code paths} is {@code null}.
+     */
+    void setMode(final DuplicateMode mode, final List<Path> paths) {
+        Objects.requireNonNull(mode);
+        Objects.requireNonNull(paths);
+
+        final var keys = mode == DuplicateMode.PATH ? null : this.computeKeys(paths, mode);
+
+        synchronized (this) {
+            this.mode = mode;
+            this.clear();
+
+            if (keys != null) {
+                for (int i = 0 ; i < paths.size() ; i++) {
+                    pathsByKey.putIfAbsent(keys[i], paths.get(i));
+                    keysByPath.put(paths.get(i), keys[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the executor on which the attributes of paths are read, and their regular files hashed.
+     *
+     * @param executor The executor.
+     * @throws NullPointerException If {@code executor} is {@code null}.
+     */
+    void setExecutor(final Executor executor) {
+        Objects.requireNonNull(executor);
+        this.executor = executor;
+        digestCache.setExecutor(executor);
+    }
+
+    /**
+     * <p>Computes the key of each path in a batch.</p>
+     *
+     * <p>The attributes of the paths are read, and their regular files hashed, in parallel, on the executor.</p>
+     *
+     * @param paths The paths.
+     * @param mode How duplicates are determined.
+     * @return The key of each path, in the same order as the paths.
+     */
+    private Object[] computeKeys(final List<Path> paths, final DuplicateMode mode) {
+        final var keys = new Object[paths.size()];
+        ParallelTasks.run(keys.length, PARALLELISM, executor, index -> keys[index] = this.computeKey(paths.get(index), mode));
+        return keys;
+    }
+
+    /**
+     * Computes the key of a path.
+     *
+     * @param path The path.
+     * @param mode How duplicates are determined.
+     * @return The key.
+     */
+    private Object computeKey(final Path path, final DuplicateMode mode) {
+        Objects.requireNonNull(path);
+
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (final IOException | SecurityException e) {
+            return new FileKey(path.toAbsolutePath().normalize());
+        }
+
+        if (mode == DuplicateMode.CONTENT && attributes.isRegularFile()) {
+            try {
+                return new ContentKey(attributes.size(), digestCache.getDigest(path, attributes));
+            } catch (final IOException | SecurityException e) {
+                logger.log(Level.FINE, "Failed to hash the contents of '%s'.".formatted(path), e);
+            }
+        }
+
+        final var fileKey = attributes.fileKey();
+        if (fileKey != null) {
+            return new FileKey(fileKey);
+        }
+
+        try {
+            return new FileKey(path.toRealPath());
+        } catch (final IOException | SecurityException e) {
+            return new FileKey(path.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Identifies a file by its file key, or by its path if it has no file key.
+     *
+     * @param file The file key, or the path.
+     */
+    private record FileKey(Object file) {}
+
+    /**
+     * Identifies the contents of a regular file.
+     *
+     * @param size The size of the file.
+     * @param digest The digest of the contents of the file.
+     */
+    private record ContentKey(long size, String digest) {}
+}
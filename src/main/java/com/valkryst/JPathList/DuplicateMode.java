@@ -0,0 +1,25 @@
+package com.valkryst.JPathList;
+
+/**
+ * <p>The ways in which {@link JPathList} determines whether a path is a duplicate of one which is already in the list.</p>
+ *
+ * <p>See {@link JPathList#setDuplicateMode(DuplicateMode)}.</p>
+ */
+public enum DuplicateMode {
+    /** Paths are duplicates if they are equal. This requires no I/O. */
+    PATH,
+
+    /**
+     * Paths are duplicates if they locate the same file, such as a relative and an absolute path to a file, or two hard
+     * links to it. Files are identified by their file keys, or by their real paths if their file system does not provide
+     * file keys. This requires a {@code stat} per path.
+     */
+    FILE,
+
+    /**
+     * Paths are duplicates if they locate the same file, or if they are regular files with identical contents. The
+     * contents of each regular file are hashed once, and the hash is reused until the file is modified. Directories are
+     * compared as with {@link #FILE}.
+     */
+    CONTENT
+}
@@ -0,0 +1,563 @@
+package com.valkryst.JPathList;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>
+ *     A {@link ListModel} which displays the paths of a {@link PathListModel}, or of a {@link SortedPathListModel}, whose
+ *     file names contain a query.
+ * </p>
+ *
+ * <p>
+ *     The query is matched case-insensitively against the file name of each path, and the matching paths are displayed
+ *     in the same order as in the source model. The model listens to the source, so paths which are added to, or
+ *     removed from, the source are added to, or removed from, the view as well.
+ * </p>
+ *
+ * <p>
+ *     The file names are indexed by their trigrams, so that a query of three or more characters only has to check the
+ *     names which contain its rarest trigram. A query which extends the previous query only has to check the paths
+ *     which are already displayed. When the query changes, the previous and new matches are compared, and a single
+ *     {@link ListDataEvent} is fired for each contiguous range of paths which was added or removed, so listeners such
+ *     as a selection model are only told about the paths which actually changed.
+ * </p>
+ *
+ * <p>
+ *     The model is synchronized on the {@link PathListModel} at the root of its source, so it can be used by the same
+ *     threads as that model, and it never observes the source in the middle of a modification.
+ * </p>
+ */
+public class FilteredPathListModel extends AbstractListModel<Path> {
+    /** The minimum number of removed paths, before the index is rebuilt to discard them. */
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    /** The model whose paths are filtered. */
+    private final ListModel<Path> source;
+
+    /** The lock which guards this model, which is the {@link PathListModel} at the root of the source. */
+    private final Object lock;
+
+    /** Applies the modifications of the source to this model. */
+    private final ListDataListener sourceListener = new SourceListener();
+
+    /** The ID of the path at each position of the source. */
+    private final IntList order = new IntList();
+
+    /** The lowercase file name of each path, by ID, or {@code null} if the path has been removed from the source. */
+    private String[] names = new String[16];
+
+    /** The ID to be assigned to the next path which is added to the source. */
+    private int nextId = 0;
+
+    /** The number of IDs whose paths have been removed from the source. */
+    private int removedIdCount = 0;
+
+    /** The IDs of the paths whose names contain each trigram, in ascending order. */
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    /** The lowercase query. */
+    private String query = "";
+
+    /** The source position of each displayed path, in ascending order. */
+    private IntList visible = new IntList();
+
+    /**
+     * Constructs a new {@code FilteredPathListModel}, which initially displays every path of its source.
+     *
+     * @param source The model whose paths are filtered.
+     * @throws NullPointerException If {@code source} is {@code null}.
+     */
+    public FilteredPathListModel(final PathListModel source) {
+        this(source, source);
+    }
+
+    /**
+     * Constructs a new {@code FilteredPathListModel}, which initially displays every path of its source.
+     *
+     * @param source The model whose paths are filtered.
+     * @throws NullPointerException If {@code source} is {@code null}.
+     */
+    public FilteredPathListModel(final SortedPathListModel source) {
+        this(source, Objects.requireNonNull(source).getSource());
+    }
+
+    /**
+     * Constructs a new {@code FilteredPathListModel}, which initially displays every path of its source.
+     *
+     * @param source The model whose paths are filtered.
+     * @param lock The lock which guards the source.
+     * @throws NullPointerException If {@code source} is {@code null}.
+     */
+    private FilteredPathListModel(final ListModel<Path> source, final Object lock) {
+        Objects.requireNonNull(source);
+        this.source = source;
+        this.lock = lock;
+
+        synchronized (lock) {
+            this.rebuild();
+            source.addListDataListener(sourceListener);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (lock) {
+            return visible.size();
+        }
+    }
+
+    @Override
+    public Path getElementAt(final int index) {
+        synchronized (lock) {
+            return source.getElementAt(visible.get(index));
+        }
+    }
+
+    /**
+     * Retrieves the position, in the source model, of a displayed path.
+     *
+     * @param index The index of the path in this model.
+     * @return The index of the path in the source model.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    public int getSourceIndex(final int index) {
+        synchronized (lock) {
+            return visible.get(index);
+        }
+    }
+
+    /**
+     * Retrieves the model whose paths are filtered.
+     *
+     * @return The source model.
+     */
+    public ListModel<Path> getSource() {
+        return source;
+    }
+
+    /**
+     * Retrieves the query.
+     *
+     * @return The query, in lowercase.
+     */
+    public String getQuery() {
+        synchronized (lock) {
+            return query;
+        }
+    }
+
+    /**
+     * <p>Sets the query, and displays the paths whose file names contain it.</p>
+     *
+     * <p>An empty query displays every path.</p>
+     *
+     * @param query The query, which is matched case-insensitively.
+     * @throws NullPointerException If {@code query} is {@code null}.
+     */
+    public void setQuery(final String query) {
+        Objects.requireNonNull(query);
+
+        synchronized (lock) {
+            final var newQuery = query.toLowerCase(Locale.ROOT);
+            if (newQuery.equals(this.query)) {
+                return;
+            }
+
+            final IntList matches;
+            if (!this.query.isEmpty() && newQuery.contains(this.query)) {
+                // Every path which matches the new query also matches the previous one.
+                matches = new IntList();
+                for (int i = 0 ; i < visible.size() ; i++) {
+                    final var position = visible.get(i);
+                    if (names[order.get(position)].contains(newQuery)) {
+                        matches.add(position);
+                    }
+                }
+            } else if (newQuery.length() >= 3) {
+                matches = this.findIndexedMatches(newQuery);
+            } else {
+                matches = new IntList();
+                for (int position = 0 ; position < order.size() ; position++) {
+                    if (names[order.get(position)].contains(newQuery)) {
+                        matches.add(position);
+                    }
+                }
+            }
+
+            this.query = newQuery;
+            this.replaceVisible(matches);
+        }
+    }
+
+    /** Stops listening to the source, after which this model is no longer updated. */
+    void detach() {
+        source.removeListDataListener(sourceListener);
+    }
+
+    /**
+     * Finds the source positions of the paths whose names contain a query of at least three characters, by checking
+     * only the names which contain its rarest trigram.
+     *
+     * @param query The lowercase query.
+     * @return The source positions of the matching paths, in ascending order.
+     */
+    private IntList findIndexedMatches(final String query) {
+        IntList rarest = null;
+        for (int i = 0 ; i + 3 <= query.length() ; i++) {
+            final var ids = postings.get(trigram(query, i));
+            if (ids == null) {
+                return new IntList();
+            }
+
+            if (rarest == null || ids.size() < rarest.size()) {
+                rarest = ids;
+            }
+        }
+
+        final var candidates = new BitSet(nextId);
+        for (int i = 0 ; i < rarest.size() ; i++) {
+            final var id = rarest.get(i);
+            if (names[id] != null && names[id].contains(query)) {
+                candidates.set(id);
+            }
+        }
+
+        final var matches = new IntList();
+        for (int position = 0 ; position < order.size() ; position++) {
+            if (candidates.get(order.get(position))) {
+                matches.add(position);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Replaces the displayed paths, then fires a single event for each contiguous range of paths which was removed or
+     * added.
+     *
+     * @param matches The source positions of the paths to display, in ascending order.
+     */
+    private void replaceVisible(final IntList matches) {
+        final var previous = visible;
+        visible = matches;
+
+        // The events are fired in order, with the indices of each event relative to the list as it would be after
+        // the previous events, so that listeners which adjust their own state as each event arrives remain correct.
+        int i = 0;
+        int j = 0;
+        int index = 0;
+        while (i < previous.size() || j < matches.size()) {
+            if (i < previous.size() && j < matches.size() && previous.get(i) == matches.get(j)) {
+                i++;
+                j++;
+                index++;
+            } else if (j == matches.size() || (i < previous.size() && previous.get(i) < matches.get(j))) {
+                final var start = i;
+                while (i < previous.size() && (j == matches.size() || previous.get(i) < matches.get(j))) {
+                    i++;
+                }
+
+                this.fireIntervalRemoved(this, index, index + i - start - 1);
+            } else {
+                final var start = j;
+                while (j < matches.size() && (i == previous.size() || matches.get(j) < previous.get(i))) {
+                    j++;
+                }
+
+                this.fireIntervalAdded(this, index, index + j - start - 1);
+                index += j - start;
+            }
+        }
+    }
+
+    /**
+     * Adds the paths which were inserted into a range of the source, and displays those which match the query.
+     *
+     * @param index0 The source position of the first inserted path.
+     * @param index1 The source position of the last inserted path.
+     */
+    private void sourceIntervalAdded(final int index0, final int index1) {
+        final var count = index1 - index0 + 1;
+
+        final var ids = new int[count];
+        final var matches = new IntList();
+        for (int i = 0 ; i < count ; i++) {
+            ids[i] = this.index(nameOf(source.getElementAt(index0 + i)));
+            if (names[ids[i]].contains(query)) {
+                matches.add(index0 + i);
+            }
+        }
+        order.insert(index0, ids, count);
+
+        // The inserted paths are contiguous in the source, so those which match are contiguous in this model.
+        final var viewIndex = visible.lowerBound(index0);
+        visible.shift(viewIndex, count);
+        visible.insert(viewIndex, matches.values, matches.size());
+
+        if (matches.size() > 0) {
+            this.fireIntervalAdded(this, viewIndex, viewIndex + matches.size() - 1);
+        }
+    }
+
+    /**
+     * Removes the paths which were removed from a range of the source.
+     *
+     * @param index0 The source position of the first removed path.
+     * @param index1 The source position of the last removed path.
+     */
+    private void sourceIntervalRemoved(final int index0, final int index1) {
+        final var count = index1 - index0 + 1;
+
+        for (int position = index0 ; position <= index1 ; position++) {
+            names[order.get(position)] = null;
+        }
+        removedIdCount += count;
+        order.remove(index0, index1 + 1);
+
+        final var from = visible.lowerBound(index0);
+        final var to = visible.lowerBound(index1 + 1);
+        visible.remove(from, to);
+        visible.shift(from, -count);
+
+        // The names of removed paths remain in the trigram index until it is rebuilt, so it is rebuilt once they
+        // outnumber the names of the remaining paths.
+        if (removedIdCount >= MIN_COMPACTION_SIZE && removedIdCount > order.size()) {
+            this.compact();
+        }
+
+        if (to > from) {
+            this.fireIntervalRemoved(this, from, to - 1);
+        }
+    }
+
+    /** Re-indexes every path of the source, and displays those which match the query. */
+    private void rebuild() {
+        this.clearIndex(source.getSize());
+        for (int position = 0 ; position < source.getSize() ; position++) {
+            order.add(this.index(nameOf(source.getElementAt(position))));
+        }
+
+        visible = new IntList();
+        for (int position = 0 ; position < order.size() ; position++) {
+            if (names[order.get(position)].contains(query)) {
+                visible.add(position);
+            }
+        }
+    }
+
+    /**
+     * <p>Re-indexes the remaining paths, to discard the names of removed paths from the trigram index.</p>
+     *
+     * <p>
+     *     The source may have been modified further than the events which have been received so far, such as when it
+     *     removes several ranges at once, so the names are re-indexed from this model, rather than from the source.
+     * </p>
+     */
+    private void compact() {
+        final var previousNames = names;
+        final var previousOrder = new IntList();
+        previousOrder.insert(0, order.values, order.size());
+
+        this.clearIndex(previousOrder.size());
+        for (int position = 0 ; position < previousOrder.size() ; position++) {
+            order.add(this.index(previousNames[previousOrder.get(position)]));
+        }
+    }
+
+    /**
+     * Discards every indexed name.
+     *
+     * @param capacity The number of names which are about to be indexed.
+     */
+    private void clearIndex(final int capacity) {
+        order.clear();
+        postings.clear();
+        names = new String[Math.max(16, capacity)];
+        nextId = 0;
+        removedIdCount = 0;
+    }
+
+    /**
+     * Retrieves the name by which a path is matched.
+     *
+     * @param path The path.
+     * @return The lowercase file name of the path, or the entire path if it has no file name.
+     */
+    private static String nameOf(final Path path) {
+        final var fileName = path.getFileName();
+        return (fileName == null ? path.toString() : fileName.toString()).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Assigns an ID to a name, and adds it to the trigram index.
+     *
+     * @param name The lowercase name of a path.
+     * @return The ID of the path.
+     */
+    private int index(final String name) {
+        if (nextId == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+
+        final var id = nextId++;
+        names[id] = name;
+
+        for (int i = 0 ; i + 3 <= name.length() ; i++) {
+            final var ids = postings.computeIfAbsent(trigram(name, i), key -> new IntList());
+
+            // A name which contains the same trigram more than once is only listed once.
+            if (ids.size() == 0 || ids.get(ids.size() - 1) != id) {
+                ids.add(id);
+            }
+        }
+
+        return id;
+    }
+
+    /**
+     * Packs three characters of a string into a single key.
+     *
+     * @param string The string.
+     * @param index The index of the first character.
+     * @return The key.
+     */
+    private static long trigram(final String string, final int index) {
+        return ((long) string.charAt(index) << 32) | ((long) string.charAt(index + 1) << 16) | string.charAt(index + 2);
+    }
+
+    /** Applies the modifications of the source model to this model. */
+    private class SourceListener implements ListDataListener {
+        @Override
+        public void intervalAdded(final ListDataEvent event) {
+            synchronized (lock) {
+                sourceIntervalAdded(event.getIndex0(), event.getIndex1());
+            }
+        }
+
+        @Override
+        public void intervalRemoved(final ListDataEvent event) {
+            synchronized (lock) {
+                sourceIntervalRemoved(event.getIndex0(), event.getIndex1());
+            }
+        }
+
+        @Override
+        public void contentsChanged(final ListDataEvent event) {
+            synchronized (lock) {
+                final var previousSize = visible.size();
+                rebuild();
+
+                if (previousSize > 0) {
+                    fireIntervalRemoved(FilteredPathListModel.this, 0, previousSize - 1);
+                }
+
+                if (visible.size() > 0) {
+                    fireIntervalAdded(FilteredPathListModel.this, 0, visible.size() - 1);
+                }
+            }
+        }
+    }
+
+    /** A growable array of {@code int} values. */
+    private static class IntList {
+        /** The values, followed by unused capacity. */
+        private int[] values = new int[16];
+
+        /** The number of values. */
+        private int size = 0;
+
+        private int size() {
+            return size;
+        }
+
+        private int get(final int index) {
+            Objects.checkIndex(index, size);
+            return values[index];
+        }
+
+        private void add(final int value) {
+            this.ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        /**
+         * Inserts values at an index.
+         *
+         * @param index The index at which to insert the first value.
+         * @param source The values to insert.
+         * @param count The number of values to insert, from the start of {@code source}.
+         */
+        private void insert(final int index, final int[] source, final int count) {
+            Objects.checkIndex(index, size + 1);
+            this.ensureCapacity(size + count);
+            System.arraycopy(values, index, values, index + count, size - index);
+            System.arraycopy(source, 0, values, index, count);
+            size += count;
+        }
+
+        /**
+         * Removes a range of values.
+         *
+         * @param from The index of the first value, inclusive.
+         * @param to The index of the last value, exclusive.
+         */
+        private void remove(final int from, final int to) {
+            Objects.checkFromToIndex(from, to, size);
+            System.arraycopy(values, to, values, from, size - to);
+            size -= to - from;
+        }
+
+        /**
+         * Adds an amount to every value from an index onwards.
+         *
+         * @param from The index of the first value.
+         * @param amount The amount.
+         */
+        private void shift(final int from, final int amount) {
+            for (int i = from ; i < size ; i++) {
+                values[i] += amount;
+            }
+        }
+
+        /**
+         * Finds the index of the first value which is not less than a key, assuming that the values are ascending.
+         *
+         * @param key The key.
+         * @return The index, or {@link #size()} if every value is less than the key.
+         */
+        private int lowerBound(final int key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final var middle = (low + high) >>> 1;
+                if (values[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+            }
+        }
+    }
+}
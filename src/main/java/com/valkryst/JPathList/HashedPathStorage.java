@@ -0,0 +1,316 @@
+package com.valkryst.JPathList;
+
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Stores paths in an array, alongside a {@link ConcurrentHashMap} which maps each path to its slot.</p>
+ *
+ * <p>
+ *     The map allows {@link #indexOf(Path)} to be called without holding the model's lock, so that threads which are
+ *     walking directories can check for duplicates without contending with each other, or with the thread which is
+ *     adding paths to the model.
+ * </p>
+ *
+ * <p>
+ *     A path which is {@link #remove(int) removed} individually is replaced by a tombstone, rather than shifting every
+ *     later path, and re-indexing it in the map. The number of tombstones before each slot is tracked by a Fenwick tree,
+ *     so an index can be converted to a slot, and vice versa, in logarithmic time. Once more than half of the slots are
+ *     tombstones, the storage is compacted.
+ * </p>
+ *
+ * <p>
+ *     A {@link #snapshot()} is a view of the array and of the tree, rather than a copy of them. Appending a path only
+ *     writes to slots beyond those of existing snapshots, so the arrays are shared until a path is removed, at which
+ *     point they are copied once, by the writer.
+ * </p>
+ */
+class HashedPathStorage implements PathStorage {
+    /** The paths, in insertion order, with {@code null} in place of each removed path. */
+    private Path[] slots = new Path[16];
+
+    /** The number of used slots within {@link #slots}, including tombstones. */
+    private int slotCount = 0;
+
+    /** Maps each path to its slot within {@link #slots}. */
+    private final Map<Path, Integer> indices = new ConcurrentHashMap<>();
+
+    /**
+     * A Fenwick tree, indexed from one, counting the tombstones within {@link #slots}, or {@code null} if there are no
+     * tombstones.
+     */
+    private volatile int[] tombstoneTree;
+
+    /** The number of tombstones within {@link #slots}. */
+    private int tombstoneCount = 0;
+
+    /**
+     * Whether {@link #slots} and {@link #tombstoneTree} are shared with a snapshot, and so must be copied before any of
+     * their used slots are modified.
+     */
+    private boolean isShared = false;
+
+    @Override
+    public int size() {
+        return slotCount - tombstoneCount;
+    }
+
+    @Override
+    public Path get(final int index) {
+        final var size = this.size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + size + ".");
+        }
+
+        return slots[slotOf(tombstoneTree, slotCount, index)];
+    }
+
+    @Override
+    public int indexOf(final Path path) {
+        final Integer slot = indices.get(path);
+        if (slot == null) {
+            return -1;
+        }
+
+        return slot - countTombstones(tombstoneTree, slot);
+    }
+
+    @Override
+    public boolean supportsConcurrentLookups() {
+        return true;
+    }
+
+    @Override
+    public boolean add(final Path path) {
+        if (indices.putIfAbsent(path, slotCount) != null) {
+            return false;
+        }
+
+        // A larger array is a copy, so existing snapshots keep the old one.
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slotCount * 2);
+        }
+        slots[slotCount++] = path;
+
+        if (tombstoneTree != null) {
+            this.appendToTree();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the path at an index, by replacing it with a tombstone.
+     *
+     * @param index Index of the path.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    @Override
+    public void remove(final int index) {
+        final var size = this.size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + size + ".");
+        }
+
+        if (isShared) {
+            slots = slots.clone();
+            tombstoneTree = tombstoneTree == null ? null : tombstoneTree.clone();
+            isShared = false;
+        }
+
+        final var slot = slotOf(tombstoneTree, slotCount, index);
+        indices.remove(slots[slot]);
+        slots[slot] = null;
+
+        if (tombstoneTree == null) {
+            tombstoneTree = new int[Math.max(16, Integer.highestOneBit(slotCount) * 2)];
+        }
+
+        final var tree = tombstoneTree;
+        for (int node = slot + 1 ; node <= slotCount ; node += node & -node) {
+            tree[node]++;
+        }
+        tombstoneCount++;
+
+        if (tombstoneCount * 2 > slotCount) {
+            this.removeAll(new boolean[this.size()]);
+        }
+    }
+
+    @Override
+    public void removeAll(final boolean[] removed) {
+        // If the slots are shared, then the remaining paths are compacted into a new array, rather than in place.
+        final var target = isShared ? new Path[slots.length] : slots;
+
+        int writeIndex = 0;
+        int index = 0;
+        for (int readIndex = 0 ; readIndex < slotCount ; readIndex++) {
+            final var path = slots[readIndex];
+            if (path == null) {
+                continue;
+            }
+
+            if (removed[index++]) {
+                indices.remove(path);
+                continue;
+            }
+
+            if (writeIndex != readIndex) {
+                indices.put(path, writeIndex);
+            }
+
+            target[writeIndex++] = path;
+        }
+
+        if (target == slots) {
+            Arrays.fill(slots, writeIndex, slotCount, null);
+        }
+
+        slots = target;
+        slotCount = writeIndex;
+        tombstoneTree = null;
+        tombstoneCount = 0;
+        isShared = false;
+    }
+
+    @Override
+    public void clear() {
+        slots = new Path[16];
+        slotCount = 0;
+        indices.clear();
+        tombstoneTree = null;
+        tombstoneCount = 0;
+        isShared = false;
+    }
+
+    /**
+     * Retrieves a view of the stored paths, which shares the storage's arrays, and is unaffected by later modifications.
+     *
+     * @return The snapshot.
+     */
+    @Override
+    public List<Path> snapshot() {
+        isShared = true;
+        return new Snapshot(slots, slotCount, tombstoneTree, tombstoneCount);
+    }
+
+    @Override
+    public long estimateSizeInBytes() {
+        // Each path has a slot in the list and in the map's table, a map node, and a boxed index.
+        long size = 0;
+        for (int slot = 0 ; slot < slotCount ; slot++) {
+            final var path = slots[slot];
+            if (path != null) {
+                size += 4 + 8 + 32 + 16 + PathStorage.estimatePathSizeInBytes(path);
+            }
+        }
+
+        // Each tombstone still occupies its slot in the list, and in the tree.
+        return size + (tombstoneTree == null ? 0 : 4L * tombstoneTree.length + 4L * tombstoneCount);
+    }
+
+    /**
+     * Retrieves the slot of the path at an index.
+     *
+     * @param tree The tree, or {@code null} if there are no tombstones.
+     * @param slotCount The number of used slots, including tombstones.
+     * @param index Index of the path.
+     * @return The slot.
+     */
+    private static int slotOf(final int[] tree, final int slotCount, final int index) {
+        if (tree == null) {
+            return index;
+        }
+
+        // Descends the tree, skipping each node whose range contains no more than the remaining number of paths.
+        int node = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(slotCount) ; step > 0 ; step >>= 1) {
+            final var next = node + step;
+            if (next <= slotCount && step - tree[next] < remaining) {
+                node = next;
+                remaining -= step - tree[next];
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Adds the most recently appended slot, which is not a tombstone, to the tree. This only writes the new slot's node,
+     * which no snapshot reads, so the tree needn't be copied if it is shared.
+     */
+    private void appendToTree() {
+        final var node = slotCount;
+        if (node == tombstoneTree.length) {
+            tombstoneTree = Arrays.copyOf(tombstoneTree, node * 2);
+        }
+
+        // A node holds the count of the slots in its range, which are all earlier slots, as the new slot is not a
+        // tombstone.
+        final var tree = tombstoneTree;
+        tree[node] = countTombstones(tree, node - 1) - countTombstones(tree, node - (node & -node));
+    }
+
+    /**
+     * Counts the tombstones before a slot.
+     *
+     * @param tree The tree, or {@code null} if there are no tombstones.
+     * @param slot The slot.
+     * @return The number of tombstones before the slot.
+     */
+    private static int countTombstones(final int[] tree, final int slot) {
+        if (tree == null) {
+            return 0;
+        }
+
+        // When called without the model's lock, the slot may have been appended after the tree was read.
+        int count = 0;
+        for (int node = Math.min(slot, tree.length - 1) ; node > 0 ; node -= node & -node) {
+            count += tree[node];
+        }
+
+        return count;
+    }
+
+    /** An immutable view of the paths which were stored when it was created. */
+    private static final class Snapshot extends AbstractList<Path> implements RandomAccess {
+        /** The slots, of which only the used slots are read. */
+        private final Path[] slots;
+
+        /** The number of used slots, including tombstones. */
+        private final int slotCount;
+
+        /** The tree, or {@code null} if there were no tombstones. */
+        private final int[] tree;
+
+        /** The number of paths. */
+        private final int size;
+
+        private Snapshot(final Path[] slots, final int slotCount, final int[] tree, final int tombstoneCount) {
+            this.slots = slots;
+            this.slotCount = slotCount;
+            this.tree = tree;
+            this.size = slotCount - tombstoneCount;
+        }
+
+        @Override
+        public Path get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + size + ".");
+            }
+
+            return slots[slotOf(tree, slotCount, index)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
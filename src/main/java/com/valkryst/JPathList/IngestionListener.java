@@ -0,0 +1,19 @@
+package com.valkryst.JPathList;
+
+import java.util.EventListener;
+
+/** Receives the {@link IngestionMetrics} of each operation which adds paths to a {@link JPathList}. */
+@FunctionalInterface
+public interface IngestionListener extends EventListener {
+    /**
+     * <p>Called once an operation, which adds paths to the list, has completed.</p>
+     *
+     * <p>
+     *     This is called on the thread which completed the operation. For synchronous operations, this is the thread
+     *     which started the operation. For asynchronous operations, it is usually the Event Dispatch Thread.
+     * </p>
+     *
+     * @param metrics The metrics of the operation.
+     */
+    void ingestionCompleted(final IngestionMetrics metrics);
+}
@@ -0,0 +1,34 @@
+package com.valkryst.JPathList;
+
+import java.time.Duration;
+
+/**
+ * <p>The counters and timings of a single operation which added paths to a {@link JPathList}.</p>
+ *
+ * <p>
+ *     The timings overlap. The walk time excludes the time spent adding found paths to the list, but the time spent on
+ *     the Event Dispatch Thread includes any insertions which were performed on it.
+ * </p>
+ *
+ * @param attributeReadCount The number of times that the attributes of a path were read from its file system.
+ * @param addedCount The number of paths which were added to the list.
+ * @param duplicateCount The number of paths which were skipped, as they were already in the list.
+ * @param rejectedCount The number of paths which were skipped, as they are not permitted by the recursion mode, or
+ *                      are rejected by the {@link PathFilter}.
+ * @param failureCount The number of paths which could not be added, due to an error.
+ * @param walkTime The time spent walking paths, and recursing directories.
+ * @param insertTime The time spent adding the found paths to the list.
+ * @param eventDispatchTime The time spent on the Event Dispatch Thread.
+ * @param elapsedTime The time between the start and the completion of the operation.
+ */
+public record IngestionMetrics(
+    long attributeReadCount,
+    long addedCount,
+    long duplicateCount,
+    long rejectedCount,
+    long failureCount,
+    Duration walkTime,
+    Duration insertTime,
+    Duration eventDispatchTime,
+    Duration elapsedTime
+) {}
@@ -0,0 +1,14 @@
+package com.valkryst.JPathList;
+
+import java.nio.file.Path;
+
+/**
+ * The progress of an operation which is adding paths to a {@link JPathList}.
+ *
+ * @param discoveredCount The number of paths which have been discovered, either as the paths passed to the operation
+ *                        or by listing directories. This includes paths which were skipped.
+ * @param addedCount The number of paths which have been added to the list.
+ * @param currentDirectory The directory which was most recently listed, or {@code null} if no directory has been
+ *                         listed.
+ */
+public record IngestionProgress(long discoveredCount, long addedCount, Path currentDirectory) {}
@@ -0,0 +1,180 @@
+package com.valkryst.JPathList;
+
+import javax.swing.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Records the counters and timings of a single operation which adds paths to a {@link JPathList}.</p>
+ *
+ * <p>
+ *     A recorder may be updated by many threads at once, as directories may be walked in parallel, and the found
+ *     paths may be inserted on a different thread to the one which found them.
+ * </p>
+ */
+class IngestionRecorder {
+    /** The time at which the operation started. */
+    private final long startTime = System.nanoTime();
+
+    /** Whether the operation was started on the Event Dispatch Thread. */
+    private final boolean isStartedOnEventDispatchThread = SwingUtilities.isEventDispatchThread();
+
+    /** The number of paths which have been discovered, either as the roots of a walk or by listing directories. */
+    private final LongAdder discoveredCount = new LongAdder();
+
+    /** The directory which was most recently listed, or {@code null} if no directory has been listed. */
+    private volatile Path currentDirectory;
+
+    /** The number of times that the attributes of a path were read. */
+    private final LongAdder attributeReadCount = new LongAdder();
+
+    /** The number of paths which were added to the model. */
+    private final LongAdder addedCount = new LongAdder();
+
+    /** The number of paths which were skipped, as they were already present. */
+    private final LongAdder duplicateCount = new LongAdder();
+
+    /** The number of paths which were skipped, as they are not permitted by the recursion mode or the filter. */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** The number of paths which could not be added, due to an error. */
+    private final LongAdder failureCount = new LongAdder();
+
+    /** The time, in nanoseconds, spent walking paths, including any time spent passing chunks to the sink. */
+    private final LongAdder walkTime = new LongAdder();
+
+    /** The time, in nanoseconds, spent passing chunks to the sink during a walk. */
+    private final LongAdder sinkTime = new LongAdder();
+
+    /** The time, in nanoseconds, spent adding paths to the model. */
+    private final LongAdder insertTime = new LongAdder();
+
+    /** The time, in nanoseconds, spent on the Event Dispatch Thread by tasks which the operation queued. */
+    private final LongAdder eventDispatchTime = new LongAdder();
+
+    /** Records that a path was discovered. */
+    void recordDiscovered() {
+        discoveredCount.increment();
+    }
+
+    /**
+     * Records that a directory is being listed.
+     *
+     * @param directory The directory.
+     */
+    void recordDirectory(final Path directory) {
+        currentDirectory = directory;
+    }
+
+    /** Records that the attributes of a path were read. */
+    void recordAttributeRead() {
+        attributeReadCount.increment();
+    }
+
+    /** Records that a path was skipped, as it was already present. */
+    void recordDuplicate() {
+        duplicateCount.increment();
+    }
+
+    /**
+     * Records that paths were skipped, as they were duplicates of paths which were already present.
+     *
+     * @param count The number of paths.
+     */
+    void recordDuplicates(final int count) {
+        duplicateCount.add(count);
+    }
+
+    /** Records that a path was skipped, as it is not permitted by the recursion mode or the filter. */
+    void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    /** Records that a path could not be added, due to an error. */
+    void recordFailure() {
+        failureCount.increment();
+    }
+
+    /**
+     * Records the time spent walking a path.
+     *
+     * @param nanos The time, in nanoseconds.
+     */
+    void recordWalk(final long nanos) {
+        walkTime.add(nanos);
+    }
+
+    /**
+     * Records the time spent passing a chunk to the sink, during a walk.
+     *
+     * @param nanos The time, in nanoseconds.
+     */
+    void recordSink(final long nanos) {
+        sinkTime.add(nanos);
+    }
+
+    /**
+     * Records the time spent by a task which the operation queued on the Event Dispatch Thread.
+     *
+     * @param nanos The time, in nanoseconds.
+     */
+    void recordEventDispatch(final long nanos) {
+        eventDispatchTime.add(nanos);
+    }
+
+    /**
+     * Adds paths to a model, and records the time taken, the number of paths added, and the number of duplicates.
+     *
+     * @param model The model.
+     * @param paths Paths to be added.
+     * @return The number of paths which were added.
+     */
+    int insert(final PathListModel model, final Collection<? extends Path> paths) {
+        final var start = System.nanoTime();
+        try {
+            final var added = model.addAll(paths);
+            addedCount.add(added);
+
+            // Paths which were found by concurrent operations are only rejected by the model.
+            duplicateCount.add(paths.size() - added);
+            return added;
+        } finally {
+            insertTime.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates the progress of the operation, as of now.
+     *
+     * @return The progress.
+     */
+    IngestionProgress toProgress() {
+        return new IngestionProgress(discoveredCount.sum(), addedCount.sum(), currentDirectory);
+    }
+
+    /**
+     * Creates the metrics of the operation, as of now.
+     *
+     * @return The metrics.
+     */
+    IngestionMetrics toMetrics() {
+        final var elapsed = System.nanoTime() - startTime;
+
+        // If the operation ran on the Event Dispatch Thread, then it blocked the thread for its entire duration.
+        final var eventDispatch = isStartedOnEventDispatchThread ? elapsed : eventDispatchTime.sum();
+
+        return new IngestionMetrics(
+            attributeReadCount.sum(),
+            addedCount.sum(),
+            duplicateCount.sum(),
+            rejectedCount.sum(),
+            failureCount.sum(),
+            Duration.ofNanos(Math.max(0, walkTime.sum() - sinkTime.sum())),
+            Duration.ofNanos(insertTime.sum()),
+            Duration.ofNanos(eventDispatch),
+            Duration.ofNanos(elapsed)
+        );
+    }
+}
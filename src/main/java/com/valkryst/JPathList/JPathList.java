@@ -1,20 +1,42 @@
 package com.valkryst.JPathList;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.dnd.*;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * <p>Represents a list of {@link Path} objects.</p>
@@ -29,8 +51,30 @@ import java.util.logging.Logger;
 public class JPathList extends JList<Path> implements DropTargetListener {
     private final Logger logger = Logger.getLogger(this.getClass().getName());
 
+    /** The maximum number of paths published to the list, at a time, by {@link #addPathsAsync(List)}. */
+    private static final int ASYNC_CHUNK_SIZE = 1024;
+
+    /** The maximum number of paths added to the list, at a time, when paths are streamed into the list. */
+    private static final int STREAM_CHUNK_SIZE = 1024;
+
+    /** The interval, in milliseconds, at which the progress of asynchronous walks is reported. */
+    private static final int PROGRESS_INTERVAL_MILLIS = 100;
+
+    /** The time, in milliseconds, to wait for further file system events before they are applied to the list. */
+    private static final long WATCH_COALESCING_INTERVAL = 100;
+
+    /** The maximum number of paths whose attributes are cached for rendering. */
+    private static final int ATTRIBUTE_CACHE_CAPACITY = 4096;
+
+    /** The default executor on which {@link #addPathsAsync(List)} walks paths. */
+    private static final Executor DEFAULT_INGESTION_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final var thread = new Thread(runnable, "JPathList-Ingestion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /** The list of paths. */
-    private final DefaultListModel<Path> pathsListModel = new DefaultListModel<>();
+    private final PathListModel pathsListModel = new PathListModel();
 
     /** Whether drag-and-drop is enabled. */
     private final AtomicBoolean dragAndDropEnabled = new AtomicBoolean(true);
@@ -38,6 +82,76 @@ public class JPathList extends JList<Path> implements DropTargetListener {
     /** How to recurse directories, when using drag-and-drop. */
     private final AtomicInteger recursionMode = new AtomicInteger(-1);
 
+    /** The maximum number of directory listings, and batches of attribute reads, which are performed at once. */
+    private final AtomicInteger traversalParallelism = new AtomicInteger(1);
+
+    /**
+     * Limits the number of directory listings, and batches of attribute reads, which are performed at once, across
+     * every walk. Replaced whenever the traversal parallelism is changed.
+     */
+    private final AtomicReference<Semaphore> traversalPermits = new AtomicReference<>(new Semaphore(1));
+
+    /** The executor on which directories are walked, when the traversal parallelism is greater than one. */
+    private final AtomicReference<Executor> traversalExecutor = new AtomicReference<>(PathWalker.DEFAULT_EXECUTOR);
+
+    /** Whether paths found by parallel walks are added in the same order as they would be by a single thread. */
+    private final AtomicBoolean deterministicOrdering = new AtomicBoolean(true);
+
+    /** Whether directories are only expanded once they are displayed, or once every path is requested. */
+    private final AtomicBoolean lazyExpansion = new AtomicBoolean(false);
+
+    /** The maximum depth of the directories which are listed, where the added paths are at a depth of zero. */
+    private final AtomicInteger maxDepth = new AtomicInteger(Integer.MAX_VALUE);
+
+    /** Whether links are followed when walking paths, rather than being added as though they were regular files. */
+    private final AtomicBoolean followLinks = new AtomicBoolean(true);
+
+    /** Whether the paths which are dragged over the list are walked before they have been dropped. */
+    private final AtomicBoolean dragPrescan = new AtomicBoolean(true);
+
+    /** Whether a pre-scan has been attempted during the current drag. */
+    private final AtomicBoolean dragPrescanAttempted = new AtomicBoolean(false);
+
+    /** The pre-scan of the paths which are being dragged over the list, or {@code null} if there is none. */
+    private final AtomicReference<BackgroundWalk> pendingDropWalk = new AtomicReference<>();
+
+    /** Directories which are in the list, but whose children have not yet been added to it, and their depths. */
+    private final Map<Path, Integer> unexpandedDirectories = new ConcurrentHashMap<>();
+
+    /** The directories which are being expanded asynchronously, so that each is only expanded once. */
+    private final Set<Path> expandingDirectories = ConcurrentHashMap.newKeySet();
+
+    /** The executor on which {@link #addPathsAsync(List)} walks paths. */
+    private final AtomicReference<Executor> ingestionExecutor = new AtomicReference<>(DEFAULT_INGESTION_EXECUTOR);
+
+    /** Whether the attributes of the displayed paths, and of those near them, are read in the background. */
+    private final AtomicBoolean attributePrefetch = new AtomicBoolean(false);
+
+    /** Caches the attributes of the displayed paths, so that they can be rendered without performing I/O. */
+    private final PathAttributeCache attributeCache = new PathAttributeCache(
+        ATTRIBUTE_CACHE_CAPACITY,
+        command -> ingestionExecutor.get().execute(command),
+        () -> SwingUtilities.invokeLater(this::repaint)
+    );
+
+    /** Determines which of the found paths are added to the list, and which directories are recursed. */
+    private final AtomicReference<PathFilter> pathFilter = new AtomicReference<>(PathFilter.acceptAll());
+
+    /** Caches the fingerprints of listed directories, so that unchanged directories are not listed again. */
+    private final DirectoryFingerprintCache fingerprintCache = new DirectoryFingerprintCache();
+
+    /** Rejects paths which are duplicates of those in the list, according to the duplicate mode. */
+    private final DuplicateDetector duplicateDetector = new DuplicateDetector(new ContentDigestCache(ContentDigestCache.DEFAULT_CAPACITY));
+
+    /** The view which displays the paths in sorted order, or {@code null} if they are displayed in insertion order. */
+    private final AtomicReference<SortedPathListModel> sortModel = new AtomicReference<>();
+
+    /** The view which displays the paths matching the search query, or {@code null} if no query has been set. */
+    private final AtomicReference<FilteredPathListModel> searchModel = new AtomicReference<>();
+
+    /** Watches the recursed directories for changes, or {@code null} if watch mode is disabled. */
+    private final AtomicReference<DirectoryWatcher> directoryWatcher = new AtomicReference<>();
+
     public JPathList() {
         super.setModel(pathsListModel);
         this.setDropTarget(new DropTarget(this, this));
@@ -51,106 +165,115 @@ public class JPathList extends JList<Path> implements DropTargetListener {
     @Override
     public void drop(final DropTargetDropEvent event) {
         event.acceptDrop(DnDConstants.ACTION_COPY);
+        dragPrescanAttempted.set(false);
 
+        final var prescan = pendingDropWalk.getAndSet(null);
         final var transferable = event.getTransferable();
         List<File> files;
 
         try {
             files = (List<File>) transferable.getTransferData(DataFlavor.javaFileListFlavor);
         } catch (final Exception e) {
+            if (prescan != null) {
+                prescan.cancel();
+            }
+
             logger.log(Level.SEVERE, "Failed to retrieve dropped files.", e);
             return;
         }
 
-        for (final var file : files) {
-            try {
-                this.addPath(file.toPath());
-            } catch (final IOException e) {
-                logger.log(Level.WARNING, "Failed to add the path '%s' to the list.".formatted(file), e);
+        final var paths = files.stream().map(File::toPath).toList();
+
+        // The pre-scan is only reused if it walked exactly the dropped paths.
+        final CompletableFuture<Void> future;
+        if (prescan != null && !prescan.isCancelled() && prescan.getRoots().equals(paths)) {
+            future = this.addPathsAsync(prescan, progress -> {});
+        } else {
+            if (prescan != null) {
+                prescan.cancel();
             }
+
+            future = this.addPathsAsync(paths);
         }
+
+        future.whenComplete((result, error) -> {
+            if (error == null || error instanceof CancellationException) {
+                return;
+            }
+
+            logger.log(Level.WARNING, "Failed to add one or more of the paths %s to the list.".formatted(paths), error);
+        });
     }
 
     @Override
-    public void dragEnter(final DropTargetDragEvent event) {}
+    public void dragEnter(final DropTargetDragEvent event) {
+        this.startDragPrescan(event);
+    }
 
     @Override
-    public void dragExit(final DropTargetEvent event) {}
+    public void dragExit(final DropTargetEvent event) {
+        dragPrescanAttempted.set(false);
+
+        final var prescan = pendingDropWalk.getAndSet(null);
+        if (prescan != null) {
+            prescan.cancel();
+        }
+    }
 
     @Override
-    public void dragOver(final DropTargetDragEvent event) {}
+    public void dragOver(final DropTargetDragEvent event) {
+        this.startDragPrescan(event);
+    }
 
     /**
-     * Adds a path to the list.
+     * <p>Starts walking the paths which are being dragged over the list, before they have been dropped.</p>
      *
-     * @param path Path to be added.
+     * <p>
+     *     The found paths are buffered, rather than added to the list, until the paths are dropped. A pre-scan is only
+     *     attempted once per drag, and only if pre-scanning is enabled and the platform allows the dragged files to be
+     *     retrieved before they are dropped.
+     * </p>
      *
-     * @throws FileNotFoundException If the path does not exist.
-     * @throws IllegalAccessError If the path is not readable.
-     * @throws IllegalStateException If the path is neither a directory nor a regular file.
-     * @throws IOException If an I/O error occurs when recursing directories.
-     * @throws NullPointerException If {@code path} is null.
+     * @param event The drag event.
      */
-    public void addPath(final Path path) throws IOException {
-        Objects.requireNonNull(path);
-
-        synchronized (pathsListModel) {
-            if (pathsListModel.contains(path)) {
-                return;
-            }
-        }
-
-        if (Files.notExists(path)) {
-            throw new FileNotFoundException("The file '%s' does not exist".formatted(path));
-        }
-
-        if (!Files.isReadable(path)) {
-            throw new IllegalAccessError("The file '%s' cannot be read".formatted(path));
-        }
-
-        final var recursionMode = this.recursionMode.get();
-        if (Files.isRegularFile(path)) {
-            if (recursionMode == JFileChooser.DIRECTORIES_ONLY) {
-                return;
-            }
-
-            synchronized (pathsListModel) {
-                pathsListModel.addElement(path);
-            }
+    private void startDragPrescan(final DropTargetDragEvent event) {
+        if (!dragPrescan.get() || !event.isDataFlavorSupported(DataFlavor.javaFileListFlavor)) {
             return;
         }
 
-        if (!Files.isDirectory(path)) {
-            throw new IllegalStateException("The file '%s' is neither a regular file nor a directory.".formatted(path));
+        if (dragPrescanAttempted.getAndSet(true)) {
+            return;
         }
 
-        if (recursionMode < JFileChooser.FILES_ONLY || recursionMode > JFileChooser.FILES_AND_DIRECTORIES) {
-            synchronized (pathsListModel) {
-                pathsListModel.addElement(path);
-            }
+        final List<File> files;
+        try {
+            files = (List<File>) event.getTransferable().getTransferData(DataFlavor.javaFileListFlavor);
+        } catch (final Exception e) {
+            // Many platforms only provide the data once it has been dropped.
+            logger.log(Level.FINE, "Failed to retrieve dragged files.", e);
             return;
         }
 
-        final var pathsStream = Files.list(path);
-        final var pathsList = pathsStream.filter(p -> switch (recursionMode) {
-            case JFileChooser.FILES_ONLY -> Files.isRegularFile(p);
-            case JFileChooser.DIRECTORIES_ONLY -> Files.isDirectory(p);
-            case JFileChooser.FILES_AND_DIRECTORIES -> true;
-            default -> {
-                logger.log(Level.SEVERE, "Unknown recursion mode: " + recursionMode);
-                yield false;
-            }
-        }).toList();
-        pathsStream.close();
-
-        // In these cases, we want to add the directory itself to the list.
-        if (recursionMode == JFileChooser.DIRECTORIES_ONLY || recursionMode == JFileChooser.FILES_AND_DIRECTORIES) {
-            synchronized (pathsListModel) {
-                pathsListModel.addElement(path);
-            }
+        final var prescan = this.startBackgroundWalk(files.stream().map(File::toPath).toList());
+        final var previousPrescan = pendingDropWalk.getAndSet(prescan);
+        if (previousPrescan != null) {
+            previousPrescan.cancel();
         }
+    }
 
-        this.addPaths(pathsList);
+    /**
+     * Adds a path to the list.
+     *
+     * @param path Path to be added.
+     *
+     * @throws FileNotFoundException If the path does not exist.
+     * @throws IllegalStateException If the path is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     * @throws NullPointerException If {@code path} is null.
+     */
+    public void addPath(final Path path) throws IOException {
+        Objects.requireNonNull(path);
+        this.addPaths(List.of(path));
     }
 
     /**
@@ -163,14 +286,16 @@ public class JPathList extends JList<Path> implements DropTargetListener {
      */
     public void addPaths(final Path... paths) throws IOException {
         Objects.requireNonNull(paths);
-
-        for (final var path : paths) {
-            this.addPath(path);
-        }
+        this.addPaths(Arrays.asList(paths));
     }
 
     /**
-     * Adds one or more paths to the list.
+     * <p>Adds one or more paths to the list.</p>
+     *
+     * <p>
+     *     All paths, including those found when recursing directories, are added to the list as a single batch. If an
+     *     error occurs, then the paths which were collected before the error are still added.
+     * </p>
      *
      * @param paths Paths to be added.
      *
@@ -180,134 +305,1707 @@ public class JPathList extends JList<Path> implements DropTargetListener {
     public void addPaths(final List<Path> paths) throws IOException {
         Objects.requireNonNull(paths);
 
-        for (final var path : paths) {
-            this.addPath(path);
+        final var recorder = new IngestionRecorder();
+        final var walker = this.createWalker(Integer.MAX_VALUE, chunk -> this.insertPaths(recorder, chunk), () -> false, recorder);
+        try {
+            for (final var path : paths) {
+                walker.walk(path);
+            }
+        } catch (final IOException | RuntimeException | Error e) {
+            recorder.recordFailure();
+            throw e;
+        } finally {
+            walker.flush();
+            this.fireIngestionCompleted(recorder);
         }
     }
 
-    /** Removes all paths from the list. */
-    public void removeAllPaths() {
-        synchronized (pathsListModel) {
-            pathsListModel.clear();
+    /**
+     * <p>Adds the paths of a stream to the list.</p>
+     *
+     * <p>See {@link #addPaths(Iterator)}.</p>
+     *
+     * @param paths Paths to be added.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws NullPointerException If {@code paths} is {@code null}.
+     */
+    public void addPaths(final Stream<? extends Path> paths) throws IOException {
+        Objects.requireNonNull(paths);
+        this.addPaths(paths.iterator());
+    }
+
+    /**
+     * <p>Adds the paths of an iterator to the list.</p>
+     *
+     * <p>
+     *     The paths are consumed incrementally, and the paths which are found are added to the list in chunks, so the
+     *     memory used does not depend on the number of paths, or on the size of the directories which are recursed. As
+     *     a result, a {@link javax.swing.event.ListDataEvent} is fired for each chunk, rather than for the entire
+     *     operation. If an error occurs, then the paths which were collected before the error are still added.
+     * </p>
+     *
+     * @param paths Paths to be added.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws NullPointerException If {@code paths} is {@code null}.
+     */
+    public void addPaths(final Iterator<? extends Path> paths) throws IOException {
+        Objects.requireNonNull(paths);
+
+        final var recorder = new IngestionRecorder();
+        final var walker = this.createWalker(STREAM_CHUNK_SIZE, chunk -> this.insertPaths(recorder, chunk), () -> false, recorder);
+        try {
+            while (paths.hasNext()) {
+                walker.walk(paths.next());
+            }
+        } catch (final IOException | RuntimeException | Error e) {
+            recorder.recordFailure();
+            throw e;
+        } finally {
+            walker.flush();
+            this.fireIngestionCompleted(recorder);
         }
     }
 
     /**
-     * Removes a path from the list.
+     * <p>Subscribes to a publisher, and adds each path that it publishes to the list.</p>
      *
-     * @param path Path to be removed.
+     * <p>
+     *     The paths are requested from the publisher in batches, and each batch is only requested once the previous
+     *     one has been walked, so the publisher can never get more than one batch ahead of the list. The paths are
+     *     walked on the thread which publishes them, and are added to the list in chunks, as with
+     *     {@link #addPaths(Iterator)}.
+     * </p>
+     *
+     * <p>
+     *     If a path cannot be added, then the subscription is cancelled, and the returned future is completed
+     *     exceptionally. Cancelling the returned future also cancels the subscription.
+     * </p>
+     *
+     * @param publisher Publishes the paths to be added.
+     * @return A future which completes once the publisher has completed, and every path has been added.
+     *
+     * @throws NullPointerException If {@code publisher} is {@code null}.
+     */
+    public CompletableFuture<Void> addPathsFrom(final Flow.Publisher<? extends Path> publisher) {
+        Objects.requireNonNull(publisher);
+
+        final var future = new CompletableFuture<Void>();
+        final var recorder = new IngestionRecorder();
+        final var walker = this.createWalker(STREAM_CHUNK_SIZE, chunk -> this.insertPaths(recorder, chunk), future::isCancelled, recorder);
+        future.whenComplete((result, error) -> this.fireIngestionCompleted(recorder));
+
+        publisher.subscribe(new Flow.Subscriber<Path>() {
+            private Flow.Subscription subscription;
+
+            /** The number of paths which have been received, since the last batch was requested. */
+            private int received = 0;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                future.whenComplete((result, error) -> {
+                    if (error != null) {
+                        subscription.cancel();
+                    }
+                });
+                subscription.request(STREAM_CHUNK_SIZE);
+            }
+
+            @Override
+            public void onNext(final Path path) {
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    walker.walk(path);
+                } catch (final Exception | Error e) {
+                    recorder.recordFailure();
+                    walker.flush();
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                if (++received == STREAM_CHUNK_SIZE) {
+                    received = 0;
+                    subscription.request(STREAM_CHUNK_SIZE);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                recorder.recordFailure();
+                walker.flush();
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                walker.flush();
+                future.complete(null);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * <p>Re-scans a path which was previously added, so that the list reflects its current contents.</p>
+     *
+     * <p>
+     *     Paths which have been created within the directory, or any of its subdirectories, are added to the list,
+     *     according to the {@link #setRecursionMode(int) recursion mode}, and paths which have been deleted are removed
+     *     from it, along with every path within them.
+     * </p>
+     *
+     * <p>
+     *     A fingerprint of each directory is recorded when it is listed, and a directory whose fingerprint is unchanged
+     *     is not listed again. Only its subdirectories are checked. Re-scanning a mostly static tree therefore costs
+     *     little more than a {@code stat} per directory.
+     * </p>
+     *
+     * <p>
+     *     If the path does not exist, then it is removed from the list, along with every path within it. If it is not a
+     *     directory, or it has not been added before, then it is added as with {@link #addPath(Path)}.
+     * </p>
+     *
+     * @param path Path to be re-scanned.
+     *
+     * @throws IllegalStateException If a path is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when re-scanning directories.
      * @throws NullPointerException If {@code path} is null.
      */
-    public void removePath(final Path path) {
+    public void refreshPath(final Path path) throws IOException {
         Objects.requireNonNull(path);
 
-        synchronized (pathsListModel) {
-            pathsListModel.removeElement(path);
+        if (Files.notExists(path)) {
+            this.removePaths(this.findPathsWithin(path::equals));
+            return;
+        }
+
+        if (!Files.isDirectory(path) || !(fingerprintCache.contains(path) || pathsListModel.contains(path))) {
+            this.addPath(path);
+            return;
+        }
+
+        final var listings = new HashMap<Path, Set<Path>>();
+        final var recorder = new IngestionRecorder();
+        final var walker = this.createWalker(Integer.MAX_VALUE, chunk -> this.insertPaths(recorder, chunk), () -> false, recorder);
+        try {
+            walker.rescan(path, listings);
+        } catch (final IOException | RuntimeException | Error e) {
+            recorder.recordFailure();
+            throw e;
+        } finally {
+            // A path has been deleted if it, or any of its parents, is missing from the listing of its parent.
+            this.removePaths(this.findPathsWithin(ancestor -> {
+                final var entries = listings.get(ancestor.getParent());
+                return entries != null && !entries.contains(ancestor);
+            }));
+
+            walker.flush();
+            this.fireIngestionCompleted(recorder);
         }
     }
 
     /**
-     * Removes one or more paths from the list.
+     * Finds every path in the list which, or any of whose parents, matches a predicate.
      *
-     * @param paths Paths to be removed.
-     * @throws NullPointerException If {@code paths} is {@code null}.
+     * @param predicate The predicate.
+     * @return The matching paths.
      */
-    public void removePaths(final Path... paths) {
-        Objects.requireNonNull(paths);
-
-        for (final var path : paths) {
-            this.removePath(path);
+    private List<Path> findPathsWithin(final Predicate<Path> predicate) {
+        final var matches = new ArrayList<Path>();
+        for (final var path : pathsListModel.snapshot()) {
+            for (var ancestor = path ; ancestor != null ; ancestor = ancestor.getParent()) {
+                if (predicate.test(ancestor)) {
+                    matches.add(path);
+                    break;
+                }
+            }
         }
+
+        return matches;
     }
 
     /**
-     * Removes one or more paths from the list.
+     * <p>Asynchronously adds one or more paths to the list.</p>
      *
-     * @param paths Paths to be removed.
-     * @throws NullPointerException If {@code paths} is {@code null}.
+     * <p>
+     *     The paths are walked, and directories are recursed, on the {@link #setIngestionExecutor(Executor) ingestion
+     *     executor}. The paths which are found are published to the list in chunks, on the Event Dispatch Thread, so
+     *     the UI remains responsive while large directories are walked.
+     * </p>
+     *
+     * <p>
+     *     If a path cannot be added, then the remaining paths are still walked, and the returned future is completed
+     *     exceptionally with the first error once the walk has finished. Any subsequent errors are attached to it as
+     *     suppressed exceptions.
+     * </p>
+     *
+     * <p>
+     *     Cancelling the returned future stops the walk as soon as the current path has been processed. Chunks which
+     *     have already been published remain in the list.
+     * </p>
+     *
+     * <p>To be notified of the walk's progress, use {@link #addPathsAsync(List, Consumer)}.</p>
+     *
+     * @param paths Paths to be added.
+     * @return A future which completes once every found path has been published to the list.
+     *
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
      */
-    public void removePaths(final List<Path> paths) {
+    public CompletableFuture<Void> addPathsAsync(final List<Path> paths) {
+        return this.addPathsAsync(paths, progress -> {});
+    }
+
+    /**
+     * <p>Asynchronously adds one or more paths to the list, and periodically reports the progress of the walk.</p>
+     *
+     * <p>
+     *     This behaves in the same way as {@link #addPathsAsync(List)}. In addition, the progress listener is called on
+     *     the Event Dispatch Thread every 100 milliseconds while the walk is running, and
+     *     once more when the operation completes, is cancelled, or fails.
+     * </p>
+     *
+     * <p>
+     *     Cancellation is checked before each listed path is processed, so cancelling the returned future stops the
+     *     walk within a few milliseconds, even within very large directories. Chunks which have not yet been published
+     *     when the future is cancelled are discarded, so the list only ever contains whole chunks.
+     * </p>
+     *
+     * @param paths Paths to be added.
+     * @param progressListener Receives the progress of the walk.
+     * @return A future which completes once every found path has been published to the list.
+     *
+     * @throws NullPointerException If {@code paths}, any of its elements, or {@code progressListener} is {@code null}.
+     */
+    public CompletableFuture<Void> addPathsAsync(final List<Path> paths, final Consumer<? super IngestionProgress> progressListener) {
         Objects.requireNonNull(paths);
+        Objects.requireNonNull(progressListener);
+        return this.addPathsAsync(this.startBackgroundWalk(paths), progressListener);
+    }
 
-        for (final var path : paths) {
-            this.removePath(path);
-        }
+    /**
+     * Publishes the paths found by a background walk to the list, and periodically reports the progress of the walk.
+     * See {@link #addPathsAsync(List, Consumer)}.
+     *
+     * @param walk The walk, which may have already found some paths.
+     * @param progressListener Receives the progress of the walk.
+     * @return A future which completes once every found path has been published to the list.
+     */
+    private CompletableFuture<Void> addPathsAsync(final BackgroundWalk walk, final Consumer<? super IngestionProgress> progressListener) {
+        final var future = new CompletableFuture<Void>();
+        final var recorder = walk.getRecorder();
+        future.whenComplete((result, error) -> this.fireIngestionCompleted(recorder));
+
+        // The walk is cancelled along with the future, so that it discards the fingerprints of the directories whose
+        // paths were not published.
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                walk.cancel();
+            }
+        });
+
+        final var progressTimer = new Timer(PROGRESS_INTERVAL_MILLIS, event -> {
+            progressListener.accept(recorder.toProgress());
+        });
+        progressTimer.start();
+
+        // The final progress is reported exactly once, regardless of whether it is reported before the future is
+        // completed, or after the future is cancelled.
+        final Runnable finishProgress = () -> {
+            if (progressTimer.isRunning()) {
+                progressTimer.stop();
+                progressListener.accept(recorder.toProgress());
+            }
+        };
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(finishProgress));
+
+        walk.attach(chunk -> {
+            // The duplicates are rejected before the chunk is queued, so that any files which must be hashed are hashed
+            // on the walk's thread, or, for the chunks which were buffered before the walk was attached, on the
+            // ingestion executor, rather than on the Event Dispatch Thread.
+            final var uniqueChunk = this.registerPaths(recorder, chunk);
+
+            SwingUtilities.invokeLater(() -> {
+                final var start = System.nanoTime();
+                if (future.isCancelled()) {
+                    duplicateDetector.forget(uniqueChunk.stream().filter(path -> !pathsListModel.contains(path)).toList());
+                } else {
+                    recorder.insert(pathsListModel, uniqueChunk);
+                }
+                recorder.recordEventDispatch(System.nanoTime() - start);
+            });
+        }, this::watchDirectory, future::isCancelled, ingestionExecutor.get());
+
+        // This is queued after the final chunk, so the future only completes once every chunk has been published.
+        walk.getDelivery().whenComplete((result, error) -> {
+            SwingUtilities.invokeLater(() -> {
+                finishProgress.run();
+
+                if (error == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            });
+        });
+
+        return future;
     }
 
     /**
-     * <p>Retrieves a copy of the list of paths.</p>
+     * Starts walking paths on the ingestion executor, without publishing the found paths until the walk is attached.
      *
-     * <p>The list itself is a copy, but the paths are not.</p>
+     * @param paths Paths to be walked.
+     * @return The walk.
      *
-     * @return The list of paths.
+     * @throws NullPointerException If any of the paths is {@code null}.
      */
-    public List<Path> getPaths() {
-        List<Path> list;
-        synchronized (pathsListModel) {
-            list = Collections.list(pathsListModel.elements());
+    private BackgroundWalk startBackgroundWalk(final List<Path> paths) {
+        final var walk = new BackgroundWalk(paths);
+        final var walker = this.createWalker(ASYNC_CHUNK_SIZE, chunk -> {
+            // The files are hashed whilst the walk continues, which, for a drag, may be before they have been dropped.
+            duplicateDetector.prefetch(chunk);
+            walk.offerChunk(chunk);
+        }, walk::isCancelled, walk.getRecorder());
+
+        // Directories are only watched once it is known that their paths will be added.
+        if (directoryWatcher.get() != null) {
+            walker.setListedDirectoryHandler(walk::offerListedDirectory);
         }
 
-        return list;
+        walk.start(walker, ingestionExecutor.get());
+        return walk;
     }
 
     /**
-     * Retrieves whether drag-and-drop is enabled.
+     * Rejects the duplicates within a chunk of found paths, and adds the remaining paths to the list.
      *
-     * @return Whether drag-and-drop is enabled.
+     * @param recorder Records the number of paths which were added, and the number of duplicates.
+     * @param chunk The chunk.
      */
-    public boolean isDragAndDropEnabled() {
-        return dragAndDropEnabled.get();
+    private void insertPaths(final IngestionRecorder recorder, final List<Path> chunk) {
+        recorder.insert(pathsListModel, this.registerPaths(recorder, chunk));
     }
 
     /**
-     * Retrieves the recursion mode.
+     * Rejects the duplicates within a chunk of found paths, according to the {@link #setDuplicateMode(DuplicateMode)
+     * duplicate mode}.
      *
-     * @return The recursion mode.
+     * @param recorder Records the number of duplicates.
+     * @param chunk The chunk.
+     * @return The paths which are not duplicates.
      */
-    public int getRecursionMode() {
-        return recursionMode.get();
+    private List<Path> registerPaths(final IngestionRecorder recorder, final List<Path> chunk) {
+        final var uniqueChunk = this.registerPaths(chunk);
+        recorder.recordDuplicates(chunk.size() - uniqueChunk.size());
+        return uniqueChunk;
     }
 
     /**
-     * Sets whether drag-and-drop is enabled.
+     * <p>
+     *     Rejects the duplicates within a batch of found paths, according to the
+     *     {@link #setDuplicateMode(DuplicateMode) duplicate mode}.
+     * </p>
      *
-     * @param isEnabled Whether the feature is enabled.
+     * <p>
+     *     The parent directory of each rejected path is excluded from the fingerprint cache, as not all of its entries
+     *     are in the list, so it must be listed again the next time that it is walked.
+     * </p>
+     *
+     * @param paths The paths.
+     * @return The paths which are not duplicates, in their original order.
      */
-    public void setDragAndDropEnabled(final boolean isEnabled) {
-        dragAndDropEnabled.set(isEnabled);
-    }
+    private List<Path> registerPaths(final List<Path> paths) {
+        final var uniquePaths = duplicateDetector.register(paths);
+        if (uniquePaths.size() == paths.size()) {
+            return uniquePaths;
+        }
 
-    @Override
-    public void setEnabled(boolean enabled) {
-        super.setEnabled(enabled);
+        // The unique paths are a subsequence of the paths, so the rejected paths are those which it skips.
+        int uniqueIndex = 0;
+        for (final var path : paths) {
+            if (uniqueIndex < uniquePaths.size() && uniquePaths.get(uniqueIndex).equals(path)) {
+                uniqueIndex++;
+                continue;
+            }
 
-        if (enabled && isDragAndDropEnabled()) {
-            this.setDropTarget(new DropTarget(this, this));
-        } else {
-            this.setDropTarget(null);
+            final var parent = path.getParent();
+            if (parent != null) {
+                fingerprintCache.exclude(parent);
+            }
         }
+
+        return uniquePaths;
     }
 
     /**
-     * <p>Sets how to recurse directories, when using drag-and-drop.</p>
-     *
-     * <p>Any value outside of the following are considered "NONE":</p>
+     * Creates a walker which uses the current recursion mode and traversal settings.
      *
-     * <ul>
-     *     <li>{@link JFileChooser#FILES_ONLY}</li>
-     *     <li>{@link JFileChooser#DIRECTORIES_ONLY}</li>
-     *     <li>{@link JFileChooser#FILES_AND_DIRECTORIES}</li>
-     * </ul
+     * @param chunkSize The maximum number of paths in a chunk.
+     * @param sink Receives each chunk of found paths.
+     * @param isCancelled Whether the walk has been cancelled.
+     * @param recorder Records the counters and timings of the walk.
+     * @return The walker.
+     */
+    private PathWalker createWalker(final int chunkSize, final Consumer<List<Path>> sink, final BooleanSupplier isCancelled, final IngestionRecorder recorder) {
+        final var walker = new PathWalker(pathsListModel, recursionMode.get(), chunkSize, sink, isCancelled);
+        walker.setRecorder(recorder);
+        walker.setFilter(pathFilter.get());
+        walker.setFingerprintCache(fingerprintCache);
+        walker.setParallelism(traversalParallelism.get());
+        walker.setPermits(traversalPermits.get());
+        walker.setExecutor(traversalExecutor.get());
+        walker.setDeterministic(deterministicOrdering.get());
+        walker.setMaxDepth(maxDepth.get());
+        walker.setFollowLinks(followLinks.get());
+
+        if (lazyExpansion.get()) {
+            walker.setDeferredDirectoryHandler(unexpandedDirectories::put);
+        }
+
+        if (directoryWatcher.get() != null) {
+            walker.setListedDirectoryHandler(this::watchDirectory);
+        }
+
+        return walker;
+    }
+
+    /**
+     * Watches a directory for changes, if watch mode is enabled.
      *
-     * @param mode The new mode.
+     * @param directory The directory.
      */
-    public void setRecursionMode(final int mode) {
+    private void watchDirectory(final Path directory) {
+        final var watcher = directoryWatcher.get();
+        if (watcher == null) {
+            return;
+        }
+
+        try {
+            watcher.register(directory);
+        } catch (final IOException | IllegalStateException e) {
+            logger.log(Level.WARNING, "Failed to watch the directory '%s'.".formatted(directory), e);
+        }
+    }
+
+    /**
+     * <p>Applies a batch of file system events to the list.</p>
+     *
+     * <p>
+     *     Deleted paths, and every path within them, are removed on the Event Dispatch Thread. The created paths are
+     *     then walked on the calling thread, as though they had been found when their parent directories were
+     *     recursed, and the found paths are added on the Event Dispatch Thread.
+     * </p>
+     *
+     * @param batch The batch.
+     */
+    private void applyWatchBatch(final DirectoryWatcher.Batch batch) {
+        final var watcher = directoryWatcher.get();
+        if (watcher == null) {
+            return;
+        }
+
+        // A path is removed if it, or any of its parents, has been deleted. When events have been lost, the entries of
+        // the directory are checked instead.
+        final var removals = this.findPathsWithin(ancestor -> {
+            if (batch.deleted().contains(ancestor)) {
+                return true;
+            }
+
+            return batch.overflowed().contains(ancestor.getParent()) && Files.notExists(ancestor);
+        });
+
+        batch.deleted().forEach(watcher::unregister);
+
+        // The removals must be applied before the created paths are walked, otherwise a path which was deleted and
+        // then re-created would be skipped as a duplicate, and then removed.
+        if (!removals.isEmpty()) {
+            try {
+                SwingUtilities.invokeAndWait(() -> this.removePaths(removals));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final InvocationTargetException e) {
+                logger.log(Level.WARNING, "Failed to remove the deleted paths %s from the list.".formatted(removals), e.getCause());
+            }
+        }
+
+        final var found = new ArrayList<Path>();
+        final var walker = this.createWalker(Integer.MAX_VALUE, found::addAll, () -> false, new IngestionRecorder());
+        for (final var path : batch.created()) {
+            try {
+                walker.walkChild(path);
+            } catch (final IOException | RuntimeException e) {
+                // The path may have been deleted again, before it could be walked.
+                logger.log(Level.FINE, "Failed to add the created path '%s' to the list.".formatted(path), e);
+            }
+        }
+
+        for (final var directory : batch.overflowed()) {
+            try {
+                walker.walkChildren(directory);
+            } catch (final IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to re-list the directory '%s'.".formatted(directory), e);
+            }
+        }
+
+        walker.flush();
+
+        final var uniqueFound = this.registerPaths(found);
+        if (!uniqueFound.isEmpty()) {
+            SwingUtilities.invokeLater(() -> pathsListModel.addAll(uniqueFound));
+        }
+    }
+
+    /**
+     * <p>Expands a directory which has not yet been expanded, by inserting its children after it in the list.</p>
+     *
+     * <p>
+     *     If the recursion mode is {@link JFileChooser#FILES_ONLY}, then the directory was only a placeholder for its
+     *     children, so it is removed from the list.
+     * </p>
+     *
+     * @param directory Directory to be expanded.
+     * @return Whether the directory was expanded.
+     *
+     * @throws IOException If an I/O error occurs when recursing the directory.
+     */
+    private boolean expandDirectory(final Path directory) throws IOException {
+        synchronized (unexpandedDirectories) {
+            // If the directory isn't in the list, then it's either been removed, or it's yet to be published by an
+            // asynchronous walk.
+            final var depth = unexpandedDirectories.get(directory);
+            if (depth == null || !pathsListModel.contains(directory)) {
+                return false;
+            }
+
+            final var children = new ArrayList<Path>();
+            try {
+                this.walkUnexpandedDirectory(directory, depth, children);
+            } finally {
+                this.insertExpandedChildren(directory, depth, this.registerPaths(children));
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * <p>Expands a directory which has not yet been expanded, without blocking the calling thread.</p>
+     *
+     * <p>
+     *     As with {@link #addPathsAsync(List)}, the directory is walked, and its children's duplicates rejected, on the
+     *     {@link #setIngestionExecutor(Executor) ingestion executor}, whilst the children are inserted on the Event
+     *     Dispatch Thread. If the directory is expanded by another call, or removed, in the meantime, then its children
+     *     are discarded.
+     * </p>
+     *
+     * @param directory Directory to be expanded.
+     */
+    private void expandDirectoryAsync(final Path directory) {
+        final var depth = unexpandedDirectories.get(directory);
+        if (depth == null || !expandingDirectories.add(directory)) {
+            return;
+        }
+
+        final Runnable task = () -> {
+            final var children = new ArrayList<Path>();
+            try {
+                this.walkUnexpandedDirectory(directory, depth, children);
+            } catch (final IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to expand the directory '%s'.".formatted(directory), e);
+            }
+
+            final var uniqueChildren = this.registerPaths(children);
+            SwingUtilities.invokeLater(() -> {
+                expandingDirectories.remove(directory);
+                this.insertExpandedChildren(directory, depth, uniqueChildren);
+            });
+        };
+
+        try {
+            ingestionExecutor.get().execute(task);
+        } catch (final RejectedExecutionException e) {
+            expandingDirectories.remove(directory);
+            logger.log(Level.WARNING, "Failed to expand the directory '%s'.".formatted(directory), e);
+        }
+    }
+
+    /**
+     * Walks the children of a directory which has not yet been expanded.
+     *
+     * @param directory Directory to be walked.
+     * @param depth The depth at which the directory was deferred.
+     * @param children Receives the found children, including those found before an error.
+     *
+     * @throws IOException If an I/O error occurs when recursing the directory.
+     */
+    private void walkUnexpandedDirectory(final Path directory, final int depth, final List<Path> children) throws IOException {
+        final var walker = this.createWalker(Integer.MAX_VALUE, children::addAll, () -> false, new IngestionRecorder());
+        try {
+            walker.walkChildren(directory, depth);
+        } finally {
+            walker.flush();
+        }
+    }
+
+    /**
+     * <p>Inserts the children of an expanded directory after it in the list.</p>
+     *
+     * <p>
+     *     If the directory has already been expanded, or has been removed from the list, then the children are discarded,
+     *     and the keys of those which are not in the list are forgotten, as they were registered when they were walked.
+     * </p>
+     *
+     * @param directory The directory.
+     * @param depth The depth at which the directory was deferred.
+     * @param children The children, whose duplicates have been rejected.
+     */
+    private void insertExpandedChildren(final Path directory, final int depth, final List<Path> children) {
+        synchronized (unexpandedDirectories) {
+            final var index = pathsListModel.indexOf(directory);
+            if (index == -1 || !unexpandedDirectories.remove(directory, depth)) {
+                duplicateDetector.forget(children.stream().filter(path -> !pathsListModel.contains(path)).toList());
+                return;
+            }
+
+            pathsListModel.insertAll(index + 1, children);
+
+            if (recursionMode.get() == JFileChooser.FILES_ONLY) {
+                pathsListModel.remove(directory);
+                duplicateDetector.forget(List.of(directory));
+            }
+        }
+    }
+
+    /** Expands every directory which has not yet been expanded, including those found whilst expanding others. */
+    private void expandAllDirectories() {
+        boolean hasExpanded;
+        do {
+            hasExpanded = false;
+
+            for (final var directory : List.copyOf(unexpandedDirectories.keySet())) {
+                try {
+                    hasExpanded |= this.expandDirectory(directory);
+                } catch (final IOException | RuntimeException e) {
+                    logger.log(Level.WARNING, "Failed to expand the directory '%s'.".formatted(directory), e);
+                }
+            }
+        } while (hasExpanded);
+    }
+
+    @Override
+    protected void paintComponent(final Graphics graphics) {
+        super.paintComponent(graphics);
+
+        // The displayed model may be a search view, whose indices differ from those of the list of paths.
+        final var model = this.getModel();
+        final var firstIndex = this.getFirstVisibleIndex();
+        final var lastIndex = Math.min(this.getLastVisibleIndex(), model.getSize() - 1);
+        if (firstIndex == -1) {
+            return;
+        }
+
+        if (attributePrefetch.get()) {
+            this.prefetchAttributes(model, firstIndex, lastIndex);
+        }
+
+        if (unexpandedDirectories.isEmpty()) {
+            return;
+        }
+
+        final var directories = new ArrayList<Path>();
+        for (int i = firstIndex ; i <= lastIndex ; i++) {
+            final var path = model.getElementAt(i);
+            if (unexpandedDirectories.containsKey(path)) {
+                directories.add(path);
+            }
+        }
+
+        if (directories.isEmpty()) {
+            return;
+        }
+
+        // The list cannot be modified whilst it is being painted, so the children are only inserted afterwards.
+        directories.forEach(this::expandDirectoryAsync);
+    }
+
+    /**
+     * Prefetches the attributes of the displayed paths, followed by those of the page after them, and those of the
+     * page before them, so that they are usually cached before they are scrolled into view.
+     *
+     * @param model The displayed model.
+     * @param firstIndex The index of the first displayed path.
+     * @param lastIndex The index of the last displayed path.
+     */
+    private void prefetchAttributes(final ListModel<Path> model, final int firstIndex, final int lastIndex) {
+        final var pageSize = lastIndex - firstIndex + 1;
+
+        final var paths = new ArrayList<Path>(pageSize * 3);
+        for (int i = firstIndex ; i <= lastIndex ; i++) {
+            paths.add(model.getElementAt(i));
+        }
+
+        for (int i = lastIndex + 1 ; i <= Math.min(lastIndex + pageSize, model.getSize() - 1) ; i++) {
+            paths.add(model.getElementAt(i));
+        }
+
+        for (int i = firstIndex - 1 ; i >= Math.max(0, firstIndex - pageSize) ; i--) {
+            paths.add(model.getElementAt(i));
+        }
+
+        attributeCache.prefetch(paths);
+    }
+
+    /**
+     * Notifies every {@link IngestionListener} that an operation has completed.
+     *
+     * @param recorder The recorder of the operation's counters and timings.
+     */
+    private void fireIngestionCompleted(final IngestionRecorder recorder) {
+        final var listeners = listenerList.getListeners(IngestionListener.class);
+        if (listeners.length == 0) {
+            return;
+        }
+
+        final var metrics = recorder.toMetrics();
+        for (final var listener : listeners) {
+            listener.ingestionCompleted(metrics);
+        }
+    }
+
+    /**
+     * <p>Adds a listener which receives the {@link IngestionMetrics} of each operation which adds paths to the list.</p>
+     *
+     * <p>
+     *     This includes paths added with drag-and-drop, so the metrics can be used to determine why some drops are
+     *     slower than others.
+     * </p>
+     *
+     * @param listener The listener.
+     * @throws NullPointerException If {@code listener} is {@code null}.
+     */
+    public void addIngestionListener(final IngestionListener listener) {
+        Objects.requireNonNull(listener);
+        listenerList.add(IngestionListener.class, listener);
+    }
+
+    /**
+     * Removes an {@link IngestionListener}.
+     *
+     * @param listener The listener.
+     */
+    public void removeIngestionListener(final IngestionListener listener) {
+        listenerList.remove(IngestionListener.class, listener);
+    }
+
+    /**
+     * Retrieves every {@link IngestionListener} which has been added to the list.
+     *
+     * @return The listeners.
+     */
+    public IngestionListener[] getIngestionListeners() {
+        return listenerList.getListeners(IngestionListener.class);
+    }
+
+    /** Removes all paths from the list. */
+    public void removeAllPaths() {
+        synchronized (unexpandedDirectories) {
+            pathsListModel.clear();
+            unexpandedDirectories.clear();
+        }
+
+        fingerprintCache.clear();
+        attributeCache.clear();
+        duplicateDetector.clear();
+
+        final var watcher = directoryWatcher.get();
+        if (watcher != null) {
+            watcher.unregisterAll();
+        }
+    }
+
+    /**
+     * Removes a path from the list.
+     *
+     * @param path Path to be removed.
+     * @throws NullPointerException If {@code path} is null.
+     */
+    public void removePath(final Path path) {
+        Objects.requireNonNull(path);
+
+        pathsListModel.remove(path);
+        this.forgetPaths(List.of(path));
+    }
+
+    /**
+     * Removes one or more paths from the list.
+     *
+     * @param paths Paths to be removed.
+     * @throws NullPointerException If {@code paths} is {@code null}.
+     */
+    public void removePaths(final Path... paths) {
+        Objects.requireNonNull(paths);
+        this.removePaths(Arrays.asList(paths));
+    }
+
+    /**
+     * Removes one or more paths from the list.
+     *
+     * @param paths Paths to be removed.
+     * @throws NullPointerException If {@code paths} is {@code null}.
+     */
+    public void removePaths(final List<Path> paths) {
+        Objects.requireNonNull(paths);
+        pathsListModel.removeAll(paths);
+        this.forgetPaths(paths);
+    }
+
+    /**
+     * <p>Removes every path which matches a predicate from the list.</p>
+     *
+     * <p>
+     *     The predicate is tested once against each path, and the list is compacted in a single pass, so removing a
+     *     large number of paths costs no more than removing a few. See {@link PathListModel#removeIf(Predicate)}.
+     * </p>
+     *
+     * @param predicate The predicate.
+     * @return The number of paths which were removed.
+     * @throws NullPointerException If {@code predicate} is {@code null}.
+     */
+    public int removeIf(final Predicate<? super Path> predicate) {
+        Objects.requireNonNull(predicate);
+
+        final var removed = new ArrayList<Path>();
+        pathsListModel.removeIf(path -> {
+            if (predicate.test(path)) {
+                removed.add(path);
+                return true;
+            }
+
+            return false;
+        });
+
+        this.forgetPaths(removed);
+        return removed.size();
+    }
+
+    /**
+     * <p>Removes a path, and every path within it, from the list.</p>
+     *
+     * <p>
+     *     Paths are compared by their name elements, so removing {@code /a/b} removes {@code /a/b/c}, but not
+     *     {@code /a/bc}. The path, and every directory within it, also stops being watched, even if they are not in
+     *     the list themselves. See {@link #removeIf(Predicate)}.
+     * </p>
+     *
+     * @param root The root of the paths to be removed.
+     * @return The number of paths which were removed.
+     * @throws NullPointerException If {@code root} is {@code null}.
+     */
+    public int removeSubtree(final Path root) {
+        Objects.requireNonNull(root);
+
+        final var removedCount = this.removeIf(path -> path.startsWith(root));
+
+        final var watcher = directoryWatcher.get();
+        if (watcher != null) {
+            watcher.unregister(root);
+        }
+
+        return removedCount;
+    }
+
+    /**
+     * Discards everything which is known about paths which have been removed from the list, and stops watching them,
+     * along with every directory within them.
+     *
+     * @param paths The removed paths.
+     */
+    private void forgetPaths(final Collection<Path> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+
+        paths.forEach(unexpandedDirectories::remove);
+        paths.forEach(fingerprintCache::invalidate);
+        paths.forEach(attributeCache::invalidate);
+        duplicateDetector.forget(paths);
+
+        final var watcher = directoryWatcher.get();
+        if (watcher != null) {
+            // The watched directories are checked in a single pass, rather than once per removed path.
+            final var removedPaths = new HashSet<>(paths);
+            watcher.unregisterIf(directory -> {
+                for (var ancestor = directory ; ancestor != null ; ancestor = ancestor.getParent()) {
+                    if (removedPaths.contains(ancestor)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            });
+        }
+    }
+
+    /**
+     * <p>Retrieves a copy of the list of paths.</p>
+     *
+     * <p>
+     *     If {@link #setLazyExpansionEnabled(boolean) lazy expansion} is enabled, then every directory which has not yet
+     *     been expanded is expanded first, so the list is fully materialised.
+     * </p>
+     *
+     * <p>The list itself is a copy, but the paths are not.</p>
+     *
+     * @return The list of paths.
+     */
+    public List<Path> getPaths() {
+        this.expandAllDirectories();
+        return pathsListModel.toList();
+    }
+
+    /**
+     * <p>Retrieves an immutable snapshot of the list of paths.</p>
+     *
+     * <p>
+     *     Unlike {@link #getPaths()}, the paths are not copied on each call. The snapshot is shared by every caller
+     *     until the list is next modified, so polling this method is cheap when the list rarely changes. If
+     *     {@link #setLazyExpansionEnabled(boolean) lazy expansion} is enabled, then every directory which has not yet
+     *     been expanded is expanded first.
+     * </p>
+     *
+     * @return The snapshot.
+     * @see PathListModel#snapshot()
+     */
+    public List<Path> getPathsSnapshot() {
+        this.expandAllDirectories();
+        return pathsListModel.snapshot();
+    }
+
+    /**
+     * <p>Saves the paths in the list to a file, replacing the file if it already exists.</p>
+     *
+     * <p>
+     *     The paths are stored in a compact binary format, in which each path is front-coded against the previous one.
+     *     If {@link #setLazyExpansionEnabled(boolean) lazy expansion} is enabled, then every directory which has not yet
+     *     been expanded is expanded first.
+     * </p>
+     *
+     * <p>
+     *     Paths whose string forms can't be encoded as UTF-8, such as Unix paths whose bytes aren't valid in the
+     *     platform's encoding, are not saved, as they would be restored as paths which don't exist. A warning is logged
+     *     if any are skipped.
+     * </p>
+     *
+     * @param file File to save the paths to.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws NullPointerException If {@code file} is {@code null}.
+     */
+    public void savePaths(final Path file) throws IOException {
+        Objects.requireNonNull(file);
+
+        final var skippedCount = PathListFile.write(file, this.getPathsSnapshot());
+        if (skippedCount > 0) {
+            logger.log(Level.WARNING, "Skipped %d paths, whose names can't be encoded, when saving '%s'.".formatted(skippedCount, file));
+        }
+    }
+
+    /**
+     * <p>Restores paths, which were saved by {@link #savePaths(Path)}, to the list.</p>
+     *
+     * <p>
+     *     The file is memory-mapped, when its file system supports it, and the paths are added to the list directly,
+     *     without being walked, so even very large lists are restored almost immediately. Paths which are already in the
+     *     list are skipped. The paths are created in the file system of the file.
+     * </p>
+     *
+     * <p>
+     *     If {@code validate} is {@code true}, then the restored paths are checked on the
+     *     {@link #setIngestionExecutor(Executor) ingestion executor}, and any which no longer exist are removed from
+     *     the list on the Event Dispatch Thread. Unless the {@link #setDuplicateMode(DuplicateMode) duplicate mode} is
+     *     {@link DuplicateMode#PATH}, the restored paths are also registered on the ingestion executor, so that paths
+     *     which are later added are rejected if they are duplicates of them. Duplicates among the restored paths are not
+     *     removed. Cancelling the returned future stops the validation and the registration.
+     * </p>
+     *
+     * @param file File to restore the paths from.
+     * @param validate Whether to remove paths which no longer exist, in the background.
+     * @return A future which completes once the paths have been validated and registered, or a completed future if
+     *         they are neither being validated nor registered.
+     *
+     * @throws IOException If an I/O error occurs, or if the file is not in the expected format.
+     * @throws NullPointerException If {@code file} is {@code null}.
+     */
+    public CompletableFuture<Void> restorePaths(final Path file, final boolean validate) throws IOException {
+        Objects.requireNonNull(file);
+
+        final var paths = PathListFile.read(file, file.getFileSystem());
+        pathsListModel.addAll(paths);
+
+        final var register = duplicateDetector.getMode() != DuplicateMode.PATH;
+        if (!validate && !register) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final var future = new CompletableFuture<Void>();
+        final Runnable task = () -> {
+            final var stalePaths = new ArrayList<Path>();
+            final var validPaths = new ArrayList<Path>(ASYNC_CHUNK_SIZE);
+            for (final var path : paths) {
+                if (future.isCancelled()) {
+                    return;
+                }
+
+                if (validate && Files.notExists(path)) {
+                    stalePaths.add(path);
+                } else if (register && pathsListModel.contains(path)) {
+                    // Paths which have already been removed from the list are skipped, as their keys would never be
+                    // forgotten.
+                    validPaths.add(path);
+                }
+
+                if (stalePaths.size() == ASYNC_CHUNK_SIZE) {
+                    final var chunk = List.copyOf(stalePaths);
+                    SwingUtilities.invokeLater(() -> this.removePaths(chunk));
+                    stalePaths.clear();
+                }
+
+                // The paths are registered in chunks, so that their files are hashed in parallel.
+                if (validPaths.size() == ASYNC_CHUNK_SIZE) {
+                    duplicateDetector.registerAll(validPaths);
+                    validPaths.clear();
+                }
+            }
+
+            duplicateDetector.registerAll(validPaths);
+
+            // This is queued after the final chunk, so the future only completes once every chunk has been removed.
+            SwingUtilities.invokeLater(() -> {
+                this.removePaths(stalePaths);
+                future.complete(null);
+            });
+        };
+
+        try {
+            ingestionExecutor.get().execute(task);
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Estimates the number of bytes of heap used per path by the list's storage.
+     *
+     * @return The estimated number of bytes per path, or {@code 0} if the list is empty.
+     * @see PathListModel#estimateBytesPerPath()
+     */
+    public double estimateBytesPerPath() {
+        return pathsListModel.estimateBytesPerPath();
+    }
+
+    /**
+     * Retrieves whether drag-and-drop is enabled.
+     *
+     * @return Whether drag-and-drop is enabled.
+     */
+    public boolean isDragAndDropEnabled() {
+        return dragAndDropEnabled.get();
+    }
+
+    /**
+     * Retrieves the executor on which {@link #addPathsAsync(List)} walks paths.
+     *
+     * @return The ingestion executor.
+     */
+    public Executor getIngestionExecutor() {
+        return ingestionExecutor.get();
+    }
+
+    /**
+     * Retrieves whether the compact storage mode is enabled.
+     *
+     * @return Whether the compact storage mode is enabled.
+     */
+    public boolean isCompactStorageEnabled() {
+        return pathsListModel.isCompactStorageEnabled();
+    }
+
+    /**
+     * Retrieves whether paths found by parallel walks are added in the same order as they would be by a single thread.
+     *
+     * @return Whether the ordering is deterministic.
+     */
+    public boolean isDeterministicOrderingEnabled() {
+        return deterministicOrdering.get();
+    }
+
+    /**
+     * Retrieves the maximum number of directory listings, and batches of attribute reads, which are performed at once.
+     *
+     * @return The traversal parallelism.
+     */
+    public int getTraversalParallelism() {
+        return traversalParallelism.get();
+    }
+
+    /**
+     * Retrieves the executor on which directories are walked, when the traversal parallelism is greater than one.
+     *
+     * @return The traversal executor.
+     */
+    public Executor getTraversalExecutor() {
+        return traversalExecutor.get();
+    }
+
+    /**
+     * Retrieves whether directories are only expanded once they are displayed, or once every path is requested.
+     *
+     * @return Whether lazy expansion is enabled.
+     */
+    public boolean isLazyExpansionEnabled() {
+        return lazyExpansion.get();
+    }
+
+    /**
+     * Retrieves whether the paths which are dragged over the list are walked before they have been dropped.
+     *
+     * @return Whether drag pre-scanning is enabled.
+     */
+    public boolean isDragPrescanEnabled() {
+        return dragPrescan.get();
+    }
+
+    /**
+     * Retrieves the maximum depth of the directories which are listed.
+     *
+     * @return The maximum depth.
+     */
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * Retrieves whether links are followed when walking paths.
+     *
+     * @return Whether links are followed.
+     */
+    public boolean isFollowLinksEnabled() {
+        return followLinks.get();
+    }
+
+    /**
+     * Retrieves how the list determines whether a path is a duplicate of one which is already in the list.
+     *
+     * @return The duplicate mode.
+     */
+    public DuplicateMode getDuplicateMode() {
+        return duplicateDetector.getMode();
+    }
+
+    /**
+     * Retrieves the cache of the attributes of the displayed paths, from which renderers can retrieve the attributes
+     * of a path without performing I/O.
+     *
+     * @return The attribute cache.
+     * @see PathListCellRenderer
+     */
+    public PathAttributeCache getAttributeCache() {
+        return attributeCache;
+    }
+
+    /**
+     * Retrieves whether the attributes of the displayed paths are prefetched.
+     *
+     * @return Whether attribute prefetching is enabled.
+     */
+    public boolean isAttributePrefetchEnabled() {
+        return attributePrefetch.get();
+    }
+
+    /**
+     * Retrieves whether the directories recursed by the list are watched for changes.
+     *
+     * @return Whether watch mode is enabled.
+     */
+    public boolean isWatchEnabled() {
+        return directoryWatcher.get() != null;
+    }
+
+    /**
+     * Retrieves the filter which determines which of the found paths are added to the list.
+     *
+     * @return The path filter.
+     */
+    public PathFilter getPathFilter() {
+        return pathFilter.get();
+    }
+
+    /**
+     * Retrieves the search query.
+     *
+     * @return The search query, in lowercase, or an empty string if no query has been set.
+     */
+    public String getSearchQuery() {
+        final var model = searchModel.get();
+        return model == null ? "" : model.getQuery();
+    }
+
+    /**
+     * Retrieves the key by which the displayed paths are sorted.
+     *
+     * @return The sort key, or {@code null} if the paths are displayed in insertion order.
+     */
+    public SortedPathListModel.SortKey getSortKey() {
+        final var model = sortModel.get();
+        return model == null ? null : model.getSortKey();
+    }
+
+    /**
+     * Retrieves whether the displayed paths are sorted in ascending order.
+     *
+     * @return Whether the paths are sorted in ascending order, or {@code true} if they are displayed in insertion
+     *         order.
+     */
+    public boolean isSortAscending() {
+        final var model = sortModel.get();
+        return model == null || model.isAscending();
+    }
+
+    /**
+     * Retrieves the recursion mode.
+     *
+     * @return The recursion mode.
+     */
+    public int getRecursionMode() {
+        return recursionMode.get();
+    }
+
+    /**
+     * Sets whether drag-and-drop is enabled.
+     *
+     * @param isEnabled Whether the feature is enabled.
+     */
+    public void setDragAndDropEnabled(final boolean isEnabled) {
+        dragAndDropEnabled.set(isEnabled);
+    }
+
+    /**
+     * <p>Sets whether the compact storage mode is enabled.</p>
+     *
+     * <p>
+     *     In this mode, paths are stored by their interned parent directory and the bytes of their file name, rather
+     *     than as {@link Path} objects, which greatly reduces the memory used by very large lists. See
+     *     {@link PathListModel#setCompactStorageEnabled(boolean)}.
+     * </p>
+     *
+     * @param isEnabled Whether the mode is enabled.
+     */
+    public void setCompactStorageEnabled(final boolean isEnabled) {
+        pathsListModel.setCompactStorageEnabled(isEnabled);
+    }
+
+    /**
+     * <p>Sets whether paths found by parallel walks are added in the same order as they would be by a single thread.</p>
+     *
+     * <p>
+     *     If disabled, then the paths within each directory are added as soon as the directory has been listed, so the
+     *     first paths appear sooner, but the order of the list may differ between walks. This is enabled by default.
+     * </p>
+     *
+     * @param isEnabled Whether the feature is enabled.
+     */
+    public void setDeterministicOrderingEnabled(final boolean isEnabled) {
+        deterministicOrdering.set(isEnabled);
+    }
+
+    /**
+     * <p>Sets the maximum number of directory listings, and batches of attribute reads, which are performed at once.</p>
+     *
+     * <p>
+     *     If this is greater than one, then each subdirectory is listed by its own task on the
+     *     {@link #setTraversalExecutor(Executor) traversal executor}, and the attributes of the entries of large
+     *     directories are read in batches, each by its own task. At most this many tasks perform I/O at once, whilst
+     *     the others wait, so on file systems where each listing or {@code stat} has a high latency, such as network
+     *     mounts, their latencies overlap. On such file systems, a parallelism of several dozen may be worthwhile.
+     * </p>
+     *
+     * <p>
+     *     The limit is shared by every walk, so concurrent calls to {@link #addPathsAsync(List)} don't multiply it.
+     *     Walks which are already in progress keep the limit with which they started.
+     * </p>
+     *
+     * <p>
+     *     The {@link #setRecursionMode(int) recursion mode} is applied in the same way, regardless of the parallelism.
+     *     By default, directories are walked by a single thread.
+     * </p>
+     *
+     * @param parallelism The maximum number of tasks which perform I/O at once.
+     * @throws IllegalArgumentException If {@code parallelism} is less than one.
+     */
+    public void setTraversalParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least one, but it was " + parallelism + ".");
+        }
+
+        traversalParallelism.set(parallelism);
+        traversalPermits.set(new Semaphore(parallelism));
+    }
+
+    /**
+     * <p>Sets the executor on which directories are walked, when the traversal parallelism is greater than one.</p>
+     *
+     * <p>
+     *     By default, each task runs on its own virtual thread, so a task which is waiting on I/O doesn't occupy a
+     *     platform thread. The number of tasks which perform I/O at once is limited by the
+     *     {@link #setTraversalParallelism(int) traversal parallelism}, rather than by the executor, and a task which the
+     *     executor has not yet started is run by the task which is waiting for it, so any executor may be used, even one
+     *     with a single thread.
+     * </p>
+     *
+     * <p>
+     *     The files which are hashed by the {@link #setDuplicateMode(DuplicateMode) duplicate mode} are also hashed on
+     *     this executor.
+     * </p>
+     *
+     * @param executor The new executor.
+     * @throws NullPointerException If {@code executor} is {@code null}.
+     */
+    public void setTraversalExecutor(final Executor executor) {
+        Objects.requireNonNull(executor);
+        traversalExecutor.set(executor);
+        duplicateDetector.setExecutor(executor);
+    }
+
+    /**
+     * <p>Sets the executor on which {@link #addPathsAsync(List)} walks paths.</p>
+     *
+     * <p>By default, a shared pool of daemon threads is used.</p>
+     *
+     * @param executor The new executor.
+     * @throws NullPointerException If {@code executor} is {@code null}.
+     */
+    public void setIngestionExecutor(final Executor executor) {
+        Objects.requireNonNull(executor);
+        ingestionExecutor.set(executor);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+
+        if (enabled && isDragAndDropEnabled()) {
+            this.setDropTarget(new DropTarget(this, this));
+        } else {
+            this.setDropTarget(null);
+        }
+    }
+
+    /**
+     * <p>Sets whether directories are only expanded once they are displayed, or once every path is requested.</p>
+     *
+     * <p>
+     *     When enabled, a directory which would be recursed is added to the list without its children. Its children
+     *     are only added, directly after it, once it has been painted, or once {@link #getPaths()} is called. This
+     *     means that adding a large directory tree only costs as much as the part of it which is displayed.
+     * </p>
+     *
+     * <p>
+     *     If the recursion mode is {@link JFileChooser#FILES_ONLY}, then an unexpanded directory is displayed as a
+     *     placeholder, and it is replaced by its files once it has been expanded.
+     * </p>
+     *
+     * <p>This is disabled by default.</p>
+     *
+     * @param isEnabled Whether the feature is enabled.
+     */
+    public void setLazyExpansionEnabled(final boolean isEnabled) {
+        lazyExpansion.set(isEnabled);
+    }
+
+    /**
+     * <p>Sets whether the paths which are dragged over the list are walked before they have been dropped.</p>
+     *
+     * <p>
+     *     When enabled, and if the platform provides the dragged files before they are dropped, the dragged paths are
+     *     walked in the background as soon as they are dragged over the list. The found paths are not added to the
+     *     list until they are dropped, at which point the paths which have already been found are added at once, and
+     *     the walk continues as though it had been started by the drop. If the drag leaves the list, then the walk is
+     *     cancelled and its paths are discarded. The walk uses the settings, such as the
+     *     {@link #setRecursionMode(int) recursion mode}, which were in effect when the drag entered the list.
+     * </p>
+     *
+     * <p>This is enabled by default.</p>
+     *
+     * @param isEnabled Whether drag pre-scanning is enabled.
+     */
+    public void setDragPrescanEnabled(final boolean isEnabled) {
+        dragPrescan.set(isEnabled);
+    }
+
+    /**
+     * <p>Sets the maximum depth of the directories which are listed.</p>
+     *
+     * <p>
+     *     The added paths are at a depth of zero, and their children at a depth of one. A directory at the maximum
+     *     depth is added, if the {@link #setRecursionMode(int) recursion mode} permits directories, but none of its
+     *     entries are. Paths which are found by watch mode, or by {@link #refreshPath(Path)}, are walked relative to
+     *     the directory in which they were found. By default, the depth is unlimited.
+     * </p>
+     *
+     * @param depth The maximum depth.
+     * @throws IllegalArgumentException If {@code depth} is negative.
+     */
+    public void setMaxDepth(final int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("The maximum depth cannot be negative, but it was " + depth + ".");
+        }
+
+        maxDepth.set(depth);
+    }
+
+    /**
+     * <p>Sets whether links are followed when walking paths.</p>
+     *
+     * <p>
+     *     When enabled, a link is walked as whatever it points to, and a directory which is a link to one of its own
+     *     ancestors is skipped, with a warning, so that a cycle of links can't be walked forever. When disabled, a
+     *     link is added as though it were a regular file, unless the {@link #setRecursionMode(int) recursion mode} is
+     *     {@link JFileChooser#DIRECTORIES_ONLY}, and it is never recursed. This is enabled by default.
+     * </p>
+     *
+     * @param isEnabled Whether links are followed.
+     */
+    public void setFollowLinksEnabled(final boolean isEnabled) {
+        followLinks.set(isEnabled);
+
+        // A directory which was listed with links followed may have entries which are now treated differently.
+        fingerprintCache.clear();
+    }
+
+    /**
+     * <p>Sets how the list determines whether a path is a duplicate of one which is already in the list.</p>
+     *
+     * <p>
+     *     Duplicates are rejected as they are added, so that only the first path to a file, or to each distinct content
+     *     in {@link DuplicateMode#CONTENT} mode, is displayed. The paths which are already in the list are registered
+     *     under the new mode, which reads the attributes of each of them, and hashes their regular files in
+     *     {@link DuplicateMode#CONTENT} mode, on the calling thread. Duplicates among them are not removed. Paths
+     *     which are restored by {@link #restorePaths(Path, boolean)} are registered in the background, but are not
+     *     removed if they are duplicates, as they were checked when they were first added.
+     * </p>
+     *
+     * <p>
+     *     The digests of hashed files are cached until the files are modified, so adding the same files again does not
+     *     hash them again. When paths are added asynchronously, their files are hashed in the background, and, for a
+     *     drag-and-drop, whilst they are still being dragged. This is {@link DuplicateMode#PATH} by default.
+     * </p>
+     *
+     * @param mode The duplicate mode.
+     * @throws NullPointerException If {@code mode} is {@code null}.
+     */
+    public void setDuplicateMode(final DuplicateMode mode) {
+        Objects.requireNonNull(mode);
+
+        if (mode != duplicateDetector.getMode()) {
+            duplicateDetector.setMode(mode, pathsListModel.toList());
+
+            // The mode determines which entries of each directory are added, so the fingerprints no longer apply.
+            fingerprintCache.clear();
+        }
+    }
+
+    /**
+     * <p>Sets whether the attributes of the displayed paths are prefetched.</p>
+     *
+     * <p>
+     *     When enabled, each time that the list is painted, the attributes of the displayed paths, and of a page of paths
+     *     on either side of them, are read into the {@link #getAttributeCache() attribute cache} on the ingestion
+     *     executor, and the list is repainted once they have been read. This allows a renderer, such as
+     *     {@link PathListCellRenderer}, to display the size, type, or modification time of each path without performing
+     *     I/O on the Event Dispatch Thread.
+     * </p>
+     *
+     * @param isEnabled Whether attribute prefetching is enabled.
+     */
+    public void setAttributePrefetchEnabled(final boolean isEnabled) {
+        attributePrefetch.set(isEnabled);
+        this.repaint();
+    }
+
+    /**
+     * <p>Sets whether the directories recursed by the list are watched for changes.</p>
+     *
+     * <p>
+     *     When enabled, every directory whose children are listed, when a path is added, is watched with a
+     *     {@link java.nio.file.WatchService}. Paths which are created within a watched directory are added to the list,
+     *     according to the {@link #setRecursionMode(int) recursion mode}, and paths which are deleted are removed from
+     *     it, along with every path within them. A renamed path is removed, and its new path is added. Events are
+     *     coalesced, and applied to the list in batches, so a burst of changes only updates the list once.
+     * </p>
+     *
+     * <p>
+     *     Only directories which are recursed while watch mode is enabled are watched. Removing a directory from the
+     *     list stops it, and every directory within it, from being watched. Disabling watch mode stops every directory
+     *     from being watched. This is disabled by default.
+     * </p>
+     *
+     * @param isEnabled Whether watch mode is enabled.
+     */
+    public void setWatchEnabled(final boolean isEnabled) {
+        if (isEnabled) {
+            final var watcher = new DirectoryWatcher(this::applyWatchBatch, WATCH_COALESCING_INTERVAL);
+            if (!directoryWatcher.compareAndSet(null, watcher)) {
+                watcher.close();
+            }
+        } else {
+            final var watcher = directoryWatcher.getAndSet(null);
+            if (watcher != null) {
+                watcher.close();
+            }
+        }
+    }
+
+    /**
+     * <p>Sets the filter which determines which of the found paths are added to the list.</p>
+     *
+     * <p>
+     *     The filter is applied whilst paths are walked, in addition to the {@link #setRecursionMode(int) recursion
+     *     mode}, so paths which it rejects are never added, and directories which it rejects are never listed. Paths
+     *     which are already in the list are unaffected. By default, every path is accepted.
+     * </p>
+     *
+     * @param filter The new filter.
+     * @throws NullPointerException If {@code filter} is {@code null}.
+     * @see PathFilter
+     */
+    public void setPathFilter(final PathFilter filter) {
+        Objects.requireNonNull(filter);
+        pathFilter.set(filter);
+
+        // A directory which was listed with a different filter may have entries which were never added to the list.
+        fingerprintCache.clear();
+    }
+
+    /**
+     * <p>Sets the order in which the paths are displayed.</p>
+     *
+     * <p>
+     *     The first time that a sort key is set, a {@link SortedPathListModel} of the list's paths is displayed, which
+     *     keeps them sorted as paths are added and removed. Sorting by size or by modification time uses the cached
+     *     attributes of each path, or reads them once, on the ingestion executor, and moves the path into place once
+     *     they have been read. Methods such as {@link #getPaths()} continue to return the paths in insertion
+     *     order. If a {@link #setSearchQuery(String) search query} has been set, then the search is applied to the
+     *     sorted paths.
+     * </p>
+     *
+     * <p>This should be called on the Event Dispatch Thread.</p>
+     *
+     * @param sortKey The key by which the paths are sorted, or {@code null} to display them in insertion order.
+     * @param isAscending Whether the paths are sorted in ascending order.
+     */
+    public void setSortOrder(final SortedPathListModel.SortKey sortKey, final boolean isAscending) {
+        final var previousSortModel = sortModel.get();
+        if (sortKey == null) {
+            if (previousSortModel == null) {
+                return;
+            }
+
+            previousSortModel.detach();
+            sortModel.set(null);
+        } else if (previousSortModel != null) {
+            previousSortModel.setSortOrder(sortKey, isAscending);
+            return;
+        } else {
+            sortModel.set(new SortedPathListModel(
+                pathsListModel,
+                sortKey,
+                isAscending,
+                attributeCache,
+                command -> ingestionExecutor.get().execute(command)
+            ));
+        }
+
+        // The search view must be recreated, as it is a view of the sort view.
+        final var sorted = sortModel.get();
+        final var previousSearchModel = searchModel.get();
+        if (previousSearchModel == null) {
+            super.setModel(sorted == null ? pathsListModel : sorted);
+            return;
+        }
+
+        previousSearchModel.detach();
+
+        final var search = sorted == null ? new FilteredPathListModel(pathsListModel) : new FilteredPathListModel(sorted);
+        search.setQuery(previousSearchModel.getQuery());
+        searchModel.set(search);
+        super.setModel(search);
+    }
+
+    /**
+     * <p>Sets the search query, and displays only the paths whose file names contain it.</p>
+     *
+     * <p>
+     *     The first time that a query is set, the list's model is replaced with a {@link FilteredPathListModel} of the
+     *     list's paths, which indexes their file names so that each change of the query is fast, even when there are
+     *     hundreds of thousands of paths. The view remains in place afterwards, and an empty query displays every path.
+     *     Methods such as {@link #getPaths()} continue to return every path, regardless of the query.
+     * </p>
+     *
+     * <p>This should be called on the Event Dispatch Thread.</p>
+     *
+     * @param query The new query, which is matched case-insensitively.
+     * @throws NullPointerException If {@code query} is {@code null}.
+     */
+    public void setSearchQuery(final String query) {
+        Objects.requireNonNull(query);
+
+        var model = searchModel.get();
+        if (model == null) {
+            if (query.isEmpty()) {
+                return;
+            }
+
+            final var sorted = sortModel.get();
+            model = sorted == null ? new FilteredPathListModel(pathsListModel) : new FilteredPathListModel(sorted);
+            searchModel.set(model);
+            super.setModel(model);
+        }
+
+        model.setQuery(query);
+    }
+
+    /**
+     * <p>Sets how to recurse directories, when using drag-and-drop.</p>
+     *
+     * <p>Any value outside of the following are considered "NONE":</p>
+     *
+     * <ul>
+     *     <li>{@link JFileChooser#FILES_ONLY}</li>
+     *     <li>{@link JFileChooser#DIRECTORIES_ONLY}</li>
+     *     <li>{@link JFileChooser#FILES_AND_DIRECTORIES}</li>
+     * </ul
+     *
+     * @param mode The new mode.
+     */
+    public void setRecursionMode(final int mode) {
         final int[] allowedModes = {
             JFileChooser.FILES_ONLY,
             JFileChooser.DIRECTORIES_ONLY,
             JFileChooser.FILES_AND_DIRECTORIES
         };
 
+        // A directory which was listed in a different mode may have entries which were never added to the list.
+        fingerprintCache.clear();
+
         for (final var allowedMode : allowedModes) {
             if (mode == allowedMode) {
                 this.recursionMode.set(mode);
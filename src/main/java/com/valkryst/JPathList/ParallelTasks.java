@@ -0,0 +1,90 @@
+package com.valkryst.JPathList;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Runs a number of indexed tasks in parallel, on an executor.</p>
+ *
+ * <p>
+ *     The tasks are claimed, one at a time, from a shared counter, by the calling thread and by helpers which are
+ *     submitted to the executor. The calling thread only waits for tasks which a helper has already claimed, so the
+ *     tasks complete even if the executor never runs the helpers, such as when it rejects them, or when every one of
+ *     its threads is busy, including the calling thread itself. As a result, any executor may be used, and tasks which
+ *     block on I/O can be run on virtual threads, rather than occupying the threads of the common pool.
+ * </p>
+ */
+final class ParallelTasks {
+    private ParallelTasks() {}
+
+    /**
+     * Runs a task for each index, from zero to the count, and waits for them all to complete.
+     *
+     * @param count The number of tasks.
+     * @param parallelism The maximum number of threads, including the calling thread, which run the tasks at once.
+     * @param executor The executor on which the helpers are run.
+     * @param task The task, which is given the index of each task in turn.
+     *
+     * @throws RuntimeException If a task throws an exception. The remaining tasks are skipped.
+     */
+    static void run(final int count, final int parallelism, final Executor executor, final IntConsumer task) {
+        if (count <= 0) {
+            return;
+        }
+
+        final var nextIndex = new AtomicInteger();
+        final var completed = new CountDownLatch(count);
+        final var failure = new AtomicReference<Throwable>();
+
+        final Runnable worker = () -> {
+            for (int index = nextIndex.getAndIncrement() ; index < count ; index = nextIndex.getAndIncrement()) {
+                try {
+                    if (failure.get() == null) {
+                        task.accept(index);
+                    }
+                } catch (final RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    completed.countDown();
+                }
+            }
+        };
+
+        for (int i = 1 ; i < Math.min(parallelism, count) ; i++) {
+            try {
+                executor.execute(worker);
+            } catch (final RejectedExecutionException e) {
+                // The tasks are run by the calling thread.
+                break;
+            }
+        }
+
+        worker.run();
+
+        // Every task has been claimed, so the remaining tasks are already running on helpers, and will complete.
+        boolean isInterrupted = false;
+        while (true) {
+            try {
+                completed.await();
+                break;
+            } catch (final InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        switch (failure.get()) {
+            case null -> {}
+            case RuntimeException e -> throw e;
+            case Error e -> throw e;
+            default -> throw new IllegalStateException(failure.get());
+        }
+    }
+}
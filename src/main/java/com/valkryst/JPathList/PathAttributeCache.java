@@ -0,0 +1,228 @@
+package com.valkryst.JPathList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>A bounded cache of the {@link BasicFileAttributes} of paths, which are read in the background.</p>
+ *
+ * <p>
+ *     Renderers call {@link #getAttributes(Path)}, which never performs I/O, so painting is never blocked by the file
+ *     system. If the attributes of a path are not cached, then the renderer displays what it can without them, and the
+ *     attributes are read by a later {@link #prefetch(Collection)}, after which the listener is notified, so that the
+ *     paths can be repainted with their attributes.
+ * </p>
+ *
+ * <p>
+ *     Once the cache holds its capacity, the least recently used attributes are evicted. Paths whose attributes can't
+ *     be read are cached as unreadable, so that they are not read again on every repaint. Cached attributes are not
+ *     updated if a path is later modified, unless the path is {@link #invalidate(Path) invalidated}.
+ * </p>
+ */
+public class PathAttributeCache {
+    private final Logger logger = Logger.getLogger(this.getClass().getName());
+
+    /** The maximum number of paths whose attributes are cached. */
+    private final int capacity;
+
+    /** The executor on which attributes are read. */
+    private final Executor executor;
+
+    /** Called, on the executor, after each prefetch has cached the attributes of at least one path. */
+    private final Runnable listener;
+
+    /** The cached entries, from least to most recently used. Guarded by itself. */
+    private final Map<Path, Entry> entries;
+
+    /** Paths whose attributes are being read. Guarded by {@link #entries}. */
+    private final Set<Path> pendingPaths = new HashSet<>();
+
+    /**
+     * Constructs a new {@code PathAttributeCache}.
+     *
+     * @param capacity The maximum number of paths whose attributes are cached.
+     * @param executor The executor on which attributes are read.
+     * @param listener Called, on the executor, after each prefetch has cached the attributes of at least one path.
+     *
+     * @throws IllegalArgumentException If {@code capacity} is less than one.
+     * @throws NullPointerException If {@code executor} or {@code listener} is {@code null}.
+     */
+    public PathAttributeCache(final int capacity, final Executor executor, final Runnable listener) {
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(listener);
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least one, but it was " + capacity + ".");
+        }
+
+        this.capacity = capacity;
+        this.executor = executor;
+        this.listener = listener;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, Entry> eldest) {
+                return size() > PathAttributeCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the cached attributes of a path, without performing any I/O.
+     *
+     * @param path The path.
+     * @return The attributes, or {@code null} if they are not cached, or could not be read.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    public BasicFileAttributes getAttributes(final Path path) {
+        Objects.requireNonNull(path);
+
+        synchronized (entries) {
+            final var entry = entries.get(path);
+            return entry == null ? null : entry.attributes();
+        }
+    }
+
+    /**
+     * Determines whether the attributes of a path are cached, or are known to be unreadable.
+     *
+     * @param path The path.
+     * @return Whether the path is cached.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    public boolean contains(final Path path) {
+        Objects.requireNonNull(path);
+
+        synchronized (entries) {
+            return entries.containsKey(path);
+        }
+    }
+
+    /**
+     * <p>Reads, in the background, the attributes of every path which is neither cached nor already being read.</p>
+     *
+     * <p>
+     *     The paths are read in the given order, so the most important paths, such as those which are visible, should
+     *     be first. The cached paths among them are marked as recently used, so that they are not evicted first.
+     * </p>
+     *
+     * @param paths The paths.
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    public void prefetch(final Collection<Path> paths) {
+        Objects.requireNonNull(paths);
+
+        final var missingPaths = new ArrayList<Path>();
+        synchronized (entries) {
+            for (final var path : paths) {
+                Objects.requireNonNull(path);
+
+                // Retrieving the entry marks it as recently used.
+                if (entries.get(path) == null && pendingPaths.add(path)) {
+                    missingPaths.add(path);
+                }
+            }
+        }
+
+        if (missingPaths.isEmpty()) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> this.load(missingPaths));
+        } catch (final RejectedExecutionException e) {
+            synchronized (entries) {
+                missingPaths.forEach(pendingPaths::remove);
+            }
+
+            logger.log(Level.WARNING, "Failed to prefetch the attributes of %d paths.".formatted(missingPaths.size()), e);
+        }
+    }
+
+    /**
+     * Discards the cached attributes of a path, so that they are read again by the next prefetch.
+     *
+     * @param path The path.
+     */
+    public void invalidate(final Path path) {
+        synchronized (entries) {
+            entries.remove(path);
+        }
+    }
+
+    /** Discards every cached attribute. */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Retrieves the number of paths whose attributes are cached.
+     *
+     * @return The number of cached paths.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Retrieves the maximum number of paths whose attributes are cached.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Reads and caches the attributes of paths, then notifies the listener.
+     *
+     * @param paths The paths.
+     */
+    private void load(final List<Path> paths) {
+        try {
+            for (final var path : paths) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (final IOException | SecurityException e) {
+                    attributes = null;
+                }
+
+                synchronized (entries) {
+                    pendingPaths.remove(path);
+                    entries.put(path, new Entry(attributes));
+                }
+            }
+        } finally {
+            synchronized (entries) {
+                paths.forEach(pendingPaths::remove);
+            }
+        }
+
+        listener.run();
+    }
+
+    /**
+     * The cached attributes of a path.
+     *
+     * @param attributes The attributes, or {@code null} if they could not be read.
+     */
+    private record Entry(BasicFileAttributes attributes) {}
+}
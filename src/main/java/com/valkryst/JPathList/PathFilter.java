@@ -0,0 +1,222 @@
+package com.valkryst.JPathList;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Determines whether a path, which has been found whilst walking, is to be added to a {@link JPathList}.</p>
+ *
+ * <p>
+ *     A filter is applied to each path as soon as its attributes have been read, before it is added to the list and
+ *     before it is recursed. If a filter rejects a directory, then the directory is pruned, and none of its entries are
+ *     listed.
+ * </p>
+ *
+ * <p>
+ *     The filters which match file names, or sizes, only apply to files, including links which are not followed, and
+ *     accept every directory, so that they can be used without pruning the directories which contain the matching
+ *     files. Filters are combined with {@link #and(PathFilter)} and {@link #or(PathFilter)}.
+ * </p>
+ *
+ * <p>Filters may be called by many threads at once, so they must be thread-safe.</p>
+ */
+@FunctionalInterface
+public interface PathFilter {
+    /**
+     * Determines whether a path is accepted.
+     *
+     * @param path The path.
+     * @param attributes The attributes of the path.
+     * @return Whether the path is accepted.
+     */
+    boolean accept(final Path path, final BasicFileAttributes attributes);
+
+    /**
+     * Creates a filter which accepts a path if both this filter and another filter accept it.
+     *
+     * @param other The other filter.
+     * @return The combined filter.
+     * @throws NullPointerException If {@code other} is {@code null}.
+     */
+    default PathFilter and(final PathFilter other) {
+        Objects.requireNonNull(other);
+        return (path, attributes) -> this.accept(path, attributes) && other.accept(path, attributes);
+    }
+
+    /**
+     * Creates a filter which accepts a path if either this filter or another filter accepts it.
+     *
+     * @param other The other filter.
+     * @return The combined filter.
+     * @throws NullPointerException If {@code other} is {@code null}.
+     */
+    default PathFilter or(final PathFilter other) {
+        Objects.requireNonNull(other);
+        return (path, attributes) -> this.accept(path, attributes) || other.accept(path, attributes);
+    }
+
+    /**
+     * Creates a filter which accepts every path.
+     *
+     * @return The filter.
+     */
+    static PathFilter acceptAll() {
+        return (path, attributes) -> true;
+    }
+
+    /**
+     * <p>Creates a filter which accepts files whose names match a glob pattern, and every directory.</p>
+     *
+     * <p>
+     *     The pattern is matched against the file name only, using the syntax of
+     *     {@link FileSystem#getPathMatcher(String)}. It is compiled once for each file system on which it is used.
+     * </p>
+     *
+     * @param pattern The pattern, such as {@code *.png} or {@code *.{png,jpg}}.
+     * @return The filter.
+     *
+     * @throws IllegalArgumentException If the pattern is invalid.
+     * @throws NullPointerException If {@code pattern} is {@code null}.
+     */
+    static PathFilter glob(final String pattern) {
+        Objects.requireNonNull(pattern);
+
+        // The pattern is compiled for the default file system immediately, so that an invalid pattern is reported
+        // when the filter is created, rather than when it is first used.
+        final Map<FileSystem, PathMatcher> matchers = new ConcurrentHashMap<>();
+        matchers.put(FileSystems.getDefault(), FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+
+        return (path, attributes) -> {
+            if (attributes.isDirectory()) {
+                return true;
+            }
+
+            final var name = path.getFileName();
+            if (name == null) {
+                return false;
+            }
+
+            final var matcher = matchers.computeIfAbsent(path.getFileSystem(), fileSystem -> {
+                return fileSystem.getPathMatcher("glob:" + pattern);
+            });
+            return matcher.matches(name);
+        };
+    }
+
+    /**
+     * Creates a filter which accepts files whose names match a regular expression, and every directory.
+     *
+     * @param regex The regular expression, which must match the entire file name.
+     * @return The filter.
+     *
+     * @throws java.util.regex.PatternSyntaxException If the regular expression is invalid.
+     * @throws NullPointerException If {@code regex} is {@code null}.
+     */
+    static PathFilter regex(final String regex) {
+        Objects.requireNonNull(regex);
+
+        final var pattern = Pattern.compile(regex);
+        return (path, attributes) -> {
+            if (attributes.isDirectory()) {
+                return true;
+            }
+
+            final var name = path.getFileName();
+            return name != null && pattern.matcher(name.toString()).matches();
+        };
+    }
+
+    /**
+     * Creates a filter which accepts files with any of a set of extensions, and every directory.
+     *
+     * @param extensions The extensions, such as {@code png} or {@code .png}. They are matched case-insensitively.
+     * @return The filter.
+     *
+     * @throws NullPointerException If {@code extensions}, or any of its elements, is {@code null}.
+     */
+    static PathFilter extensions(final String... extensions) {
+        Objects.requireNonNull(extensions);
+
+        final var normalizedExtensions = new HashSet<String>();
+        for (final var extension : extensions) {
+            Objects.requireNonNull(extension);
+
+            final var normalized = extension.startsWith(".") ? extension.substring(1) : extension;
+            normalizedExtensions.add(normalized.toLowerCase(Locale.ROOT));
+        }
+
+        return (path, attributes) -> {
+            if (attributes.isDirectory()) {
+                return true;
+            }
+
+            final var name = path.getFileName();
+            if (name == null) {
+                return false;
+            }
+
+            final var nameString = name.toString();
+            final var dotIndex = nameString.lastIndexOf('.');
+            if (dotIndex == -1) {
+                return false;
+            }
+
+            return normalizedExtensions.contains(nameString.substring(dotIndex + 1).toLowerCase(Locale.ROOT));
+        };
+    }
+
+    /**
+     * Creates a filter which accepts files whose sizes are within a range, and every directory.
+     *
+     * @param minimum The minimum size, in bytes, inclusive.
+     * @param maximum The maximum size, in bytes, inclusive.
+     * @return The filter.
+     *
+     * @throws IllegalArgumentException If {@code minimum} is negative, or greater than {@code maximum}.
+     */
+    static PathFilter size(final long minimum, final long maximum) {
+        if (minimum < 0 || minimum > maximum) {
+            throw new IllegalArgumentException("The size range [" + minimum + ", " + maximum + "] is invalid.");
+        }
+
+        return (path, attributes) -> {
+            if (attributes.isDirectory()) {
+                return true;
+            }
+
+            return attributes.size() >= minimum && attributes.size() <= maximum;
+        };
+    }
+
+    /**
+     * <p>Creates a filter which rejects hidden files and directories.</p>
+     *
+     * <p>
+     *     A path is hidden if its name begins with a {@code .}, or if its file system marks it as hidden. The latter is
+     *     determined from attributes which have already been read, so no further I/O is performed. Hidden directories
+     *     are pruned, so none of their entries are listed.
+     * </p>
+     *
+     * @return The filter.
+     */
+    static PathFilter excludeHidden() {
+        return (path, attributes) -> {
+            final var name = path.getFileName();
+            if (name != null && name.toString().startsWith(".")) {
+                return false;
+            }
+
+            return !(attributes instanceof DosFileAttributes dosAttributes && dosAttributes.isHidden());
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package com.valkryst.JPathList;
+
+import org.kordamp.ikonli.Ikon;
+import org.kordamp.ikonli.materialdesign2.MaterialDesignF;
+import org.kordamp.ikonli.materialdesign2.MaterialDesignZ;
+import org.kordamp.ikonli.swing.FontIcon;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>Renders each path with an icon for its file type, and a tooltip containing its size and modification time.</p>
+ *
+ * <p>
+ *     The attributes of each path are retrieved from a {@link PathAttributeCache}, so no I/O is performed whilst
+ *     painting. Until the attributes of a path have been cached, its icon is chosen from its extension alone, and it
+ *     has no tooltip. The icon of each file type is created once, and then reused for every path of that type.
+ * </p>
+ *
+ * <p>To use it, set it as the renderer of a list: {@code list.setCellRenderer(new PathListCellRenderer(list.getAttributeCache()))}.</p>
+ */
+public class PathListCellRenderer extends DefaultListCellRenderer {
+    /** The size of each icon, in pixels. */
+    private static final int ICON_SIZE = 16;
+
+    /** The format of the modification times displayed in tooltips. */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    /** The icon of each known extension, in lowercase. */
+    private static final Map<String, Ikon> EXTENSION_ICONS = new HashMap<>();
+
+    static {
+        for (final var extension : new String[] {"bmp", "gif", "ico", "jpeg", "jpg", "png", "svg", "tif", "tiff", "webp"}) {
+            EXTENSION_ICONS.put(extension, MaterialDesignF.FILE_IMAGE);
+        }
+
+        for (final var extension : new String[] {"aac", "flac", "m4a", "mp3", "ogg", "wav"}) {
+            EXTENSION_ICONS.put(extension, MaterialDesignF.FILE_MUSIC);
+        }
+
+        for (final var extension : new String[] {"avi", "mkv", "mov", "mp4", "webm", "wmv"}) {
+            EXTENSION_ICONS.put(extension, MaterialDesignF.FILE_VIDEO);
+        }
+
+        for (final var extension : new String[] {"7z", "bz2", "gz", "jar", "rar", "tar", "xz", "zip"}) {
+            EXTENSION_ICONS.put(extension, MaterialDesignZ.ZIP_BOX);
+        }
+
+        for (final var extension : new String[] {"c", "cpp", "cs", "css", "go", "h", "html", "java", "js", "json", "kt", "py", "rs", "sh", "ts", "xml"}) {
+            EXTENSION_ICONS.put(extension, MaterialDesignF.FILE_CODE);
+        }
+
+        for (final var extension : new String[] {"csv", "log", "md", "txt"}) {
+            EXTENSION_ICONS.put(extension, MaterialDesignF.FILE_DOCUMENT);
+        }
+
+        EXTENSION_ICONS.put("pdf", MaterialDesignF.FILE_PDF_BOX);
+    }
+
+    /** The cache from which the attributes of each path are retrieved. */
+    private final PathAttributeCache attributeCache;
+
+    /** The icon of each {@link Ikon}, which is created when it is first rendered. */
+    private final Map<Ikon, Icon> icons = new HashMap<>();
+
+    /**
+     * Constructs a new {@code PathListCellRenderer}.
+     *
+     * @param attributeCache The cache from which the attributes of each path are retrieved.
+     * @throws NullPointerException If {@code attributeCache} is {@code null}.
+     */
+    public PathListCellRenderer(final PathAttributeCache attributeCache) {
+        Objects.requireNonNull(attributeCache);
+        this.attributeCache = attributeCache;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+        super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+
+        if (!(value instanceof Path path)) {
+            return this;
+        }
+
+        final var attributes = attributeCache.getAttributes(path);
+        this.setIcon(this.getIcon(path, attributes));
+        this.setToolTipText(attributes == null ? null : formatToolTip(attributes));
+        return this;
+    }
+
+    /**
+     * Retrieves the icon of a path.
+     *
+     * @param path The path.
+     * @param attributes The attributes of the path, or {@code null} if they are not cached.
+     * @return The icon.
+     */
+    private Icon getIcon(final Path path, final BasicFileAttributes attributes) {
+        final Ikon ikon;
+        if (attributes != null && attributes.isDirectory()) {
+            ikon = MaterialDesignF.FOLDER;
+        } else {
+            ikon = EXTENSION_ICONS.getOrDefault(getExtension(path), MaterialDesignF.FILE);
+        }
+
+        return icons.computeIfAbsent(ikon, key -> FontIcon.of(key, ICON_SIZE, this.getForeground()));
+    }
+
+    /**
+     * Retrieves the extension of a path.
+     *
+     * @param path The path.
+     * @return The lowercase extension, or an empty string if the path has none.
+     */
+    private static String getExtension(final Path path) {
+        final var fileName = path.getFileName();
+        if (fileName == null) {
+            return "";
+        }
+
+        final var name = fileName.toString();
+        final var dotIndex = name.lastIndexOf('.');
+        return dotIndex == -1 ? "" : name.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Formats the tooltip of a path.
+     *
+     * @param attributes The attributes of the path.
+     * @return The tooltip.
+     */
+    private static String formatToolTip(final BasicFileAttributes attributes) {
+        final var modified = DATE_FORMAT.format(attributes.lastModifiedTime().toInstant());
+        if (attributes.isDirectory()) {
+            return "Modified " + modified;
+        }
+
+        return formatSize(attributes.size()) + ", modified " + modified;
+    }
+
+    /**
+     * Formats a size in bytes, using binary units.
+     *
+     * @param size The size, in bytes.
+     * @return The formatted size.
+     */
+    static String formatSize(final long size) {
+        if (size < 1024) {
+            return size + " B";
+        }
+
+        final var units = "KMGTPE";
+        int unitIndex = -1;
+        double value = size;
+        while (value >= 1024 && unitIndex < units.length() - 1) {
+            value /= 1024;
+            unitIndex++;
+        }
+
+        return String.format(Locale.ROOT, "%.1f %siB", value, units.charAt(unitIndex));
+    }
+}
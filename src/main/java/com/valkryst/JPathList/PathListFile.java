@@ -0,0 +1,255 @@
+package com.valkryst.JPathList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>Reads and writes lists of paths in a compact binary format.</p>
+ *
+ * <p>
+ *     The file begins with a magic number, a version, and the number of paths. Each path is then stored as the UTF-8
+ *     bytes of its string form, front-coded against the previous path. That is, as the number of leading bytes which
+ *     it shares with the previous path, followed by the number and the values of its remaining bytes. Both numbers are
+ *     stored as variable-length integers. As the paths of a list are usually grouped by directory, most of each path
+ *     is shared with the previous one, so only its file name is stored.
+ * </p>
+ *
+ * <p>
+ *     A path whose string form may not survive being encoded as UTF-8, and decoded again, is not written, as it would
+ *     be read as a path which doesn't exist. This includes paths containing unpaired surrogates, and paths containing
+ *     replacement characters, such as a Unix path whose bytes aren't valid in the platform's encoding.
+ * </p>
+ *
+ * <p>
+ *     When possible, the file is memory-mapped when it is read, so it is never copied onto the heap in its entirety.
+ * </p>
+ */
+final class PathListFile {
+    /** The magic number which identifies the format, {@code JPLS}. */
+    private static final int MAGIC = 0x4A504C53;
+
+    /** The version of the format. */
+    private static final int VERSION = 1;
+
+    private PathListFile() {}
+
+    /**
+     * <p>Writes paths to a file, replacing the file if it already exists.</p>
+     *
+     * <p>
+     *     The paths are written to a temporary file in the same directory, which is then moved over the file, so the
+     *     file is never left partially written. If the file system does not support atomic moves, then the temporary
+     *     file is moved without one.
+     * </p>
+     *
+     * @param file File to be written.
+     * @param paths Paths to be written.
+     * @return The number of paths which were not written, as their string forms can't be encoded.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws NullPointerException If {@code file}, {@code paths}, or any of its elements, is {@code null}.
+     */
+    static int write(final Path file, final List<Path> paths) throws IOException {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(paths);
+
+        // The paths are only copied if some of them can't be encoded, as the count is written before the paths.
+        List<Path> encodablePaths = paths;
+        for (final var path : paths) {
+            if (!isEncodable(path.toString())) {
+                encodablePaths = paths.stream().filter(candidate -> isEncodable(candidate.toString())).toList();
+                break;
+            }
+        }
+
+        final var directory = file.toAbsolutePath().getParent();
+        final var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (final var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(encodablePaths.size());
+
+                byte[] previous = new byte[0];
+                for (final var path : encodablePaths) {
+                    final var bytes = path.toString().getBytes(StandardCharsets.UTF_8);
+
+                    final var mismatch = Arrays.mismatch(previous, bytes);
+                    final var sharedLength = mismatch == -1 ? bytes.length : mismatch;
+                    writeVarInt(output, sharedLength);
+                    writeVarInt(output, bytes.length - sharedLength);
+                    output.write(bytes, sharedLength, bytes.length - sharedLength);
+
+                    previous = bytes;
+                }
+            }
+
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                // The file can still be replaced, but a reader may briefly see it missing, or partially replaced.
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+
+        return paths.size() - encodablePaths.size();
+    }
+
+    /**
+     * Determines whether a string is decoded to the same string, after it is encoded as UTF-8.
+     *
+     * @param string The string.
+     * @return Whether the string contains neither unpaired surrogates, nor replacement characters.
+     */
+    private static boolean isEncodable(final String string) {
+        for (int i = 0 ; i < string.length() ; i++) {
+            final var character = string.charAt(i);
+            if (character == '\uFFFD' || Character.isLowSurrogate(character)) {
+                return false;
+            }
+
+            if (Character.isHighSurrogate(character)) {
+                if (i + 1 == string.length() || !Character.isLowSurrogate(string.charAt(i + 1))) {
+                    return false;
+                }
+
+                // The pair is skipped, so that its low surrogate isn't treated as unpaired.
+                i++;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads paths from a file.
+     *
+     * @param file File to be read.
+     * @param fileSystem File system in which the paths are created.
+     * @return The paths, in the order that they were written.
+     *
+     * @throws IOException If an I/O error occurs, or if the file is not in the expected format.
+     * @throws NullPointerException If {@code file} or {@code fileSystem} is {@code null}.
+     */
+    static List<Path> read(final Path file, final FileSystem fileSystem) throws IOException {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(fileSystem);
+
+        final var buffer = map(file);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("The file '%s' is not a path list.".formatted(file));
+            }
+
+            final var version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("The file '%s' has an unsupported version: %d.".formatted(file, version));
+            }
+
+            final var count = buffer.getInt();
+            if (count < 0) {
+                throw new IOException("The file '%s' is corrupt.".formatted(file));
+            }
+
+            // The count is not trusted when sizing the list, as a corrupt count could exhaust the heap.
+            final var paths = new ArrayList<Path>(Math.min(count, buffer.remaining()));
+            byte[] previous = new byte[0];
+            for (int i = 0 ; i < count ; i++) {
+                final var sharedLength = readVarInt(buffer);
+                final var suffixLength = readVarInt(buffer);
+                if (sharedLength > previous.length || suffixLength > buffer.remaining()) {
+                    throw new IOException("The file '%s' is corrupt.".formatted(file));
+                }
+
+                final var bytes = Arrays.copyOf(previous, sharedLength + suffixLength);
+                buffer.get(bytes, sharedLength, suffixLength);
+                paths.add(fileSystem.getPath(new String(bytes, StandardCharsets.UTF_8)));
+
+                previous = bytes;
+            }
+
+            return paths;
+        } catch (final BufferUnderflowException e) {
+            final var exception = new EOFException("The file '%s' ended unexpectedly.".formatted(file));
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Maps a file into memory, or reads it onto the heap if its file system does not support mapping.
+     *
+     * @param file File to be mapped.
+     * @return A buffer containing the contents of the file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private static ByteBuffer map(final Path file) throws IOException {
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (final UnsupportedOperationException e) {
+            return ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+    }
+
+    /**
+     * Writes a non-negative integer, using seven bits per byte.
+     *
+     * @param output The stream to write to.
+     * @param value The integer.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeVarInt(final DataOutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads a non-negative integer, which was written by {@link #writeVarInt(DataOutputStream, int)}.
+     *
+     * @param buffer The buffer to read from.
+     * @return The integer.
+     *
+     * @throws IOException If the integer is malformed.
+     */
+    private static int readVarInt(final ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0 ; shift < 32 ; shift += 7) {
+            final var b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("A variable-length integer is negative.");
+                }
+
+                return value;
+            }
+        }
+
+        throw new IOException("A variable-length integer is too long.");
+    }
+}
@@ -0,0 +1,487 @@
+package com.valkryst.JPathList;
+
+import javax.swing.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * <p>A {@link ListModel} of <i>unique</i> {@link Path} objects.</p>
+ *
+ * <p>
+ *     Paths are stored in insertion order, alongside a hash index which maps each path to its position in the list.
+ *     This allows duplicate checks and lookups to run in constant time, rather than scanning the entire list as
+ *     {@link DefaultListModel#contains(Object)} does.
+ * </p>
+ *
+ * <p>
+ *     For very large lists, a {@link #setCompactStorageEnabled(boolean) compact storage mode} is available. It stores
+ *     each path as its interned parent directory and the bytes of its file name, and only creates {@link Path} objects
+ *     when they are retrieved.
+ * </p>
+ *
+ * <p>
+ *     All methods which modify the model are synchronized on the model itself, as are most which read it. The exceptions
+ *     are {@link #contains(Path)} and {@link #snapshot()}, which can usually be called without locking the model.
+ * </p>
+ */
+public class PathListModel extends AbstractListModel<Path> {
+    /**
+     * The maximum number of contiguous ranges of removed paths for which separate events are fired. If more ranges are
+     * removed at once, then the events are coalesced.
+     */
+    private static final int MAX_REMOVAL_EVENTS = 32;
+
+    /** The stored paths. */
+    private volatile PathStorage storage = new HashedPathStorage();
+
+    /**
+     * An immutable snapshot of the paths, or {@code null} if the model has been modified since it was taken.
+     *
+     * @see #snapshot()
+     */
+    private volatile List<Path> snapshot = List.of();
+
+    /** The number of times that the model has been modified. */
+    private volatile long modificationCount = 0;
+
+    @Override
+    public synchronized int getSize() {
+        return storage.size();
+    }
+
+    @Override
+    public synchronized Path getElementAt(final int index) {
+        return storage.get(index);
+    }
+
+    /**
+     * <p>Determines whether the model contains a path.</p>
+     *
+     * <p>
+     *     Unless the {@link #setCompactStorageEnabled(boolean) compact storage mode} is enabled, this does not lock the
+     *     model, so it can be called by many threads at once without contention. The result is accurate as of some
+     *     point during the call, but another thread may add or remove the path before the caller acts on it. Methods
+     *     such as {@link #add(Path)} and {@link #addAll(Collection)} perform their own check and insertion atomically,
+     *     so they never add a duplicate, even if they race with each other.
+     * </p>
+     *
+     * @param path Path to search for.
+     * @return Whether the model contains the path.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    public boolean contains(final Path path) {
+        Objects.requireNonNull(path);
+
+        final var currentStorage = storage;
+        if (currentStorage.supportsConcurrentLookups()) {
+            return currentStorage.indexOf(path) != -1;
+        }
+
+        synchronized (this) {
+            return storage.indexOf(path) != -1;
+        }
+    }
+
+    /**
+     * Retrieves the index of a path.
+     *
+     * @param path Path to search for.
+     * @return The index of the path, or {@code -1} if the model does not contain the path.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    public synchronized int indexOf(final Path path) {
+        Objects.requireNonNull(path);
+        return storage.indexOf(path);
+    }
+
+    /**
+     * Adds a path to the end of the model, if it is not already present.
+     *
+     * @param path Path to be added.
+     * @return Whether the path was added.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    public synchronized boolean add(final Path path) {
+        Objects.requireNonNull(path);
+
+        if (!storage.add(path)) {
+            return false;
+        }
+
+        final var index = storage.size() - 1;
+        this.fireIntervalAdded(this, index, index);
+        return true;
+    }
+
+    /**
+     * <p>Inserts multiple paths at an index, skipping any which are already present.</p>
+     *
+     * <p>A single {@link javax.swing.event.ListDataEvent} is fired for the entire batch.</p>
+     *
+     * @param index Index at which to insert the first path.
+     * @param paths Paths to be inserted.
+     * @return The number of paths which were inserted.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    public synchronized int insertAll(final int index, final Collection<? extends Path> paths) {
+        Objects.requireNonNull(paths);
+        for (final var path : paths) {
+            Objects.requireNonNull(path);
+        }
+
+        final var insertedCount = storage.insertAll(index, paths);
+        if (insertedCount > 0) {
+            this.fireIntervalAdded(this, index, index + insertedCount - 1);
+        }
+
+        return insertedCount;
+    }
+
+    /**
+     * <p>Removes a path from the model.</p>
+     *
+     * <p>
+     *     Unless the {@link #setCompactStorageEnabled(boolean) compact storage mode} is enabled, this runs in logarithmic
+     *     time, as the later paths are neither shifted nor re-indexed.
+     * </p>
+     *
+     * @param path Path to be removed.
+     * @return Whether the path was removed.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     */
+    public synchronized boolean remove(final Path path) {
+        Objects.requireNonNull(path);
+
+        final var index = storage.indexOf(path);
+        if (index == -1) {
+            return false;
+        }
+
+        storage.remove(index);
+        this.fireIntervalRemoved(this, index, index);
+        return true;
+    }
+
+    /**
+     * <p>Adds multiple paths to the end of the model, skipping any which are already present.</p>
+     *
+     * <p>A single {@link javax.swing.event.ListDataEvent} is fired for the entire batch.</p>
+     *
+     * @param paths Paths to be added.
+     * @return The number of paths which were added.
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    public synchronized int addAll(final Collection<? extends Path> paths) {
+        Objects.requireNonNull(paths);
+
+        final var firstIndex = storage.size();
+        try {
+            for (final var path : paths) {
+                Objects.requireNonNull(path);
+                storage.add(path);
+            }
+        } finally {
+            // Listeners must be notified of any paths added before a null element was encountered.
+            final var lastIndex = storage.size() - 1;
+            if (lastIndex >= firstIndex) {
+                this.fireIntervalAdded(this, firstIndex, lastIndex);
+            }
+        }
+
+        return storage.size() - firstIndex;
+    }
+
+    /**
+     * <p>Removes multiple paths from the model.</p>
+     *
+     * <p>
+     *     The backing storage is compacted in a single pass, and a single
+     *     {@link javax.swing.event.ListDataEvent} is fired for each contiguous range of removed paths. See
+     *     {@link #removeIf(Predicate)} for how the events are coalesced when there are many ranges.
+     * </p>
+     *
+     * @param paths Paths to be removed.
+     * @return The number of paths which were removed.
+     * @throws NullPointerException If {@code paths}, or any of its elements, is {@code null}.
+     */
+    public synchronized int removeAll(final Collection<? extends Path> paths) {
+        Objects.requireNonNull(paths);
+
+        final var removed = new boolean[storage.size()];
+        int removedCount = 0;
+        for (final var path : paths) {
+            Objects.requireNonNull(path);
+
+            final var index = storage.indexOf(path);
+            if (index != -1 && !removed[index]) {
+                removed[index] = true;
+                removedCount++;
+            }
+        }
+
+        if (removedCount > 0) {
+            this.compact(removed);
+        }
+
+        return removedCount;
+    }
+
+    /**
+     * <p>Removes every path which matches a predicate.</p>
+     *
+     * <p>
+     *     The predicate is tested once against each path, in order, and the backing storage is then compacted in a
+     *     single pass, so the cost is linear in the size of the model, regardless of how many paths are removed.
+     * </p>
+     *
+     * <p>
+     *     A {@link javax.swing.event.ListDataEvent} is fired for each contiguous range of removed paths. If there are
+     *     more than {@value #MAX_REMOVAL_EVENTS} ranges, then a single event which removes every path is fired
+     *     instead, followed by a single event which adds the remaining paths, so that listeners don't have to process
+     *     each range in turn.
+     * </p>
+     *
+     * @param predicate The predicate, which must not modify the model.
+     * @return The number of paths which were removed.
+     * @throws NullPointerException If {@code predicate} is {@code null}.
+     */
+    public synchronized int removeIf(final Predicate<? super Path> predicate) {
+        Objects.requireNonNull(predicate);
+
+        final var removed = new boolean[storage.size()];
+        int removedCount = 0;
+        for (int i = 0 ; i < removed.length ; i++) {
+            if (predicate.test(storage.get(i))) {
+                removed[i] = true;
+                removedCount++;
+            }
+        }
+
+        if (removedCount > 0) {
+            this.compact(removed);
+        }
+
+        return removedCount;
+    }
+
+    /**
+     * <p>Removes a path, and every path within it.</p>
+     *
+     * <p>
+     *     Paths are compared by their name elements, as with {@link Path#startsWith(Path)}, so removing {@code /a/b}
+     *     removes {@code /a/b/c}, but not {@code /a/bc}. See {@link #removeIf(Predicate)}.
+     * </p>
+     *
+     * @param root The root of the paths to be removed.
+     * @return The number of paths which were removed.
+     * @throws NullPointerException If {@code root} is {@code null}.
+     */
+    public int removeSubtree(final Path root) {
+        Objects.requireNonNull(root);
+        return this.removeIf(path -> path.startsWith(root));
+    }
+
+    /**
+     * Removes every path whose flag is set, then fires one event per contiguous range of removed paths, or a pair of
+     * coalesced events if there are too many ranges.
+     *
+     * @param removed Flags, indexed by position, indicating which paths to remove.
+     */
+    private void compact(final boolean[] removed) {
+        storage.removeAll(removed);
+
+        int rangeCount = 0;
+        for (int i = 0 ; i < removed.length ; i++) {
+            if (removed[i] && (i == 0 || !removed[i - 1])) {
+                rangeCount++;
+            }
+        }
+
+        if (rangeCount > MAX_REMOVAL_EVENTS) {
+            this.fireIntervalRemoved(this, 0, removed.length - 1);
+
+            if (storage.size() > 0) {
+                this.fireIntervalAdded(this, 0, storage.size() - 1);
+            }
+
+            return;
+        }
+
+        // Events are fired from the last range to the first, so that the indices of each event remain valid for
+        // listeners which adjust their own state (e.g. a selection model) as each event arrives.
+        int end = removed.length - 1;
+        while (end >= 0) {
+            if (!removed[end]) {
+                end--;
+                continue;
+            }
+
+            int start = end;
+            while (start > 0 && removed[start - 1]) {
+                start--;
+            }
+
+            this.fireIntervalRemoved(this, start, end);
+            end = start - 1;
+        }
+    }
+
+    /** Removes all paths from the model. */
+    public synchronized void clear() {
+        if (storage.size() == 0) {
+            return;
+        }
+
+        final var lastIndex = storage.size() - 1;
+        storage.clear();
+        this.fireIntervalRemoved(this, 0, lastIndex);
+    }
+
+    /**
+     * <p>Retrieves a copy of the paths in the model.</p>
+     *
+     * <p>The list itself is a copy, but the paths are not.</p>
+     *
+     * @return The paths.
+     */
+    public synchronized List<Path> toList() {
+        final var list = new ArrayList<Path>(storage.size());
+        for (int i = 0 ; i < storage.size() ; i++) {
+            list.add(storage.get(i));
+        }
+
+        return list;
+    }
+
+    /**
+     * <p>Retrieves an immutable snapshot of the paths in the model.</p>
+     *
+     * <p>
+     *     The snapshot is created on the first call after the model is modified, and is then shared by every
+     *     subsequent call until the model is modified again. While the model is unmodified, this method runs in
+     *     constant time, without locking the model, so frequent readers neither copy the paths nor block writers.
+     * </p>
+     *
+     * <p>
+     *     Unless the {@link #setCompactStorageEnabled(boolean) compact storage mode} is enabled, creating a snapshot also
+     *     runs in constant time, as it shares the model's storage rather than copying it. The storage is copied once, by
+     *     the next removal, only if paths are removed whilst a snapshot shares it.
+     * </p>
+     *
+     * @return The snapshot.
+     */
+    public List<Path> snapshot() {
+        final var current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = storage.snapshot();
+            }
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * <p>Retrieves the number of times that the model has been modified.</p>
+     *
+     * <p>
+     *     Readers can compare this with the value from a previous call to cheaply determine whether the model has
+     *     changed, without locking it.
+     * </p>
+     *
+     * @return The modification count.
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    @Override
+    protected void fireIntervalAdded(final Object source, final int index0, final int index1) {
+        this.invalidateSnapshot();
+        super.fireIntervalAdded(source, index0, index1);
+    }
+
+    @Override
+    protected void fireIntervalRemoved(final Object source, final int index0, final int index1) {
+        this.invalidateSnapshot();
+        super.fireIntervalRemoved(source, index0, index1);
+    }
+
+    @Override
+    protected void fireContentsChanged(final Object source, final int index0, final int index1) {
+        this.invalidateSnapshot();
+        super.fireContentsChanged(source, index0, index1);
+    }
+
+    /**
+     * Discards the current snapshot, and increments the modification count. This is called before listeners are
+     * notified of any modification, so that they never observe a stale snapshot.
+     */
+    private void invalidateSnapshot() {
+        snapshot = null;
+        modificationCount++;
+    }
+
+    /**
+     * Retrieves whether the compact storage mode is enabled.
+     *
+     * @return Whether the compact storage mode is enabled.
+     */
+    public synchronized boolean isCompactStorageEnabled() {
+        return storage instanceof CompactPathStorage;
+    }
+
+    /**
+     * <p>Sets whether the compact storage mode is enabled.</p>
+     *
+     * <p>
+     *     In this mode, each path is stored as its interned parent directory and the UTF-8 bytes of its file name, and
+     *     {@link Path} objects are only created when they are retrieved. This greatly reduces the memory used by lists
+     *     containing many files from the same directories, at the cost of creating a new {@link Path} object on each
+     *     call to {@link #getElementAt(int)}.
+     * </p>
+     *
+     * <p>The existing paths are moved into the new storage, in the same order, so no events are fired.</p>
+     *
+     * @param isEnabled Whether the mode is enabled.
+     */
+    public synchronized void setCompactStorageEnabled(final boolean isEnabled) {
+        if (isEnabled == this.isCompactStorageEnabled()) {
+            return;
+        }
+
+        final PathStorage newStorage = isEnabled ? new CompactPathStorage() : new HashedPathStorage();
+        for (int i = 0 ; i < storage.size() ; i++) {
+            newStorage.add(storage.get(i));
+        }
+
+        storage = newStorage;
+    }
+
+    /**
+     * <p>Estimates the number of bytes of heap used per path by the model's storage.</p>
+     *
+     * <p>
+     *     The estimate includes the paths themselves, and assumes a 64-bit JVM with compressed object pointers. It is
+     *     intended for comparing the storage modes, rather than as an exact measurement.
+     * </p>
+     *
+     * @return The estimated number of bytes per path, or {@code 0} if the model is empty.
+     */
+    public synchronized double estimateBytesPerPath() {
+        if (storage.size() == 0) {
+            return 0;
+        }
+
+        return (double) storage.estimateSizeInBytes() / storage.size();
+    }
+}
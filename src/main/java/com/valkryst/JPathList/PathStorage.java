@@ -0,0 +1,195 @@
+package com.valkryst.JPathList;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Stores the <i>unique</i> paths of a {@link PathListModel}, in insertion order.</p>
+ *
+ * <p>Implementations are not thread-safe. The model is responsible for synchronizing access to its storage.</p>
+ */
+interface PathStorage {
+    /**
+     * Retrieves the number of stored paths.
+     *
+     * @return The number of stored paths.
+     */
+    int size();
+
+    /**
+     * Retrieves the path at an index.
+     *
+     * @param index Index of the path.
+     * @return The path.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    Path get(final int index);
+
+    /**
+     * Retrieves the index of a path.
+     *
+     * @param path Path to search for.
+     * @return The index of the path, or {@code -1} if it is not stored.
+     */
+    int indexOf(final Path path);
+
+    /**
+     * <p>Determines whether {@link #indexOf(Path)} may be called concurrently with modifications.</p>
+     *
+     * <p>
+     *     If it may, then the index returned by a concurrent call is only a hint, as the storage may be modified before
+     *     the caller uses it. However, whether or not the index is {@code -1} is accurate as of some point during the
+     *     call.
+     * </p>
+     *
+     * @return Whether concurrent lookups are supported.
+     */
+    default boolean supportsConcurrentLookups() {
+        return false;
+    }
+
+    /**
+     * Appends a path, if it is not already stored.
+     *
+     * @param path Path to be added.
+     * @return Whether the path was added.
+     */
+    boolean add(final Path path);
+
+    /**
+     * <p>Inserts paths at an index, skipping any which are already stored.</p>
+     *
+     * <p>
+     *     The default implementation removes the paths after the index, appends the new paths, and then re-appends the
+     *     removed paths, so it runs in time proportional to the size of the storage.
+     * </p>
+     *
+     * @param index Index at which to insert the first path.
+     * @param paths Paths to be inserted.
+     * @return The number of paths which were inserted.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    default int insertAll(final int index, final Collection<? extends Path> paths) {
+        final var size = this.size();
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + size + ".");
+        }
+
+        // Paths which are already stored must be skipped before the tail is removed, as they may be in the tail.
+        final var newPaths = new ArrayList<Path>(paths.size());
+        for (final var path : paths) {
+            if (this.indexOf(path) == -1) {
+                newPaths.add(path);
+            }
+        }
+
+        final var tail = new ArrayList<Path>(size - index);
+        final var removed = new boolean[size];
+        for (int i = index ; i < size ; i++) {
+            tail.add(this.get(i));
+            removed[i] = true;
+        }
+        this.removeAll(removed);
+
+        int insertedCount = 0;
+        for (final var path : newPaths) {
+            if (this.add(path)) {
+                insertedCount++;
+            }
+        }
+
+        for (final var path : tail) {
+            this.add(path);
+        }
+
+        return insertedCount;
+    }
+
+    /**
+     * <p>Removes the path at an index.</p>
+     *
+     * <p>
+     *     The default implementation calls {@link #removeAll(boolean[])}, so it runs in time proportional to the size of
+     *     the storage.
+     * </p>
+     *
+     * @param index Index of the path.
+     * @throws IndexOutOfBoundsException If the index is out of bounds.
+     */
+    default void remove(final int index) {
+        final var size = this.size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + size + ".");
+        }
+
+        final var removed = new boolean[size];
+        removed[index] = true;
+        this.removeAll(removed);
+    }
+
+    /**
+     * Removes every path whose flag is set, in a single pass.
+     *
+     * @param removed Flags, indexed by position, indicating which paths to remove. Its length must equal the
+     *                {@link #size()} of the storage.
+     */
+    void removeAll(final boolean[] removed);
+
+    /** Removes all paths. */
+    void clear();
+
+    /**
+     * <p>Retrieves an immutable snapshot of the stored paths, which is unaffected by later modifications.</p>
+     *
+     * <p>The default implementation copies the paths, so it runs in time proportional to the size of the storage.</p>
+     *
+     * @return The snapshot.
+     */
+    default List<Path> snapshot() {
+        final var paths = new Path[this.size()];
+        for (int i = 0 ; i < paths.length ; i++) {
+            paths[i] = this.get(i);
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    /**
+     * <p>Estimates the number of bytes of heap used by the storage, including the paths themselves.</p>
+     *
+     * <p>
+     *     The estimate assumes a 64-bit JVM with compressed object pointers, and {@code Path} implementations which
+     *     store their path as a byte array, and cache their string form, as the JDK's implementations do.
+     * </p>
+     *
+     * @return The estimated size, in bytes.
+     */
+    long estimateSizeInBytes();
+
+    /**
+     * Estimates the number of bytes of heap used by a {@code Path} object, including its cached string form.
+     *
+     * @param path The path.
+     * @return The estimated size, in bytes.
+     */
+    static long estimatePathSizeInBytes(final Path path) {
+        final var length = path.toString().length();
+
+        // The path object itself, its byte array, its array of name offsets, and its cached string.
+        return 32 + align(16 + length) + align(16 + 4L * path.getNameCount()) + 24 + align(16 + length);
+    }
+
+    /**
+     * Rounds a number of bytes up to the next multiple of eight, as the JVM does with objects.
+     *
+     * @param bytes The number of bytes.
+     * @return The aligned number of bytes.
+     */
+    static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,1503 @@
+package com.valkryst.JPathList;
+
+import javax.swing.*;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SecureDirectoryStream;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Walks paths, and recurses directories, to find the paths which are to be added to a {@link PathListModel}.</p>
+ *
+ * <p>
+ *     Found paths are not added to the model directly. They are buffered into chunks, and each chunk is passed to a
+ *     sink once it is full, or when {@link #flush()} is called. This allows the caller to decide how, and on which
+ *     thread, the paths are published to the model.
+ * </p>
+ *
+ * <p>
+ *     A walker should only be used for a single operation, and its {@link #walk(Path)} method should only be called
+ *     by one thread at a time. It may use additional threads internally, if its parallelism is greater than one.
+ * </p>
+ */
+class PathWalker {
+    /**
+     * The default executor on which directories are walked, when the parallelism is greater than one. Each task runs
+     * on its own virtual thread, so a task which is blocked on I/O does not occupy a platform thread.
+     */
+    static final Executor DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** The number of a directory's entries whose attributes are read by each task, when walking in parallel. */
+    private static final int ATTRIBUTE_BATCH_SIZE = 64;
+
+    /**
+     * The number of subdirectory tasks which may be submitted to the executor at once, for each permit, when walking in
+     * parallel. Any further subdirectories are walked by the task which found them.
+     */
+    private static final int FORKED_TASKS_PER_PERMIT = 4;
+
+    /** The options used to read attributes when links are followed. */
+    private static final LinkOption[] NO_LINK_OPTIONS = {};
+
+    private final Logger logger = Logger.getLogger(this.getClass().getName());
+
+    /** The model to which the found paths will be added. Used to skip paths which are already present. */
+    private final PathListModel model;
+
+    /** How to recurse directories. */
+    private final int recursionMode;
+
+    /** The maximum number of paths in a chunk. */
+    private final int chunkSize;
+
+    /** Receives each chunk of found paths. */
+    private final Consumer<List<Path>> sink;
+
+    /** Whether the walk has been cancelled. */
+    private final BooleanSupplier isCancelled;
+
+    /** Every path which has been found, but not yet passed to the sink. */
+    private final Set<Path> foundPaths = ConcurrentHashMap.newKeySet();
+
+    /** The maximum number of tasks which perform I/O at once, when walking directories. */
+    private int parallelism = 1;
+
+    /**
+     * Limits the number of tasks which perform I/O at once, when the parallelism is greater than one. This may be
+     * shared with other walkers.
+     */
+    private Semaphore permits = new Semaphore(1);
+
+    /** The number of subdirectory tasks which have been submitted to the executor, but have not yet completed. */
+    private final AtomicInteger forkedTasks = new AtomicInteger();
+
+    /** The executor on which directories are walked, when the parallelism is greater than one. */
+    private Executor executor = DEFAULT_EXECUTOR;
+
+    /** Whether the order of the found paths is deterministic, when directories are walked in parallel. */
+    private boolean isDeterministic = true;
+
+    /** The maximum depth of the directories which are listed, where the walked paths are at a depth of zero. */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /** Whether links are followed, rather than being added as though they were regular files. */
+    private boolean followLinks = true;
+
+    /**
+     * Receives directories whose walk is deferred, and their depths, or {@code null} if directories are recursed
+     * immediately.
+     */
+    private ObjIntConsumer<Path> deferredDirectoryHandler;
+
+    /** Determines which of the found paths are to be added, and which directories are to be recursed. */
+    private PathFilter filter = PathFilter.acceptAll();
+
+    /** Caches the fingerprints of listed directories, or {@code null} if directories are always listed. */
+    private DirectoryFingerprintCache fingerprintCache;
+
+    /**
+     * The directories whose fingerprints have been recorded by this walker, or {@code null} once they have been
+     * {@link #discardFingerprints() discarded}. Guarded by {@link #fingerprintLock}.
+     */
+    private List<Path> fingerprintedDirectories = new ArrayList<>();
+
+    /** Guards {@link #fingerprintedDirectories}, so that no fingerprint is recorded once they have been discarded. */
+    private final Object fingerprintLock = new Object();
+
+    /** Receives each directory whose children are listed, or {@code null} if they are not needed. */
+    private Consumer<Path> listedDirectoryHandler;
+
+    /** Records the counters and timings of the walk. */
+    private IngestionRecorder recorder = new IngestionRecorder();
+
+    /** The paths which have been found, but not yet passed to the sink. */
+    private List<Path> chunk = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code PathWalker}.
+     *
+     * @param model The model to which the found paths will be added.
+     * @param recursionMode How to recurse directories.
+     * @param chunkSize The maximum number of paths in a chunk.
+     * @param sink Receives each chunk of found paths.
+     * @param isCancelled Whether the walk has been cancelled.
+     *
+     * @throws IllegalArgumentException If {@code chunkSize} is less than one.
+     * @throws NullPointerException If {@code model}, {@code sink}, or {@code isCancelled} is {@code null}.
+     */
+    PathWalker(final PathListModel model, final int recursionMode, final int chunkSize, final Consumer<List<Path>> sink, final BooleanSupplier isCancelled) {
+        Objects.requireNonNull(model);
+        Objects.requireNonNull(sink);
+        Objects.requireNonNull(isCancelled);
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be at least one, but it was " + chunkSize + ".");
+        }
+
+        this.model = model;
+        this.recursionMode = recursionMode;
+        this.chunkSize = chunkSize;
+        this.sink = sink;
+        this.isCancelled = isCancelled;
+    }
+
+    /**
+     * Walks a path, and recurses it if it is a directory.
+     *
+     * @param path Path to be walked.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If the path does not exist.
+     * @throws IllegalStateException If the path is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     * @throws NullPointerException If {@code path} is null.
+     */
+    void walk(final Path path) throws IOException {
+        Objects.requireNonNull(path);
+
+        final var start = System.nanoTime();
+        recorder.recordDiscovered();
+        try {
+            this.walk(new Pending(path, null, 0, null));
+        } finally {
+            recorder.recordWalk(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * <p>Walks a path, and every path within it.</p>
+     *
+     * <p>
+     *     The directories which remain to be walked are kept on an explicit stack, rather than on the call stack, so
+     *     that the depth of the tree is only limited by the available memory.
+     * </p>
+     *
+     * @param pending Path to be walked.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If the path does not exist.
+     * @throws IllegalStateException If the path is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     */
+    private void walk(final Pending pending) throws IOException {
+        final var stack = new ArrayDeque<Pending>();
+        stack.push(pending);
+
+        while (!stack.isEmpty()) {
+            this.visit(stack.pop(), stack);
+        }
+    }
+
+    /**
+     * <p>Walks a single path.</p>
+     *
+     * <p>
+     *     If the path is a directory which must be recursed, then its entries are found, and its subdirectories are
+     *     pushed onto the stack, so that each is walked after the directory's other entries.
+     * </p>
+     *
+     * @param pending Path to be walked.
+     * @param stack The directories which remain to be walked.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If the path does not exist.
+     * @throws IllegalStateException If the path is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     */
+    private void visit(final Pending pending, final Deque<Pending> stack) throws IOException {
+        final var path = pending.path();
+        if (this.isDuplicate(path)) {
+            return;
+        }
+
+        final var attributes = pending.attributes() == null ? this.readAttributes(path) : pending.attributes();
+        switch (this.classify(path, attributes)) {
+            case SKIP -> {
+                return;
+            }
+            case ADD -> {
+                this.found(path);
+                return;
+            }
+        }
+
+        if (pending.depth() >= maxDepth) {
+            this.foundDirectory(path);
+            return;
+        }
+
+        if (deferredDirectoryHandler != null) {
+            this.found(path);
+            deferredDirectoryHandler.accept(path, pending.depth());
+            return;
+        }
+
+        final var ancestor = this.enter(path, attributes, pending.ancestor());
+        if (followLinks && ancestor == null) {
+            return;
+        }
+
+        if (fingerprintCache != null) {
+            final var subdirectories = fingerprintCache.getUnchangedSubdirectories(path, attributes);
+            if (subdirectories != null) {
+                // The directory's entries were all found when it was last listed, so only its subdirectories need to
+                // be walked, as their own entries may have changed.
+                this.foundDirectory(path);
+
+                for (int i = subdirectories.size() - 1 ; i >= 0 ; i--) {
+                    stack.push(new Pending(subdirectories.get(i), null, pending.depth() + 1, ancestor));
+                }
+
+                return;
+            }
+        }
+
+        if (parallelism > 1) {
+            this.walkInParallel(path, attributes, pending.depth(), ancestor);
+            return;
+        }
+
+        this.foundDirectory(path);
+        this.list(path, attributes, pending.depth(), ancestor, stack);
+    }
+
+    /**
+     * <p>Lists a directory, finds its entries, and pushes its subdirectories onto the stack.</p>
+     *
+     * <p>
+     *     The entries which aren't directories are walked as they are listed, rather than being collected first, so
+     *     that the memory used by the walk does not depend on the size of the directory. The subdirectories are only
+     *     walked once the directory has been closed, so at most one directory is open at a time.
+     * </p>
+     *
+     * @param directory Directory to be listed.
+     * @param attributes The attributes of the directory, or {@code null} if it is not to be fingerprinted.
+     * @param depth The depth of the directory.
+     * @param ancestor The directory, and its ancestors, or {@code null} if links are not followed.
+     * @param stack The directories which remain to be walked.
+     *
+     * @throws IOException If an I/O error occurs when listing the directory.
+     */
+    private void list(final Path directory, final BasicFileAttributes attributes, final int depth, final Ancestor ancestor, final Deque<Pending> stack) throws IOException {
+        final var subdirectories = new ArrayList<Pending>();
+
+        this.listing(directory);
+        try (final var directoryStream = Files.newDirectoryStream(directory)) {
+            for (final var child : directoryStream) {
+                this.throwIfCancelled(child);
+
+                final var childAttributes = this.readPermittedAttributes(directoryStream, child);
+                if (childAttributes == null) {
+                    continue;
+                }
+
+                final var pending = new Pending(child, childAttributes, depth + 1, ancestor);
+                if (childAttributes.isDirectory()) {
+                    subdirectories.add(pending);
+                } else {
+                    this.visit(pending, stack);
+                }
+            }
+        } catch (final DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+
+        if (fingerprintCache != null && attributes != null) {
+            this.putFingerprint(directory, attributes, subdirectories.stream().map(Pending::path).toList());
+        }
+
+        for (int i = subdirectories.size() - 1 ; i >= 0 ; i--) {
+            stack.push(subdirectories.get(i));
+        }
+    }
+
+    /**
+     * <p>Determines whether a directory is one of its own ancestors, if links are followed.</p>
+     *
+     * <p>
+     *     Each directory is identified by its {@link BasicFileAttributes#fileKey() file key}, so a link to one of its
+     *     ancestors is detected regardless of the path by which it was reached. If the file system does not provide
+     *     file keys, then the directory's real path is used instead.
+     * </p>
+     *
+     * @param directory The directory.
+     * @param attributes The attributes of the directory.
+     * @param parent The ancestors of the directory, or {@code null} if it has none.
+     * @return The directory and its ancestors, or {@code null} if the directory is one of its own ancestors, or if
+     *         links are not followed.
+     */
+    private Ancestor enter(final Path directory, final BasicFileAttributes attributes, final Ancestor parent) {
+        if (!followLinks) {
+            return null;
+        }
+
+        Object key = attributes.fileKey();
+        if (key == null) {
+            try {
+                key = directory.toRealPath();
+            } catch (final IOException e) {
+                key = directory.toAbsolutePath().normalize();
+            }
+        }
+
+        for (var ancestor = parent ; ancestor != null ; ancestor = ancestor.parent()) {
+            if (ancestor.key().equals(key)) {
+                logger.log(Level.WARNING, "Skipping the directory '%s', as it is a link to one of its own ancestors.".formatted(directory));
+                recorder.recordRejected();
+                return null;
+            }
+        }
+
+        return new Ancestor(key, parent);
+    }
+
+    /**
+     * Records a directory as found, if the recursion mode permits directories to be added to the list.
+     *
+     * @param directory The directory.
+     */
+    private void foundDirectory(final Path directory) {
+        if (recursionMode == JFileChooser.DIRECTORIES_ONLY || recursionMode == JFileChooser.FILES_AND_DIRECTORIES) {
+            this.found(directory);
+        }
+    }
+
+    /**
+     * <p>Re-scans a directory which was previously walked, and finds any paths which have been created since.</p>
+     *
+     * <p>
+     *     Unlike {@link #walk(Path)}, the directory, and any of its subdirectories which are already in the model, are
+     *     re-scanned rather than being skipped as duplicates. Directories whose fingerprints are unchanged are not
+     *     listed again. Only their subdirectories are re-scanned. Every directory which is listed is recorded, along
+     *     with the names of all of its entries, so that the caller can determine which paths have been deleted.
+     * </p>
+     *
+     * <p>
+     *     New subdirectories are walked as though the re-scanned directory were at a depth of zero, as the depth at
+     *     which it was originally walked is not known.
+     * </p>
+     *
+     * @param directory Directory to be re-scanned.
+     * @param listings Receives each directory which was listed, and its entries.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If the directory does not exist.
+     * @throws IllegalStateException If no fingerprint cache has been set.
+     * @throws IOException If an I/O error occurs.
+     * @throws NullPointerException If {@code directory} or {@code listings} is {@code null}.
+     */
+    void rescan(final Path directory, final Map<Path, Set<Path>> listings) throws IOException {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(listings);
+
+        if (fingerprintCache == null) {
+            throw new IllegalStateException("A fingerprint cache is required to re-scan a directory.");
+        }
+
+        final var start = System.nanoTime();
+        try {
+            final var stack = new ArrayDeque<Entry>();
+            stack.push(new Entry(directory, this.readAttributes(directory)));
+
+            while (!stack.isEmpty()) {
+                final var entry = stack.pop();
+                this.rescan(entry.path(), entry.attributes(), listings, stack);
+            }
+        } finally {
+            recorder.recordWalk(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Re-scans a single directory which was previously walked, and pushes its existing subdirectories onto the stack.
+     * See {@link #rescan(Path, Map)}.
+     *
+     * @param directory Directory to be re-scanned.
+     * @param attributes The attributes of the directory.
+     * @param listings Receives each directory which was listed, and its entries.
+     * @param stack The directories which remain to be re-scanned.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void rescan(final Path directory, final BasicFileAttributes attributes, final Map<Path, Set<Path>> listings, final Deque<Entry> stack) throws IOException {
+        this.throwIfCancelled(directory);
+
+        final var unchangedSubdirectories = fingerprintCache.getUnchangedSubdirectories(directory, attributes);
+        if (unchangedSubdirectories != null) {
+            for (int i = unchangedSubdirectories.size() - 1 ; i >= 0 ; i--) {
+                final var subdirectory = unchangedSubdirectories.get(i);
+                stack.push(new Entry(subdirectory, this.readAttributes(subdirectory)));
+            }
+
+            return;
+        }
+
+        final var entries = new HashSet<Path>();
+        final var subdirectories = new ArrayList<Path>();
+        final var existingSubdirectories = new ArrayList<Entry>();
+        final var newSubdirectories = new ArrayList<Entry>();
+
+        this.listing(directory);
+        try (final var directoryStream = Files.newDirectoryStream(directory)) {
+            for (final var child : directoryStream) {
+                this.throwIfCancelled(child);
+                entries.add(child);
+
+                final var childAttributes = this.readPermittedAttributes(directoryStream, child);
+                if (childAttributes == null) {
+                    continue;
+                }
+
+                if (!childAttributes.isDirectory()) {
+                    this.walk(new Pending(child, childAttributes, 1, null));
+                    continue;
+                }
+
+                subdirectories.add(child);
+
+                // Subdirectories which were walked before are re-scanned, and new ones are walked.
+                if (fingerprintCache.contains(child) || model.contains(child)) {
+                    existingSubdirectories.add(new Entry(child, childAttributes));
+                } else {
+                    newSubdirectories.add(new Entry(child, childAttributes));
+                }
+            }
+        } catch (final DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+
+        this.putFingerprint(directory, attributes, subdirectories);
+        listings.put(directory, entries);
+
+        for (final var subdirectory : newSubdirectories) {
+            this.walk(new Pending(subdirectory.path(), subdirectory.attributes(), 1, null));
+        }
+
+        for (int i = existingSubdirectories.size() - 1 ; i >= 0 ; i--) {
+            stack.push(existingSubdirectories.get(i));
+        }
+    }
+
+    /**
+     * <p>Walks the children of a directory, without walking the directory itself.</p>
+     *
+     * <p>This is used to re-list a directory whose entries may have changed. The directory is walked as a root.</p>
+     *
+     * @param directory Directory whose children are to be walked.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If a child does not exist.
+     * @throws IllegalStateException If a child is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     * @throws NullPointerException If {@code directory} is null.
+     */
+    void walkChildren(final Path directory) throws IOException {
+        this.walkChildren(directory, 0);
+    }
+
+    /**
+     * <p>Walks the children of a directory, without walking the directory itself.</p>
+     *
+     * <p>
+     *     This is used to expand a directory whose walk was previously deferred, at the depth which was passed to the
+     *     {@link #setDeferredDirectoryHandler(ObjIntConsumer) deferred directory handler}. As the directory's ancestors
+     *     are no longer known, links to them are only detected once they have been walked again.
+     * </p>
+     *
+     * @param directory Directory whose children are to be walked.
+     * @param depth The depth of the directory.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If a child does not exist.
+     * @throws IllegalStateException If a child is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     * @throws NullPointerException If {@code directory} is null.
+     */
+    void walkChildren(final Path directory, final int depth) throws IOException {
+        Objects.requireNonNull(directory);
+
+        final var start = System.nanoTime();
+        try {
+            final var stack = new ArrayDeque<Pending>();
+            this.list(directory, null, depth, null, stack);
+
+            while (!stack.isEmpty()) {
+                this.visit(stack.pop(), stack);
+            }
+        } finally {
+            recorder.recordWalk(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * <p>Walks a path as though it had been found by listing its parent directory.</p>
+     *
+     * <p>
+     *     Unlike {@link #walk(Path)}, the path is skipped if it is not permitted by the recursion mode, in the same way
+     *     as the children of a recursed directory are. This is used to walk paths which are created within a directory
+     *     after it was recursed.
+     * </p>
+     *
+     * @param child Path to be walked.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     * @throws FileNotFoundException If the path does not exist, and the recursion mode permits both files and
+     *                               directories.
+     * @throws IllegalStateException If the path is neither a directory nor a regular file.
+     * @throws IOException If an I/O error occurs when recursing directories.
+     * @throws NullPointerException If {@code child} is null.
+     */
+    void walkChild(final Path child) throws IOException {
+        Objects.requireNonNull(child);
+
+        final var start = System.nanoTime();
+        try {
+            final var attributes = this.readPermittedAttributes(null, child);
+            if (attributes != null) {
+                this.walk(new Pending(child, attributes, 1, null));
+            }
+        } finally {
+            recorder.recordWalk(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * <p>Walks a directory on the executor, in which each subdirectory is listed by its own task.</p>
+     *
+     * <p>
+     *     Tasks only hold one of the {@link #permits} whilst they perform I/O, and release it before they wait for their
+     *     subtasks, so the number of outstanding I/O requests is bounded. A task which has not yet started when it is
+     *     joined is run by the joining thread, so the walk can't deadlock, even on an executor with fewer threads than
+     *     there are tasks.
+     * </p>
+     *
+     * <p>
+     *     At most {@link #FORKED_TASKS_PER_PERMIT} subdirectory tasks per permit are submitted to the executor at once.
+     *     Any further subdirectories are left for the task which found them to walk itself, once it has released its
+     *     permit, so a wide tree does not create a waiting task for each of its directories.
+     * </p>
+     *
+     * <p>
+     *     When the ordering is deterministic, the task whose paths are next in order records them as soon as they are
+     *     found, as does any subtask which it runs itself. Only the subtasks which the executor starts early hold their
+     *     paths until they are joined, so the paths of the whole tree are not held until the walk finishes.
+     * </p>
+     *
+     * @param directory Directory to be walked.
+     * @param attributes The attributes of the directory.
+     * @param depth The depth of the directory.
+     * @param ancestor The directory, and its ancestors, or {@code null} if links are not followed.
+     *
+     * @throws IOException If an I/O error occurs when recursing directories.
+     */
+    private void walkInParallel(final Path directory, final BasicFileAttributes attributes, final int depth, final Ancestor ancestor) throws IOException {
+        final var task = new DirectoryTask(directory, attributes, depth, ancestor);
+        task.isNext = true;
+
+        // As this task is next in order, it records its paths as they are found, so it has no results of its own.
+        task.subtask.join(false);
+    }
+
+    /**
+     * <p>Determines whether a path has already been found, or is already in the model.</p>
+     *
+     * <p>This is checked before the attributes of the path are read, so that duplicates never cost a {@code stat}.</p>
+     *
+     * @param path Path to be checked.
+     * @return Whether the path is a duplicate.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     */
+    private boolean isDuplicate(final Path path) {
+        this.throwIfCancelled(path);
+
+        if (foundPaths.contains(path) || model.contains(path)) {
+            recorder.recordDuplicate();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * <p>Determines what must be done with a path.</p>
+     *
+     * <p>
+     *     The type of the path is determined from its {@link BasicFileAttributes}, so that at most one {@code stat} is
+     *     performed per path. If the attributes were already read when listing the path's parent directory, then they
+     *     are reused. The {@link PathFilter} is applied to the same attributes. Readability is not checked separately,
+     *     so a file which can't be read is added, and fails when it is opened, whilst a directory which can't be read
+     *     fails with an {@link IOException} when it is listed.
+     * </p>
+     *
+     * <p>If links are not followed, then a link is added as though it were a regular file, and is never recursed.</p>
+     *
+     * @param path Path to be checked.
+     * @param attributes The attributes of the path.
+     * @return What must be done with the path.
+     *
+     * @throws IllegalStateException If the path is neither a directory nor a regular file.
+     */
+    private Action classify(final Path path, final BasicFileAttributes attributes) {
+        // Rejected paths are skipped before they are checked any further, so that a rejected directory is pruned.
+        if (!filter.accept(path, attributes)) {
+            recorder.recordRejected();
+            return Action.SKIP;
+        }
+
+        if (attributes.isRegularFile() || attributes.isSymbolicLink()) {
+            if (recursionMode == JFileChooser.DIRECTORIES_ONLY) {
+                recorder.recordRejected();
+                return Action.SKIP;
+            }
+
+            return Action.ADD;
+        }
+
+        if (!attributes.isDirectory()) {
+            throw new IllegalStateException("The file '%s' is neither a regular file nor a directory.".formatted(path));
+        }
+
+        if (recursionMode < JFileChooser.FILES_ONLY || recursionMode > JFileChooser.FILES_AND_DIRECTORIES) {
+            return Action.ADD;
+        }
+
+        return Action.RECURSE;
+    }
+
+    /**
+     * Records that a directory is about to be listed.
+     *
+     * @param directory The directory.
+     */
+    private void listing(final Path directory) {
+        recorder.recordDirectory(directory);
+
+        if (listedDirectoryHandler != null) {
+            listedDirectoryHandler.accept(directory);
+        }
+    }
+
+    /**
+     * <p>Throws an exception if the walk has been cancelled.</p>
+     *
+     * <p>
+     *     This is checked before each path is processed, including those which are listed but then rejected by the
+     *     recursion mode, so a cancelled walk stops promptly even within very large directories.
+     * </p>
+     *
+     * @param path The path which is about to be processed.
+     *
+     * @throws CancellationException If the walk has been cancelled.
+     */
+    private void throwIfCancelled(final Path path) {
+        if (isCancelled.getAsBoolean()) {
+            throw new CancellationException("The walk of '%s' was cancelled.".formatted(path));
+        }
+    }
+
+    /**
+     * <p>Lists the children of a directory which are permitted by the recursion mode.</p>
+     *
+     * <p>
+     *     The attributes of the children are read in batches. The calling thread, which must hold a permit, reads the
+     *     first batch, whilst each other batch is read by its own task, so that the reads of a large directory overlap.
+     *     The children are returned in the order in which they were listed.
+     * </p>
+     *
+     * @param directory Directory to be listed.
+     * @return The permitted children.
+     *
+     * @throws FileNotFoundException If a child does not exist, and the recursion mode permits both files and
+     *                               directories.
+     * @throws IOException If an I/O error occurs when listing the directory.
+     */
+    private List<Entry> listChildren(final Path directory) throws IOException {
+        this.listing(directory);
+        try (final var directoryStream = Files.newDirectoryStream(directory)) {
+            final var names = new ArrayList<Path>();
+            for (final var child : directoryStream) {
+                this.throwIfCancelled(child);
+                names.add(child);
+            }
+
+            final var batches = new ArrayList<Subtask<List<Entry>>>();
+            for (int start = ATTRIBUTE_BATCH_SIZE ; start < names.size() ; start += ATTRIBUTE_BATCH_SIZE) {
+                final var batch = names.subList(start, Math.min(start + ATTRIBUTE_BATCH_SIZE, names.size()));
+                // The calling thread waits for each batch whilst holding its permit, so a batch must not be claimed by
+                // a thread which is still waiting for a permit of its own, as it could wait forever.
+                final var task = new Subtask<List<Entry>>(holdsPermit -> this.readChildren(directoryStream, batch));
+                task.forkWithPermit();
+                batches.add(task);
+            }
+
+            final var children = new ArrayList<Entry>(names.size());
+            try {
+                children.addAll(this.readChildren(directoryStream, names.subList(0, Math.min(ATTRIBUTE_BATCH_SIZE, names.size()))));
+
+                for (final var batch : batches) {
+                    children.addAll(batch.join(true));
+                }
+            } catch (final IOException | RuntimeException | Error e) {
+                batches.forEach(Subtask::cancel);
+                throw e;
+            }
+
+            return children;
+        } catch (final DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads the attributes of a batch of a directory's children, and retains those which are permitted by the
+     * recursion mode.
+     *
+     * @param directoryStream The stream which listed the children.
+     * @param batch The children.
+     * @return The permitted children.
+     *
+     * @throws FileNotFoundException If a child does not exist, and the recursion mode permits both files and
+     *                               directories.
+     * @throws IOException If an I/O error occurs when reading the attributes.
+     */
+    private List<Entry> readChildren(final DirectoryStream<Path> directoryStream, final List<Path> batch) throws IOException {
+        final var children = new ArrayList<Entry>(batch.size());
+        for (final var child : batch) {
+            this.throwIfCancelled(child);
+
+            final var attributes = this.readPermittedAttributes(directoryStream, child);
+            if (attributes != null) {
+                children.add(new Entry(child, attributes));
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * <p>Reads the attributes of a directory's child, if the child is permitted by the recursion mode.</p>
+     *
+     * <p>
+     *     The attributes are read once, so that they can be reused when the child is walked. If the directory stream is
+     *     a {@link SecureDirectoryStream}, then the attributes are read relative to the open directory, rather than by
+     *     resolving the child's full path. If links are not followed, then the attributes are those of the link itself.
+     * </p>
+     *
+     * @param directoryStream The stream which listed the child, or {@code null} if the child was not listed.
+     * @param child The child.
+     * @return The attributes of the child, or {@code null} if the child is not permitted.
+     *
+     * @throws FileNotFoundException If the child does not exist, and the recursion mode permits both files and
+     *                               directories.
+     * @throws IOException If an I/O error occurs when reading the attributes.
+     */
+    private BasicFileAttributes readPermittedAttributes(final DirectoryStream<Path> directoryStream, final Path child) throws IOException {
+        final BasicFileAttributes attributes;
+        recorder.recordDiscovered();
+        recorder.recordAttributeRead();
+        try {
+            if (directoryStream instanceof SecureDirectoryStream<Path> secureStream) {
+                attributes = secureStream.getFileAttributeView(child.getFileName(), BasicFileAttributeView.class, this.linkOptions()).readAttributes();
+            } else {
+                attributes = Files.readAttributes(child, BasicFileAttributes.class, this.linkOptions());
+            }
+        } catch (final NoSuchFileException e) {
+            // The child was deleted after it was listed, or it is a broken link. This is only an error if the child
+            // would otherwise have been added.
+            if (recursionMode == JFileChooser.FILES_AND_DIRECTORIES) {
+                throw notFound(child, e);
+            }
+
+            return null;
+        }
+
+        final var isPermitted = switch (recursionMode) {
+            case JFileChooser.FILES_ONLY -> attributes.isRegularFile() || attributes.isSymbolicLink();
+            case JFileChooser.DIRECTORIES_ONLY -> attributes.isDirectory();
+            case JFileChooser.FILES_AND_DIRECTORIES -> true;
+            default -> {
+                logger.log(Level.SEVERE, "Unknown recursion mode: " + recursionMode);
+                yield false;
+            }
+        };
+
+        if (!isPermitted) {
+            recorder.recordRejected();
+            return null;
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Reads the basic attributes of a path.
+     *
+     * @param path Path whose attributes are to be read.
+     * @return The attributes.
+     *
+     * @throws FileNotFoundException If the path does not exist.
+     * @throws IOException If an I/O error occurs.
+     */
+    private BasicFileAttributes readAttributes(final Path path) throws IOException {
+        recorder.recordAttributeRead();
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, this.linkOptions());
+        } catch (final NoSuchFileException e) {
+            throw notFound(path, e);
+        }
+    }
+
+    /**
+     * Retrieves the options which determine whether links are followed when reading attributes.
+     *
+     * @return The options.
+     */
+    private LinkOption[] linkOptions() {
+        return followLinks ? NO_LINK_OPTIONS : new LinkOption[] {LinkOption.NOFOLLOW_LINKS};
+    }
+
+    /**
+     * Creates the exception thrown when a path does not exist.
+     *
+     * @param path The path.
+     * @param cause The cause of the exception.
+     * @return The exception.
+     */
+    private static FileNotFoundException notFound(final Path path, final NoSuchFileException cause) {
+        final var exception = new FileNotFoundException("The file '%s' does not exist".formatted(path));
+        exception.initCause(cause);
+        return exception;
+    }
+
+    /** Passes any paths which have been found, but not yet passed to the sink, to the sink. */
+    synchronized void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        final var fullChunk = chunk;
+        chunk = new ArrayList<>();
+
+        // Once a chunk has been passed to the sink, the model is responsible for rejecting any duplicates of its paths,
+        // so they no longer need to be remembered. This keeps the memory used by long walks bounded by the chunk size.
+        foundPaths.clear();
+
+        sink.accept(fullChunk);
+    }
+
+    /**
+     * Sets the maximum number of tasks which perform I/O at once, when walking directories.
+     *
+     * @param parallelism The number of tasks. If this is one, then directories are walked on the calling thread.
+     * @throws IllegalArgumentException If {@code parallelism} is less than one.
+     */
+    void setParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least one, but it was " + parallelism + ".");
+        }
+
+        this.parallelism = parallelism;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    /**
+     * <p>Sets the permits which limit the number of tasks which perform I/O at once, when walking directories.</p>
+     *
+     * <p>
+     *     By default, each walker has {@link #setParallelism(int) parallelism} permits of its own. Walkers which share
+     *     their permits perform no more I/O at once, in total, than a single walker would.
+     * </p>
+     *
+     * @param permits The permits.
+     * @throws NullPointerException If {@code permits} is {@code null}.
+     */
+    void setPermits(final Semaphore permits) {
+        Objects.requireNonNull(permits);
+        this.permits = permits;
+    }
+
+    /**
+     * Sets the executor on which directories are walked, when the parallelism is greater than one.
+     *
+     * @param executor The executor.
+     * @throws NullPointerException If {@code executor} is {@code null}.
+     */
+    void setExecutor(final Executor executor) {
+        Objects.requireNonNull(executor);
+        this.executor = executor;
+    }
+
+    /**
+     * <p>Sets whether the order of the found paths is deterministic, when directories are walked in parallel.</p>
+     *
+     * <p>
+     *     If it is, then the paths are found in the same order as they would be by a single thread. Otherwise, each
+     *     directory's paths are found as soon as it has been listed.
+     * </p>
+     *
+     * @param isDeterministic Whether the order is deterministic.
+     */
+    void setDeterministic(final boolean isDeterministic) {
+        this.isDeterministic = isDeterministic;
+    }
+
+    /**
+     * <p>Sets the handler for directories whose walk is deferred.</p>
+     *
+     * <p>
+     *     If a handler is set, then directories which would be recursed are instead recorded as found, as placeholders,
+     *     and passed to the handler along with their depths. Their children can be walked later, with
+     *     {@link #walkChildren(Path, int)}.
+     * </p>
+     *
+     * @param handler The handler, or {@code null} to recurse directories immediately.
+     */
+    void setDeferredDirectoryHandler(final ObjIntConsumer<Path> handler) {
+        this.deferredDirectoryHandler = handler;
+    }
+
+    /**
+     * <p>Sets the maximum depth of the directories which are listed.</p>
+     *
+     * <p>
+     *     The walked paths are at a depth of zero, and their children at a depth of one. A directory at the maximum
+     *     depth is found, if the recursion mode permits directories, but its entries are not listed.
+     * </p>
+     *
+     * @param maxDepth The maximum depth.
+     * @throws IllegalArgumentException If {@code maxDepth} is negative.
+     */
+    void setMaxDepth(final int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("The maximum depth cannot be negative, but it was " + maxDepth + ".");
+        }
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * <p>Sets whether links are followed.</p>
+     *
+     * <p>
+     *     If they are, then a link is walked as whatever it points to, and a link to one of its own ancestors is
+     *     skipped, so that a cycle of links can't be walked forever. Otherwise, a link is added as though it were a
+     *     regular file, unless the recursion mode is {@link JFileChooser#DIRECTORIES_ONLY}, and it is never recursed.
+     * </p>
+     *
+     * @param followLinks Whether links are followed.
+     */
+    void setFollowLinks(final boolean followLinks) {
+        this.followLinks = followLinks;
+    }
+
+    /**
+     * <p>Sets the handler for directories whose children are listed.</p>
+     *
+     * <p>
+     *     The handler is called before each directory is listed, which may be on any of the walker's threads. This is
+     *     used to watch the recursed directories for changes.
+     * </p>
+     *
+     * @param handler The handler, or {@code null} if no handler is needed.
+     */
+    void setListedDirectoryHandler(final Consumer<Path> handler) {
+        this.listedDirectoryHandler = handler;
+    }
+
+    /**
+     * Sets the filter which determines which of the found paths are to be added, and which directories are to be
+     * recursed.
+     *
+     * @param filter The filter.
+     * @throws NullPointerException If {@code filter} is {@code null}.
+     */
+    void setFilter(final PathFilter filter) {
+        Objects.requireNonNull(filter);
+        this.filter = filter;
+    }
+
+    /**
+     * <p>Sets the cache of directory fingerprints.</p>
+     *
+     * <p>
+     *     If a cache is set, then each directory which is listed is recorded in it, and a directory which is unchanged
+     *     since it was last listed is not listed again.
+     * </p>
+     *
+     * @param cache The cache, or {@code null} to always list directories.
+     */
+    void setFingerprintCache(final DirectoryFingerprintCache cache) {
+        this.fingerprintCache = cache;
+    }
+
+    /**
+     * Records the fingerprint of a directory which has been listed, unless this walker's fingerprints have been
+     * discarded.
+     *
+     * @param directory The directory.
+     * @param attributes The attributes of the directory, which were read before it was listed.
+     * @param subdirectories The subdirectories which were found when the directory was listed.
+     */
+    private void putFingerprint(final Path directory, final BasicFileAttributes attributes, final List<Path> subdirectories) {
+        synchronized (fingerprintLock) {
+            if (fingerprintedDirectories == null) {
+                return;
+            }
+
+            fingerprintCache.put(directory, attributes, subdirectories);
+            fingerprintedDirectories.add(directory);
+        }
+    }
+
+    /**
+     * <p>Invalidates the fingerprint of every directory which this walker has listed, and stops it recording more.</p>
+     *
+     * <p>
+     *     A fingerprint is recorded as soon as a directory is listed, on the assumption that its paths will be added to
+     *     the model. If the walk is abandoned before they are, then its fingerprints must be discarded, or a later walk
+     *     would skip the directory's entries as though they were already in the model.
+     * </p>
+     */
+    void discardFingerprints() {
+        synchronized (fingerprintLock) {
+            if (fingerprintedDirectories == null) {
+                return;
+            }
+
+            for (final var directory : fingerprintedDirectories) {
+                fingerprintCache.invalidate(directory);
+            }
+            fingerprintedDirectories = null;
+        }
+    }
+
+    /**
+     * Sets the recorder of the walk's counters and timings.
+     *
+     * @param recorder The recorder.
+     * @throws NullPointerException If {@code recorder} is {@code null}.
+     */
+    void setRecorder(final IngestionRecorder recorder) {
+        Objects.requireNonNull(recorder);
+        this.recorder = recorder;
+    }
+
+    /**
+     * Records a found path, and flushes the current chunk if it is full.
+     *
+     * @param path The found path.
+     */
+    private synchronized void found(final Path path) {
+        foundPaths.add(path);
+        chunk.add(path);
+
+        if (chunk.size() >= chunkSize) {
+            // The time spent in the sink is excluded from the time spent walking.
+            final var start = System.nanoTime();
+            this.flush();
+            recorder.recordSink(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * <p>Lists a directory, and recursively walks its subdirectories in their own tasks.</p>
+     *
+     * <p>
+     *     The result of each task is the list of paths found within its directory, in the same order as a single
+     *     thread would find them, if the ordering is deterministic. Otherwise, or if the task was next in order when it
+     *     started, the paths are recorded as soon as they are found, and the result is empty.
+     * </p>
+     */
+    private final class DirectoryTask implements Work<List<Path>> {
+        /** Runs this task, either on the executor or on the thread which joins it. */
+        private final Subtask<List<Path>> subtask = new Subtask<>(this);
+
+        /**
+         * Whether every path which precedes this task's paths, in the order in which a single thread would find them,
+         * has been recorded, so this task may record its paths as soon as they are found.
+         */
+        private volatile boolean isNext = false;
+
+        /** The directory to be walked. */
+        private final Path directory;
+
+        /** The attributes of the directory, which were read before it was listed. */
+        private final BasicFileAttributes attributes;
+
+        /** The depth of the directory. */
+        private final int depth;
+
+        /** The directory, and its ancestors, or {@code null} if links are not followed. */
+        private final Ancestor ancestor;
+
+        /**
+         * Constructs a new {@code DirectoryTask}.
+         *
+         * @param directory The directory to be walked.
+         * @param attributes The attributes of the directory.
+         * @param depth The depth of the directory.
+         * @param ancestor The directory, and its ancestors, or {@code null} if links are not followed.
+         */
+        private DirectoryTask(final Path directory, final BasicFileAttributes attributes, final int depth, final Ancestor ancestor) {
+            this.directory = directory;
+            this.attributes = attributes;
+            this.depth = depth;
+            this.ancestor = ancestor;
+        }
+
+        @Override
+        public List<Path> run(final boolean holdsPermit) throws IOException {
+            // This is only read once, as if it were to change part way through, the paths which were held would be
+            // recorded after those which were found later.
+            final var recordsDirectly = !isDeterministic || isNext;
+
+            if (!holdsPermit) {
+                permits.acquireUninterruptibly();
+            }
+
+            final var parts = new ArrayList<Object>();
+            final List<Entry> children;
+            try {
+                children = listChildren(directory);
+                this.addChildren(children, parts);
+            } catch (final IOException | RuntimeException | Error e) {
+                cancelSubtasks(parts);
+                throw e;
+            } finally {
+                // The permit is released before the subtasks are joined, as they need permits of their own.
+                if (!holdsPermit) {
+                    permits.release();
+                }
+            }
+
+            final var results = new ArrayList<Path>();
+
+            // In these cases, we want to add the directory itself to the list.
+            if (recursionMode == JFileChooser.DIRECTORIES_ONLY || recursionMode == JFileChooser.FILES_AND_DIRECTORIES) {
+                this.record(directory, results, recordsDirectly);
+            }
+
+            try {
+                for (final var part : parts) {
+                    if (part instanceof DirectoryTask task) {
+                        // Every preceding path has been recorded, if this task records its paths directly, so the
+                        // subtask may do the same, unless the executor has already started it.
+                        task.isNext = recordsDirectly;
+
+                        for (final var path : task.subtask.join(false)) {
+                            this.record(path, results, recordsDirectly);
+                        }
+                    } else {
+                        this.record((Path) part, results, recordsDirectly);
+                    }
+                }
+
+                if (fingerprintCache != null) {
+                    final var subdirectories = new ArrayList<Path>();
+                    for (final var child : children) {
+                        if (child.attributes().isDirectory()) {
+                            subdirectories.add(child.path());
+                        }
+                    }
+
+                    putFingerprint(directory, attributes, subdirectories);
+                }
+            } catch (final IOException | RuntimeException | Error e) {
+                cancelSubtasks(parts);
+                throw e;
+            }
+
+            return results;
+        }
+
+        /**
+         * <p>Classifies the children of the directory, and starts the tasks which walk its subdirectories.</p>
+         *
+         * <p>
+         *     Each part is either a found path, or the task which is walking a subdirectory. As in a sequential walk, the
+         *     directory's other entries are found before any of its subdirectories.
+         * </p>
+         *
+         * @param children The children of the directory.
+         * @param parts Receives the parts of this task.
+         */
+        private void addChildren(final List<Entry> children, final List<Object> parts) {
+            for (final var child : children) {
+                if (!child.attributes().isDirectory() && !isDuplicate(child.path())) {
+                    if (classify(child.path(), child.attributes()) == Action.ADD) {
+                        parts.add(child.path());
+                    }
+                }
+            }
+
+            for (final var child : children) {
+                if (child.attributes().isDirectory() && !isDuplicate(child.path())) {
+                    this.addSubdirectory(child, parts);
+                }
+            }
+        }
+
+        /**
+         * Adds a subdirectory to the parts of this task, either as a found path, if it is not to be listed, or as the
+         * task which walks it.
+         *
+         * @param child The subdirectory.
+         * @param parts The parts of this task.
+         */
+        private void addSubdirectory(final Entry child, final List<Object> parts) {
+            switch (classify(child.path(), child.attributes())) {
+                case ADD -> parts.add(child.path());
+                case RECURSE -> {
+                    if (depth + 1 >= maxDepth) {
+                        if (recursionMode == JFileChooser.DIRECTORIES_ONLY || recursionMode == JFileChooser.FILES_AND_DIRECTORIES) {
+                            parts.add(child.path());
+                        }
+
+                        return;
+                    }
+
+                    final var childAncestor = enter(child.path(), child.attributes(), ancestor);
+                    if (followLinks && childAncestor == null) {
+                        return;
+                    }
+
+                    final var task = new DirectoryTask(child.path(), child.attributes(), depth + 1, childAncestor);
+                    if (forkedTasks.incrementAndGet() <= parallelism * FORKED_TASKS_PER_PERMIT) {
+                        task.subtask.result.whenComplete((result, e) -> forkedTasks.decrementAndGet());
+                        task.subtask.fork();
+                    } else {
+                        // The subdirectory is walked by this task once it has released its permit, so that a wide tree
+                        // does not park a thread, and hold a result, for each of its directories.
+                        forkedTasks.decrementAndGet();
+                    }
+
+                    parts.add(task);
+                }
+            }
+        }
+
+        /**
+         * Records a found path, either directly or in the results of this task.
+         *
+         * @param path The found path.
+         * @param results The results of this task.
+         * @param recordsDirectly Whether the path is recorded directly.
+         */
+        private void record(final Path path, final List<Path> results, final boolean recordsDirectly) {
+            if (recordsDirectly) {
+                found(path);
+            } else {
+                results.add(path);
+            }
+        }
+    }
+
+    /**
+     * Cancels the subtasks among the parts of a task which has failed, as there's no point in continuing to walk the
+     * other subdirectories.
+     *
+     * @param parts The parts of the task.
+     */
+    private static void cancelSubtasks(final List<Object> parts) {
+        for (final var part : parts) {
+            if (part instanceof DirectoryTask task) {
+                task.subtask.cancel();
+            }
+        }
+    }
+
+    /**
+     * Work which is performed by a {@link Subtask}.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    private interface Work<T> {
+        /**
+         * Performs the work.
+         *
+         * @param holdsPermit Whether the calling thread already holds a permit, in which case the work must not
+         *                    acquire another.
+         * @return The result.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        T run(boolean holdsPermit) throws IOException;
+    }
+
+    /**
+     * <p>Work which is submitted to the executor, and is then joined by the task which submitted it.</p>
+     *
+     * <p>
+     *     The work is run exactly once, by whichever thread claims it first. If the executor has not yet started it
+     *     when it is joined, or if the executor rejected it, then it is run by the joining thread.
+     * </p>
+     *
+     * @param <T> The type of the result.
+     */
+    private final class Subtask<T> {
+        /** The work. */
+        private final Work<T> work;
+
+        /** Whether a thread has claimed the work. */
+        private final AtomicBoolean isClaimed = new AtomicBoolean(false);
+
+        /** Completes with the result of the work. */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * Constructs a new {@code Subtask}.
+         *
+         * @param work The work.
+         */
+        private Subtask(final Work<T> work) {
+            this.work = work;
+        }
+
+        /** Submits the work to the executor. */
+        private void fork() {
+            try {
+                executor.execute(() -> this.run(false));
+            } catch (final RejectedExecutionException e) {
+                // The work is run by the thread which joins it.
+            }
+        }
+
+        /**
+         * Submits the work to the executor, whose thread acquires a permit before claiming the work, and releases it once
+         * the work completes. The work is therefore never claimed by a thread which is waiting for a permit, so it can
+         * be joined by a thread which holds one.
+         */
+        private void forkWithPermit() {
+            try {
+                executor.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        this.run(true);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                // The work is run by the thread which joins it.
+            }
+        }
+
+        /**
+         * Waits for the work to complete, and runs it on the calling thread if it has not yet started.
+         *
+         * @param holdsPermit Whether the calling thread holds a permit.
+         * @return The result.
+         *
+         * @throws CancellationException If the work was cancelled.
+         * @throws IOException If the work failed due to an I/O error.
+         */
+        private T join(final boolean holdsPermit) throws IOException {
+            this.run(holdsPermit);
+
+            try {
+                return result.join();
+            } catch (final CompletionException e) {
+                switch (e.getCause()) {
+                    case IOException cause -> throw cause;
+                    case RuntimeException cause -> throw cause;
+                    case Error cause -> throw cause;
+                    default -> throw e;
+                }
+            }
+        }
+
+        /** Prevents the work from running, if it has not yet started. */
+        private void cancel() {
+            if (isClaimed.compareAndSet(false, true)) {
+                result.cancel(false);
+            }
+        }
+
+        /**
+         * Runs the work, if no other thread has claimed it.
+         *
+         * @param holdsPermit Whether the calling thread holds a permit.
+         */
+        private void run(final boolean holdsPermit) {
+            if (!isClaimed.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                result.complete(work.run(holdsPermit));
+            } catch (final IOException | RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * A path, and the attributes which were read when it was listed.
+     *
+     * @param path The path.
+     * @param attributes The attributes of the path.
+     */
+    private record Entry(Path path, BasicFileAttributes attributes) {}
+
+    /**
+     * A path which remains to be walked.
+     *
+     * @param path The path.
+     * @param attributes The attributes of the path, or {@code null} if they have not yet been read.
+     * @param depth The depth of the path, where the walked paths are at a depth of zero.
+     * @param ancestor The path's parent directory, and its ancestors, or {@code null} if they are not tracked.
+     */
+    private record Pending(Path path, BasicFileAttributes attributes, int depth, Ancestor ancestor) {}
+
+    /**
+     * A directory which is being walked, as one of a chain of ancestors.
+     *
+     * @param key The file key, or real path, of the directory.
+     * @param parent The directory's parent, or {@code null} if the directory was walked as a root.
+     */
+    private record Ancestor(Object key, Ancestor parent) {}
+
+    /** What must be done with a path. */
+    private enum Action {
+        /** The path must be skipped. */
+        SKIP,
+
+        /** The path must be added to the list, without being recursed. */
+        ADD,
+
+        /** The path is a directory which must be recursed. */
+        RECURSE
+    }
+}
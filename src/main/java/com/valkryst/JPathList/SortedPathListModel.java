@@ -0,0 +1,605 @@
+package com.valkryst.JPathList;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>A {@link ListModel} which displays the paths of a {@link PathListModel} in sorted order.</p>
+ *
+ * <p>
+ *     The sort key of each path is computed once, when the path is added to the source, and is then reused by every
+ *     comparison. Sizes and modification times are read with a single {@code stat} per path, and only once they are
+ *     needed by the {@link SortKey}, so sorting by name performs no I/O at all. The keys are not updated if a file is
+ *     later modified.
+ * </p>
+ *
+ * <p>
+ *     If the model is given a {@link PathAttributeCache}, then the sizes and modification times of cached paths are
+ *     taken from it, and those of the other paths are read on an executor, so that no I/O is performed whilst the
+ *     source is locked, or on the Event Dispatch Thread. Until its attributes have been read, a path is sorted as
+ *     though they couldn't be read, and it is then moved into place on the Event Dispatch Thread. Otherwise, the
+ *     attributes are read as soon as they are needed, whilst the source is locked.
+ * </p>
+ *
+ * <p>
+ *     The model listens to the source, and keeps its order as paths are added or removed. A few paths are inserted by
+ *     binary search, whilst a larger batch is sorted and then merged with the existing paths in a single pass. A single
+ *     {@link ListDataEvent} is fired for each contiguous range of paths which was added or removed.
+ * </p>
+ *
+ * <p>The model is synchronized on its source, in the same way as {@link FilteredPathListModel}.</p>
+ */
+public class SortedPathListModel extends AbstractListModel<Path> {
+    /** The maximum number of paths, added at once, which are inserted one at a time rather than merged. */
+    private static final int BINARY_INSERTION_LIMIT = 16;
+
+    /** The model whose paths are sorted. */
+    private final PathListModel source;
+
+    /** Applies the modifications of the source to this model. */
+    private final ListDataListener sourceListener = new SourceListener();
+
+    /** The entry of the path at each position of the source. */
+    private final List<Entry> bySource = new ArrayList<>();
+
+    /** The entries, in sorted order. */
+    private List<Entry> sorted = new ArrayList<>();
+
+    /** The key by which the paths are sorted. */
+    private SortKey sortKey;
+
+    /** Whether the paths are sorted in ascending order. */
+    private boolean isAscending;
+
+    /** Compares entries by the sort key, and then by their sequence numbers, so that no two entries are equal. */
+    private Comparator<Entry> comparator;
+
+    /** The sequence number to be assigned to the next entry. */
+    private long nextSequence = 0;
+
+    /** The cache from which the attributes of paths are taken, or {@code null} if they are read when needed. */
+    private final PathAttributeCache attributeCache;
+
+    /** The executor on which the attributes of paths are read, or {@code null} if they are read when needed. */
+    private final Executor executor;
+
+    /** The entries whose attributes are not cached, and are yet to be read on the executor. */
+    private final List<Entry> pendingEntries = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code SortedPathListModel}.
+     *
+     * @param source The model whose paths are sorted.
+     * @param sortKey The key by which the paths are sorted.
+     * @param isAscending Whether the paths are sorted in ascending order.
+     *
+     * @throws NullPointerException If {@code source} or {@code sortKey} is {@code null}.
+     */
+    public SortedPathListModel(final PathListModel source, final SortKey sortKey, final boolean isAscending) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(sortKey);
+
+        this.source = source;
+        this.sortKey = sortKey;
+        this.isAscending = isAscending;
+        this.comparator = createComparator(sortKey, isAscending);
+        this.attributeCache = null;
+        this.executor = null;
+
+        synchronized (source) {
+            this.rebuild();
+            source.addListDataListener(sourceListener);
+        }
+    }
+
+    /**
+     * <p>Constructs a new {@code SortedPathListModel}, which takes the attributes of paths from a cache.</p>
+     *
+     * <p>
+     *     The attributes of paths which are not cached are read on the executor, and the paths are then moved into
+     *     place on the Event Dispatch Thread.
+     * </p>
+     *
+     * @param source The model whose paths are sorted.
+     * @param sortKey The key by which the paths are sorted.
+     * @param isAscending Whether the paths are sorted in ascending order.
+     * @param attributeCache The cache from which the attributes of paths are taken.
+     * @param executor The executor on which the attributes of paths which are not cached are read.
+     *
+     * @throws NullPointerException If {@code source}, {@code sortKey}, {@code attributeCache}, or {@code executor} is
+     *                              {@code null}.
+     */
+    public SortedPathListModel(final PathListModel source, final SortKey sortKey, final boolean isAscending, final PathAttributeCache attributeCache, final Executor executor) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(sortKey);
+        Objects.requireNonNull(attributeCache);
+        Objects.requireNonNull(executor);
+
+        this.source = source;
+        this.sortKey = sortKey;
+        this.isAscending = isAscending;
+        this.comparator = createComparator(sortKey, isAscending);
+        this.attributeCache = attributeCache;
+        this.executor = executor;
+
+        synchronized (source) {
+            this.rebuild();
+            source.addListDataListener(sourceListener);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (source) {
+            return sorted.size();
+        }
+    }
+
+    @Override
+    public Path getElementAt(final int index) {
+        synchronized (source) {
+            return sorted.get(index).path;
+        }
+    }
+
+    /**
+     * Retrieves the model whose paths are sorted.
+     *
+     * @return The source model.
+     */
+    public PathListModel getSource() {
+        return source;
+    }
+
+    /**
+     * Retrieves the key by which the paths are sorted.
+     *
+     * @return The sort key.
+     */
+    public SortKey getSortKey() {
+        synchronized (source) {
+            return sortKey;
+        }
+    }
+
+    /**
+     * Retrieves whether the paths are sorted in ascending order.
+     *
+     * @return Whether the paths are sorted in ascending order.
+     */
+    public boolean isAscending() {
+        synchronized (source) {
+            return isAscending;
+        }
+    }
+
+    /**
+     * <p>Sets the order in which the paths are sorted, and re-sorts them.</p>
+     *
+     * <p>
+     *     Any sizes or modification times required by the new key, which have not already been read, are read once, on
+     *     the executor if there is one. As every path may move, a single {@link ListDataEvent#CONTENTS_CHANGED} event is
+     *     fired for the entire model.
+     * </p>
+     *
+     * @param sortKey The key by which the paths are sorted.
+     * @param isAscending Whether the paths are sorted in ascending order.
+     * @throws NullPointerException If {@code sortKey} is {@code null}.
+     */
+    public void setSortOrder(final SortKey sortKey, final boolean isAscending) {
+        Objects.requireNonNull(sortKey);
+
+        synchronized (source) {
+            if (sortKey == this.sortKey && isAscending == this.isAscending) {
+                return;
+            }
+
+            this.sortKey = sortKey;
+            this.isAscending = isAscending;
+            this.comparator = createComparator(sortKey, isAscending);
+
+            for (final var entry : sorted) {
+                this.loadKey(entry);
+            }
+            sorted.sort(comparator);
+
+            if (!sorted.isEmpty()) {
+                this.fireContentsChanged(this, 0, sorted.size() - 1);
+            }
+
+            this.loadPendingKeys();
+        }
+    }
+
+    /** Stops listening to the source, after which this model is no longer updated. */
+    void detach() {
+        source.removeListDataListener(sourceListener);
+    }
+
+    /**
+     * Inserts the paths which were inserted into a range of the source.
+     *
+     * @param index0 The source position of the first inserted path.
+     * @param index1 The source position of the last inserted path.
+     */
+    private void sourceIntervalAdded(final int index0, final int index1) {
+        final var batch = new ArrayList<Entry>(index1 - index0 + 1);
+        for (int i = index0 ; i <= index1 ; i++) {
+            final var entry = new Entry(source.getElementAt(i), nextSequence++);
+            this.loadKey(entry);
+            batch.add(entry);
+        }
+        bySource.addAll(index0, batch);
+
+        this.insertSorted(batch);
+        this.loadPendingKeys();
+    }
+
+    /**
+     * Inserts entries into their sorted positions, and fires an event for each contiguous range of inserted entries.
+     *
+     * @param batch The entries, which is sorted by this method.
+     */
+    private void insertSorted(final List<Entry> batch) {
+        if (batch.size() <= BINARY_INSERTION_LIMIT) {
+            for (final var entry : batch) {
+                final var index = -Collections.binarySearch(sorted, entry, comparator) - 1;
+                sorted.add(index, entry);
+                this.fireIntervalAdded(this, index, index);
+            }
+
+            return;
+        }
+
+        batch.sort(comparator);
+
+        final var merged = new ArrayList<Entry>(sorted.size() + batch.size());
+        final var isInserted = new boolean[sorted.size() + batch.size()];
+        int i = 0;
+        int j = 0;
+        while (i < sorted.size() || j < batch.size()) {
+            if (j == batch.size() || (i < sorted.size() && comparator.compare(sorted.get(i), batch.get(j)) < 0)) {
+                merged.add(sorted.get(i++));
+            } else {
+                isInserted[merged.size()] = true;
+                merged.add(batch.get(j++));
+            }
+        }
+        sorted = merged;
+
+        // The events are fired from the first range to the last, so that the indices of each event, which are relative
+        // to the merged list, are also valid for listeners which adjust their own state as each event arrives.
+        int start = 0;
+        while (start < isInserted.length) {
+            if (!isInserted[start]) {
+                start++;
+                continue;
+            }
+
+            int end = start;
+            while (end + 1 < isInserted.length && isInserted[end + 1]) {
+                end++;
+            }
+
+            this.fireIntervalAdded(this, start, end);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Removes the paths which were removed from a range of the source.
+     *
+     * @param index0 The source position of the first removed path.
+     * @param index1 The source position of the last removed path.
+     */
+    private void sourceIntervalRemoved(final int index0, final int index1) {
+        final var removedEntries = bySource.subList(index0, index1 + 1);
+        for (final var entry : removedEntries) {
+            entry.isRemoved = true;
+        }
+
+        this.removeSorted(removedEntries);
+        removedEntries.clear();
+    }
+
+    /**
+     * Removes entries from their sorted positions, and fires an event for each contiguous range of removed entries.
+     *
+     * @param entries The entries, whose keys must not have changed since they were inserted.
+     */
+    private void removeSorted(final List<Entry> entries) {
+        final var isRemoved = new boolean[sorted.size()];
+        for (final var entry : entries) {
+            isRemoved[Collections.binarySearch(sorted, entry, comparator)] = true;
+        }
+
+        final var remaining = new ArrayList<Entry>(sorted.size() - entries.size());
+        for (int i = 0 ; i < sorted.size() ; i++) {
+            if (!isRemoved[i]) {
+                remaining.add(sorted.get(i));
+            }
+        }
+        sorted = remaining;
+
+        // Events are fired from the last range to the first, so that the indices of each event remain valid for
+        // listeners which adjust their own state as each event arrives.
+        int end = isRemoved.length - 1;
+        while (end >= 0) {
+            if (!isRemoved[end]) {
+                end--;
+                continue;
+            }
+
+            int start = end;
+            while (start > 0 && isRemoved[start - 1]) {
+                start--;
+            }
+
+            this.fireIntervalRemoved(this, start, end);
+            end = start - 1;
+        }
+    }
+
+    /** Discards every entry, and creates a new entry for each path of the source. */
+    private void rebuild() {
+        for (final var entry : bySource) {
+            entry.isRemoved = true;
+        }
+
+        bySource.clear();
+        for (int i = 0 ; i < source.getSize() ; i++) {
+            final var entry = new Entry(source.getElementAt(i), nextSequence++);
+            this.loadKey(entry);
+            bySource.add(entry);
+        }
+
+        sorted = new ArrayList<>(bySource);
+        sorted.sort(comparator);
+        this.loadPendingKeys();
+    }
+
+    /**
+     * <p>
+     *     Loads the size and modification time of an entry's path, if they are required by the sort key and have not
+     *     already been loaded.
+     * </p>
+     *
+     * <p>
+     *     If there is an attribute cache, and the path is not cached, then the entry is queued to be read by
+     *     {@link #loadPendingKeys()}, and it is sorted as though its attributes couldn't be read until then.
+     * </p>
+     *
+     * @param entry The entry.
+     */
+    private void loadKey(final Entry entry) {
+        if (sortKey == SortKey.NAME || entry.hasAttributes || entry.isPending) {
+            return;
+        }
+
+        if (attributeCache == null) {
+            setKeys(entry, readAttributes(entry.path));
+            return;
+        }
+
+        // The cache distinguishes paths which can't be read, whose attributes are null, from those which aren't cached.
+        final var attributes = attributeCache.getAttributes(entry.path);
+        if (attributes != null || attributeCache.contains(entry.path)) {
+            setKeys(entry, attributes);
+            return;
+        }
+
+        entry.isPending = true;
+        entry.size = -1;
+        entry.lastModified = Long.MIN_VALUE;
+        pendingEntries.add(entry);
+    }
+
+    /** Reads the attributes of the pending entries on the executor, and then moves them into place. */
+    private void loadPendingKeys() {
+        if (pendingEntries.isEmpty()) {
+            return;
+        }
+
+        final var entries = List.copyOf(pendingEntries);
+        pendingEntries.clear();
+
+        try {
+            executor.execute(() -> {
+                final var attributes = new ArrayList<BasicFileAttributes>(entries.size());
+                for (final var entry : entries) {
+                    attributes.add(readAttributes(entry.path));
+                }
+
+                SwingUtilities.invokeLater(() -> this.applyKeys(entries, attributes));
+            });
+        } catch (final RejectedExecutionException e) {
+            // The entries remain sorted as though their attributes couldn't be read, until they are next needed.
+            for (final var entry : entries) {
+                entry.isPending = false;
+            }
+        }
+    }
+
+    /**
+     * Sets the keys of entries whose attributes have been read, and moves them into place.
+     *
+     * @param entries The entries.
+     * @param attributes The attributes of each entry, or {@code null} for those which couldn't be read.
+     */
+    private void applyKeys(final List<Entry> entries, final List<BasicFileAttributes> attributes) {
+        synchronized (source) {
+            final var moved = new ArrayList<Entry>(entries.size());
+            for (final var entry : entries) {
+                if (!entry.isRemoved) {
+                    moved.add(entry);
+                }
+            }
+
+            // When sorting by name, the entries don't move, so they can be updated in place.
+            final var isMoving = sortKey != SortKey.NAME && !moved.isEmpty();
+            if (isMoving) {
+                this.removeSorted(moved);
+            }
+
+            for (int i = 0 ; i < entries.size() ; i++) {
+                entries.get(i).isPending = false;
+                setKeys(entries.get(i), attributes.get(i));
+            }
+
+            if (isMoving) {
+                this.insertSorted(moved);
+            }
+        }
+    }
+
+    /**
+     * Sets the size and modification time of an entry.
+     *
+     * @param entry The entry.
+     * @param attributes The attributes of the entry's path, or {@code null} if they couldn't be read.
+     */
+    private static void setKeys(final Entry entry, final BasicFileAttributes attributes) {
+        if (attributes == null) {
+            // Paths which can't be read, such as those which have since been deleted, are sorted before every other.
+            entry.size = -1;
+            entry.lastModified = Long.MIN_VALUE;
+        } else {
+            entry.size = attributes.size();
+            entry.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        entry.hasAttributes = true;
+    }
+
+    /**
+     * Reads the attributes of a path.
+     *
+     * @param path The path.
+     * @return The attributes, or {@code null} if they couldn't be read.
+     */
+    private static BasicFileAttributes readAttributes(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (final IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a comparator which orders entries by a sort key, then by name, and then by sequence number.
+     *
+     * @param sortKey The sort key.
+     * @param isAscending Whether the order is ascending.
+     * @return The comparator.
+     */
+    private static Comparator<Entry> createComparator(final SortKey sortKey, final boolean isAscending) {
+        final Comparator<Entry> byName = Comparator.comparing(entry -> entry.name);
+        final Comparator<Entry> byKey = switch (sortKey) {
+            case NAME -> byName;
+            case SIZE -> Comparator.<Entry>comparingLong(entry -> entry.size).thenComparing(byName);
+            case LAST_MODIFIED -> Comparator.<Entry>comparingLong(entry -> entry.lastModified).thenComparing(byName);
+        };
+
+        final var ordered = isAscending ? byKey : byKey.reversed();
+        return ordered.thenComparingLong(entry -> entry.sequence);
+    }
+
+    /** The keys by which paths can be sorted. */
+    public enum SortKey {
+        /** Sorts paths by their file names, ignoring case. */
+        NAME,
+
+        /** Sorts paths by their sizes, and then by their file names. */
+        SIZE,
+
+        /** Sorts paths by their modification times, and then by their file names. */
+        LAST_MODIFIED
+    }
+
+    /** A path, and the keys by which it is sorted. */
+    private static final class Entry {
+        /** The path. */
+        private final Path path;
+
+        /** The lowercase file name of the path, or the entire path if it has no file name. */
+        private final String name;
+
+        /** The order in which the entry was created, which distinguishes entries whose other keys are equal. */
+        private final long sequence;
+
+        /** The size of the path, in bytes, if {@link #hasAttributes} is set. */
+        private long size;
+
+        /** The modification time of the path, in milliseconds since the epoch, if {@link #hasAttributes} is set. */
+        private long lastModified;
+
+        /** Whether the size and modification time have been read. */
+        private boolean hasAttributes = false;
+
+        /** Whether the size and modification time are being read on the executor. */
+        private boolean isPending = false;
+
+        /** Whether the entry's path has been removed from the source. */
+        private boolean isRemoved = false;
+
+        /**
+         * Constructs a new {@code Entry}.
+         *
+         * @param path The path.
+         * @param sequence The order in which the entry was created.
+         */
+        private Entry(final Path path, final long sequence) {
+            this.path = path;
+            this.sequence = sequence;
+
+            final var fileName = path.getFileName();
+            this.name = (fileName == null ? path.toString() : fileName.toString()).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** Applies the modifications of the source model to this model. */
+    private class SourceListener implements ListDataListener {
+        @Override
+        public void intervalAdded(final ListDataEvent event) {
+            synchronized (source) {
+                sourceIntervalAdded(event.getIndex0(), event.getIndex1());
+            }
+        }
+
+        @Override
+        public void intervalRemoved(final ListDataEvent event) {
+            synchronized (source) {
+                sourceIntervalRemoved(event.getIndex0(), event.getIndex1());
+            }
+        }
+
+        @Override
+        public void contentsChanged(final ListDataEvent event) {
+            synchronized (source) {
+                final var previousSize = sorted.size();
+                rebuild();
+
+                if (previousSize > 0) {
+                    fireIntervalRemoved(SortedPathListModel.this, 0, previousSize - 1);
+                }
+
+                if (!sorted.isEmpty()) {
+                    fireIntervalAdded(SortedPathListModel.this, 0, sorted.size() - 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BackgroundWalkTest {
+    @Test
+    public void canBufferResultsUntilAttached() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        Files.createFile(directory.resolve("file"));
+
+        final var walk = new BackgroundWalk(List.of(directory));
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 1, walk::offerChunk, walk::isCancelled);
+        walker.setListedDirectoryHandler(walk::offerListedDirectory);
+        walk.start(walker, Runnable::run);
+        Assertions.assertTrue(walk.getCompletion().isDone());
+
+        final var paths = new ArrayList<Path>();
+        final var directories = new ArrayList<Path>();
+        walk.attach(paths::addAll, directories::add, () -> false, Runnable::run);
+
+        Assertions.assertEquals(List.of(directory, directory.resolve("file")), paths);
+        Assertions.assertEquals(List.of(directory), directories);
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canPassOnBufferedResultsOnExecutor() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = Files.createFile(fileSystem.getPath("file"));
+
+        final var walk = new BackgroundWalk(List.of(file));
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, walk::offerChunk, walk::isCancelled);
+        walk.start(walker, Runnable::run);
+
+        // The buffered chunk isn't passed on by the attaching thread, and the delivery waits for it.
+        final var tasks = new ArrayList<Runnable>();
+        final var paths = new ArrayList<Path>();
+        walk.attach(paths::addAll, directory -> {}, () -> false, tasks::add);
+        Assertions.assertTrue(paths.isEmpty());
+        Assertions.assertFalse(walk.getDelivery().isDone());
+
+        tasks.forEach(Runnable::run);
+        Assertions.assertEquals(List.of(file), paths);
+        Assertions.assertTrue(walk.getDelivery().isDone());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canPauseWalkWhilstBufferIsFull() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = Files.createDirectory(fileSystem.getPath("directory"));
+        for (int i = 0 ; i < 100 ; i++) {
+            Files.createFile(directory.resolve("file" + i));
+        }
+
+        final var walk = new BackgroundWalk(List.of(directory));
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 1, walk::offerChunk, walk::isCancelled);
+
+        final var threads = new ArrayList<Thread>();
+        walk.start(walker, runnable -> {
+            final var thread = new Thread(runnable);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        });
+
+        // The walker waits once the buffer is full, rather than buffering the entire directory.
+        final var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (threads.getFirst().getState() != Thread.State.WAITING) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "The walker never waited for the buffer.");
+            Thread.sleep(1);
+        }
+        Assertions.assertTrue(walk.getRecorder().toProgress().discoveredCount() < 100);
+
+        final var paths = Collections.synchronizedList(new ArrayList<Path>());
+        walk.attach(paths::addAll, ignored -> {}, () -> false, Runnable::run);
+        walk.getDelivery().get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(101, paths.size());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canPassOnResultsOnceAttached() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = Files.createFile(fileSystem.getPath("file"));
+
+        final var walk = new BackgroundWalk(List.of(file));
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, walk::offerChunk, walk::isCancelled);
+
+        final var paths = new ArrayList<Path>();
+        walk.attach(paths::addAll, directory -> {}, () -> false, Runnable::run);
+        walk.start(walker, Runnable::run);
+
+        Assertions.assertEquals(List.of(file), paths);
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canCancelWalk() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = Files.createFile(fileSystem.getPath("file"));
+
+        final var walk = new BackgroundWalk(List.of(file));
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, walk::offerChunk, walk::isCancelled);
+        walk.cancel();
+        walk.start(walker, Runnable::run);
+
+        final var paths = new ArrayList<Path>();
+        walk.attach(paths::addAll, directory -> {}, () -> false, Runnable::run);
+
+        Assertions.assertTrue(walk.isCancelled());
+        Assertions.assertTrue(walk.getCompletion().isCancelled());
+        Assertions.assertTrue(paths.isEmpty());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canCompleteExceptionallyWhenPathDoesNotExist() {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var walk = new BackgroundWalk(List.of(fileSystem.getPath("missing")));
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, walk::offerChunk, walk::isCancelled);
+        walk.start(walker, Runnable::run);
+
+        final var exception = Assertions.assertThrows(ExecutionException.class, () -> {
+            walk.getCompletion().get();
+        });
+        Assertions.assertInstanceOf(FileNotFoundException.class, exception.getCause());
+        Assertions.assertEquals(1, walk.getRecorder().toMetrics().failureCount());
+    }
+
+    @Test
+    public void cannotAttachWalkTwice() {
+        final var walk = new BackgroundWalk(List.of());
+        walk.attach(chunk -> {}, directory -> {}, () -> false, Runnable::run);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            walk.attach(chunk -> {}, directory -> {}, () -> false, Runnable::run);
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompactPathStorageTest {
+    @Test
+    public void canAddPath() {
+        final var storage = new CompactPathStorage();
+        Assertions.assertTrue(storage.add(Paths.get("directory", "file")));
+        Assertions.assertFalse(storage.add(Paths.get("directory", "file")));
+
+        Assertions.assertEquals(1, storage.size());
+        Assertions.assertEquals(Paths.get("directory", "file"), storage.get(0));
+        Assertions.assertEquals(0, storage.indexOf(Paths.get("directory", "file")));
+        Assertions.assertEquals(-1, storage.indexOf(Paths.get("directory", "other")));
+        Assertions.assertEquals(-1, storage.indexOf(Paths.get("other", "file")));
+    }
+
+    @Test
+    public void canAddUnusualPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var paths = List.of(
+            Paths.get("/"),
+            Paths.get(""),
+            Paths.get("file"),
+            Paths.get("/file"),
+            fileSystem.getPath("directory/ファイル"),
+            fileSystem.getPath("directory/ファイル/file"),
+            fileSystem.getPath("/"),
+            fileSystem.getPath("file"),
+            fileSystem.getPath("/directory/file")
+        );
+
+        final var storage = new CompactPathStorage();
+        for (final var path : paths) {
+            Assertions.assertTrue(storage.add(path), path::toString);
+        }
+
+        for (int i = 0 ; i < paths.size() ; i++) {
+            Assertions.assertEquals(paths.get(i), storage.get(i));
+            Assertions.assertEquals(i, storage.indexOf(paths.get(i)));
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canAddPathsWhoseNamesCannotBeEncoded() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        // An unpaired surrogate is encoded as a question mark, so these names would collide if they were stored as bytes.
+        final var paths = List.of(
+            fileSystem.getPath("directory/file\uD800"),
+            fileSystem.getPath("directory/file?"),
+            fileSystem.getPath("directory/file\uFFFD"),
+            fileSystem.getPath("directory/file\uD800/file"),
+            fileSystem.getPath("directory/\uD83D\uDE00")
+        );
+
+        final var storage = new CompactPathStorage();
+        for (final var path : paths) {
+            Assertions.assertTrue(storage.add(path), path::toString);
+        }
+
+        for (int i = 0 ; i < paths.size() ; i++) {
+            Assertions.assertEquals(paths.get(i), storage.get(i));
+            Assertions.assertEquals(i, storage.indexOf(paths.get(i)));
+        }
+
+        final var removed = new boolean[paths.size()];
+        removed[1] = true;
+        storage.removeAll(removed);
+        Assertions.assertEquals(-1, storage.indexOf(paths.get(1)));
+        Assertions.assertEquals(0, storage.indexOf(paths.get(0)));
+        Assertions.assertEquals(paths.get(2), storage.get(1));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canRemovePaths() {
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < 100 ; i++) {
+            paths.add(Paths.get("directory" + (i % 3), "file" + i));
+        }
+
+        final var storage = new CompactPathStorage();
+        paths.forEach(storage::add);
+
+        final var removed = new boolean[paths.size()];
+        final var expected = new ArrayList<Path>();
+        for (int i = 0 ; i < paths.size() ; i++) {
+            removed[i] = i % 3 == 0 || i % 7 == 0;
+
+            if (!removed[i]) {
+                expected.add(paths.get(i));
+            }
+        }
+        storage.removeAll(removed);
+
+        Assertions.assertEquals(expected.size(), storage.size());
+        for (int i = 0 ; i < expected.size() ; i++) {
+            Assertions.assertEquals(expected.get(i), storage.get(i));
+            Assertions.assertEquals(i, storage.indexOf(expected.get(i)));
+        }
+        Assertions.assertEquals(-1, storage.indexOf(paths.get(0)));
+    }
+
+    @Test
+    public void cannotGetPathWhenIndexIsOutOfBounds() {
+        final var storage = new CompactPathStorage();
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+            storage.get(0);
+        });
+    }
+
+    @Test
+    public void canUseLessMemoryThanHashedStorage() {
+        final var compactStorage = new CompactPathStorage();
+        final var hashedStorage = new HashedPathStorage();
+        for (int i = 0 ; i < 10_000 ; i++) {
+            final var path = Paths.get("/home/user/projects/assets/textures", "texture" + i + ".png");
+            compactStorage.add(path);
+            hashedStorage.add(path);
+        }
+
+        Assertions.assertTrue(compactStorage.estimateSizeInBytes() * 4 < hashedStorage.estimateSizeInBytes());
+    }
+}
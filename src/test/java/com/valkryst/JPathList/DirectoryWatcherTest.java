@@ -0,0 +1,120 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.google.common.jimfs.WatchServiceConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class DirectoryWatcherTest {
+    @Test
+    public void canCoalesceEvents() throws Exception {
+        final var fileSystem = newPollingFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+
+        final var batches = new LinkedBlockingQueue<DirectoryWatcher.Batch>();
+        try (final var watcher = new DirectoryWatcher(batches::add, 200)) {
+            watcher.register(directory);
+            Assertions.assertTrue(watcher.isWatching(directory));
+
+            Files.createFile(directory.resolve("fileA"));
+            Files.createFile(directory.resolve("fileB"));
+            Files.createFile(directory.resolve("fileC"));
+            Files.delete(directory.resolve("fileC"));
+
+            final var batch = batches.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(batch);
+            Assertions.assertEquals(Set.of(directory.resolve("fileA"), directory.resolve("fileB")), batch.created());
+            Assertions.assertTrue(batch.overflowed().isEmpty());
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canReportDeletedPaths() throws Exception {
+        final var fileSystem = newPollingFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        final var file = fileSystem.getPath("directory/file");
+        Files.createDirectory(directory);
+        Files.createFile(file);
+
+        final var batches = new LinkedBlockingQueue<DirectoryWatcher.Batch>();
+        try (final var watcher = new DirectoryWatcher(batches::add, 0)) {
+            watcher.register(directory);
+            Files.delete(file);
+
+            final var batch = batches.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(batch);
+            Assertions.assertEquals(Set.of(file), batch.deleted());
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canUnregisterDirectoriesWithinPath() throws IOException {
+        final var fileSystem = newPollingFileSystem();
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryA/directoryB");
+        final var directoryC = fileSystem.getPath("directoryC");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
+        Files.createDirectory(directoryC);
+
+        try (final var watcher = new DirectoryWatcher(batch -> {}, 0)) {
+            watcher.register(directoryA);
+            watcher.register(directoryB);
+            watcher.register(directoryC);
+            watcher.unregister(directoryA);
+
+            Assertions.assertFalse(watcher.isWatching(directoryA));
+            Assertions.assertFalse(watcher.isWatching(directoryB));
+            Assertions.assertTrue(watcher.isWatching(directoryC));
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotRegisterWhenClosed() throws IOException {
+        final var fileSystem = newPollingFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+
+        final var watcher = new DirectoryWatcher(batch -> {}, 0);
+        watcher.close();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            watcher.register(directory);
+        });
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotCreateWatcherWhenCoalescingIntervalIsNegative() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DirectoryWatcher(batch -> {}, -1);
+        });
+    }
+
+    /**
+     * Creates an in-memory file system whose watch service polls for changes frequently.
+     *
+     * @return The file system.
+     */
+    static FileSystem newPollingFileSystem() {
+        return Jimfs.newFileSystem(Configuration.unix().toBuilder()
+            .setWatchServiceConfiguration(WatchServiceConfiguration.polling(10, TimeUnit.MILLISECONDS))
+            .build());
+    }
+}
@@ -0,0 +1,162 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class DuplicateDetectorTest {
+    @Test
+    public void canKeepEveryPathInPathMode() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("file");
+        Files.createFile(file);
+
+        final var paths = List.of(file, file.toAbsolutePath());
+
+        final var detector = new DuplicateDetector(new ContentDigestCache(10));
+        Assertions.assertSame(paths, detector.register(paths));
+    }
+
+    @Test
+    public void canRejectPathsToSameFileInFileMode() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("file");
+        final var link = fileSystem.getPath("link");
+        final var copy = fileSystem.getPath("copy");
+        Files.write(file, new byte[] {1, 2, 3});
+        Files.createLink(link, file);
+        Files.write(copy, new byte[] {1, 2, 3});
+
+        final var detector = new DuplicateDetector(new ContentDigestCache(10));
+        detector.setMode(DuplicateMode.FILE, List.of());
+
+        final var uniquePaths = detector.register(List.of(file, file.toAbsolutePath(), link, copy));
+        Assertions.assertEquals(List.of(file, copy), uniquePaths);
+
+        // Equal paths are left to the model to reject.
+        Assertions.assertEquals(List.of(file), detector.register(List.of(file)));
+    }
+
+    @Test
+    public void canRejectIdenticalCopiesInContentMode() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        final var fileC = fileSystem.getPath("fileC");
+        final var directory = fileSystem.getPath("directory");
+        Files.write(fileA, new byte[] {1, 2, 3});
+        Files.write(fileB, new byte[] {1, 2, 3});
+        Files.write(fileC, new byte[] {1, 2, 4});
+        Files.createDirectory(directory);
+
+        final var cache = new ContentDigestCache(10);
+        final var detector = new DuplicateDetector(cache);
+        detector.setMode(DuplicateMode.CONTENT, List.of(fileA));
+
+        final var uniquePaths = detector.register(List.of(fileB, fileC, directory));
+        Assertions.assertEquals(List.of(fileC, directory), uniquePaths);
+        Assertions.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void canForgetPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.write(fileA, new byte[] {1, 2, 3});
+        Files.write(fileB, new byte[] {1, 2, 3});
+
+        final var cache = new ContentDigestCache(10);
+        final var detector = new DuplicateDetector(cache);
+        detector.setMode(DuplicateMode.CONTENT, List.of());
+
+        Assertions.assertEquals(List.of(fileA), detector.register(List.of(fileA, fileB)));
+
+        detector.forget(List.of(fileA));
+        Assertions.assertEquals(List.of(fileB), detector.register(List.of(fileB)));
+
+        // The digests of unmodified files are reused.
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void canHashModifiedFileAgain() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.write(fileA, new byte[] {1, 2, 3});
+        Files.write(fileB, new byte[] {1, 2, 4});
+
+        final var detector = new DuplicateDetector(new ContentDigestCache(10));
+        detector.setMode(DuplicateMode.CONTENT, List.of(fileA));
+        Assertions.assertEquals(List.of(fileB), detector.register(List.of(fileB)));
+        detector.forget(List.of(fileB));
+
+        // The modification time is moved forward, in case the file was written within the same tick.
+        final var lastModifiedTime = Files.getLastModifiedTime(fileB).toMillis();
+        Files.write(fileB, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(fileB, FileTime.fromMillis(lastModifiedTime + 1000));
+        Assertions.assertEquals(List.of(), detector.register(List.of(fileB)));
+    }
+
+    @Test
+    public void canDigestFilesLargerThanOneRegion() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+
+        final var contents = new byte[17 * 1024 * 1024];
+        Arrays.fill(contents, (byte) 7);
+        Files.write(fileA, contents);
+
+        contents[contents.length - 1] = 8;
+        Files.write(fileB, contents);
+
+        // The regions are hashed on the executor, and by the calling thread, which hashes any that it doesn't start.
+        final Executor executor = runnable -> {
+            throw new RejectedExecutionException();
+        };
+
+        final var digestA = ContentDigestCache.digest(fileA, Files.size(fileA), executor);
+        Assertions.assertArrayEquals(digestA, ContentDigestCache.digest(fileA, Files.size(fileA), PathWalker.DEFAULT_EXECUTOR));
+        Assertions.assertFalse(Arrays.equals(digestA, ContentDigestCache.digest(fileB, Files.size(fileB), executor)));
+    }
+
+    @Test
+    public void canDigestMappedFiles(final @TempDir Path directory) throws IOException {
+        final var fileA = directory.resolve("fileA");
+        final var fileB = directory.resolve("fileB");
+
+        final var contents = new byte[1024 * 1024];
+        Arrays.fill(contents, (byte) 7);
+        Files.write(fileA, contents);
+        Files.write(fileB, contents);
+
+        // The files on the default file system are mapped, whilst Jimfs doesn't support mapping, so its file is read.
+        final var fileSystem = Jimfs.newFileSystem();
+        final var unmappedFile = fileSystem.getPath("file");
+        Files.write(unmappedFile, contents);
+
+        final Executor executor = Runnable::run;
+        final var digest = ContentDigestCache.digest(fileA, contents.length, executor);
+        Assertions.assertArrayEquals(digest, ContentDigestCache.digest(fileB, contents.length, executor));
+        Assertions.assertArrayEquals(digest, ContentDigestCache.digest(unmappedFile, contents.length, executor));
+    }
+
+    @Test
+    public void cannotCreateContentDigestCacheWhenCapacityIsLessThanOne() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new ContentDigestCache(0);
+        });
+    }
+}
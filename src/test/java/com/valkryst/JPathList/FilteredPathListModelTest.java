@@ -0,0 +1,234 @@
+package com.valkryst.JPathList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class FilteredPathListModelTest {
+    @Test
+    public void canCreateFilteredPathListModel() {
+        final var source = new PathListModel();
+        source.addAll(List.of(Paths.get("a"), Paths.get("b")));
+
+        final var model = new FilteredPathListModel(source);
+        Assertions.assertSame(source, model.getSource());
+        Assertions.assertEquals("", model.getQuery());
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("b")), toList(model));
+    }
+
+    @Test
+    public void canFilterByQuery() {
+        final var source = new PathListModel();
+        source.addAll(List.of(Paths.get("dir", "Image.PNG"), Paths.get("dir", "notes.txt"), Paths.get("image", "photo.png")));
+
+        final var model = new FilteredPathListModel(source);
+
+        // Queries shorter than a trigram are matched by scanning every name.
+        model.setQuery("pn");
+        Assertions.assertEquals(List.of(Paths.get("dir", "Image.PNG"), Paths.get("image", "photo.png")), toList(model));
+
+        // Only the file name is matched, and not the parent directory.
+        model.setQuery("IMAGE");
+        Assertions.assertEquals("image", model.getQuery());
+        Assertions.assertEquals(List.of(Paths.get("dir", "Image.PNG")), toList(model));
+        Assertions.assertEquals(0, model.getSourceIndex(0));
+
+        model.setQuery("missing");
+        Assertions.assertEquals(0, model.getSize());
+
+        model.setQuery("");
+        Assertions.assertEquals(3, model.getSize());
+    }
+
+    @Test
+    public void cannotSetQueryWhenQueryIsNull() {
+        final var model = new FilteredPathListModel(new PathListModel());
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            model.setQuery(null);
+        });
+    }
+
+    @Test
+    public void canFireOneEventPerChangedRange() {
+        final var source = new PathListModel();
+        source.addAll(List.of(Paths.get("abc1"), Paths.get("xyz2"), Paths.get("xyz3"), Paths.get("abc4"), Paths.get("xyz5")));
+
+        final var model = new FilteredPathListModel(source);
+        model.setQuery("abc");
+
+        final var events = new ArrayList<ListDataEvent>();
+        model.addListDataListener(new RecordingListener(events));
+
+        // Narrowing the query removes the second match only.
+        model.setQuery("abc4");
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_REMOVED, events.get(0).getType());
+        Assertions.assertEquals(0, events.get(0).getIndex0());
+        Assertions.assertEquals(0, events.get(0).getIndex1());
+
+        // Clearing the query adds the paths before and after the remaining match.
+        events.clear();
+        model.setQuery("");
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(0).getType());
+        Assertions.assertEquals(0, events.get(0).getIndex0());
+        Assertions.assertEquals(2, events.get(0).getIndex1());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(1).getType());
+        Assertions.assertEquals(4, events.get(1).getIndex0());
+        Assertions.assertEquals(4, events.get(1).getIndex1());
+
+        // An unchanged query fires no events.
+        events.clear();
+        model.setQuery("");
+        Assertions.assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void canFollowModificationsOfSource() {
+        final var source = new PathListModel();
+        source.addAll(List.of(Paths.get("match1"), Paths.get("other1")));
+
+        final var model = new FilteredPathListModel(source);
+        model.setQuery("match");
+
+        final var events = new ArrayList<ListDataEvent>();
+        model.addListDataListener(new RecordingListener(events));
+
+        source.insertAll(1, List.of(Paths.get("match2"), Paths.get("other2"), Paths.get("match3")));
+        Assertions.assertEquals(List.of(Paths.get("match1"), Paths.get("match2"), Paths.get("match3")), toList(model));
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(1, events.get(0).getIndex0());
+        Assertions.assertEquals(2, events.get(0).getIndex1());
+
+        events.clear();
+        source.removeAll(List.of(Paths.get("match1"), Paths.get("other2"), Paths.get("match3")));
+        Assertions.assertEquals(List.of(Paths.get("match2")), toList(model));
+        Assertions.assertEquals(2, events.size());
+
+        events.clear();
+        source.remove(Paths.get("other1"));
+        Assertions.assertTrue(events.isEmpty());
+
+        source.clear();
+        Assertions.assertEquals(0, model.getSize());
+    }
+
+    @Test
+    public void canMatchBruteForceFilter() {
+        final var random = new Random(42);
+        final var source = new PathListModel();
+        source.setCompactStorageEnabled(true);
+
+        final var model = new FilteredPathListModel(source);
+
+        // The events are replayed onto a copy of the view, to check that they describe the changes exactly.
+        final var replayed = new ArrayList<Path>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(final ListDataEvent event) {
+                for (int i = event.getIndex0() ; i <= event.getIndex1() ; i++) {
+                    replayed.add(i, model.getElementAt(i));
+                }
+            }
+
+            @Override
+            public void intervalRemoved(final ListDataEvent event) {
+                replayed.subList(event.getIndex0(), event.getIndex1() + 1).clear();
+            }
+
+            @Override
+            public void contentsChanged(final ListDataEvent event) {
+                Assertions.fail("No contents should be changed.");
+            }
+        });
+
+        final var queries = List.of("", "a", "ab", "abc", "abcd", "bc", "cab", "zz", "b");
+        for (int round = 0 ; round < 200 ; round++) {
+            final var paths = new ArrayList<Path>();
+            for (int i = 0 ; i < 50 ; i++) {
+                paths.add(Paths.get("dir" + random.nextInt(5), randomName(random)));
+            }
+
+            if (random.nextBoolean()) {
+                source.addAll(paths);
+            } else {
+                source.insertAll(random.nextInt(source.getSize() + 1), paths);
+            }
+
+            final var removed = new ArrayList<Path>();
+            for (int i = 0 ; i < 30 && source.getSize() > 0 ; i++) {
+                removed.add(source.getElementAt(random.nextInt(source.getSize())));
+            }
+            source.removeAll(removed);
+
+            model.setQuery(queries.get(random.nextInt(queries.size())));
+
+            final var expected = new ArrayList<Path>();
+            for (final var path : source.toList()) {
+                if (path.getFileName().toString().toLowerCase(Locale.ROOT).contains(model.getQuery())) {
+                    expected.add(path);
+                }
+            }
+
+            Assertions.assertEquals(expected, toList(model));
+            Assertions.assertEquals(expected, replayed);
+        }
+    }
+
+    /**
+     * Creates a random name from a small alphabet, so that queries have many partial matches.
+     *
+     * @param random The source of randomness.
+     * @return The name.
+     */
+    private static String randomName(final Random random) {
+        final var builder = new StringBuilder();
+        final var length = 1 + random.nextInt(8);
+        for (int i = 0 ; i < length ; i++) {
+            builder.append("aAbBcdz".charAt(random.nextInt(7)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Retrieves the displayed paths of a model.
+     *
+     * @param model The model.
+     * @return The paths.
+     */
+    private static List<Path> toList(final FilteredPathListModel model) {
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < model.getSize() ; i++) {
+            paths.add(model.getElementAt(i));
+        }
+
+        return paths;
+    }
+
+    /** Records every {@link ListDataEvent} fired by a model. */
+    private record RecordingListener(List<ListDataEvent> events) implements ListDataListener {
+        @Override
+        public void intervalAdded(final ListDataEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void intervalRemoved(final ListDataEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void contentsChanged(final ListDataEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -3,15 +3,33 @@ package com.valkryst.JPathList;
 import com.google.common.jimfs.Jimfs;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
 public class JPathListTest {
     @Test
@@ -158,6 +176,43 @@ public class JPathListTest {
         Assertions.assertTrue(list.getPaths().contains(fileC));
     }
 
+    @Test
+    public void canAddDirectoryPathWithSingleEvent() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        for (int i = 0 ; i < 100 ; i++) {
+            Files.createFile(directory.resolve("file" + i));
+        }
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+
+        final var eventCount = new AtomicInteger();
+        list.getModel().addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(final ListDataEvent e) {
+                eventCount.incrementAndGet();
+            }
+
+            @Override
+            public void intervalRemoved(final ListDataEvent e) {
+                eventCount.incrementAndGet();
+            }
+
+            @Override
+            public void contentsChanged(final ListDataEvent e) {
+                eventCount.incrementAndGet();
+            }
+        });
+
+        list.addPath(directory);
+
+        Assertions.assertEquals(100, list.getPaths().size());
+        Assertions.assertEquals(1, eventCount.get());
+    }
+
     @Test
     public void cannotAddArrayOfPathsWhenArrayIsNull() {
         final var list = new JPathList();
@@ -229,146 +284,1249 @@ public class JPathListTest {
     }
 
     @Test
-    public void cannotRemovePathWhenPathIsNull() {
+    public void canAddStreamOfPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < 3000 ; i++) {
+            final var path = fileSystem.getPath("file" + i);
+            Files.createFile(path);
+            paths.add(path);
+        }
+
+        final var list = new JPathList();
+        list.addPaths(paths.stream());
+
+        Assertions.assertEquals(paths, list.getPaths());
+    }
+
+    @Test
+    public void cannotAddStreamOfPathsWhenStreamIsNull() {
         final var list = new JPathList();
         Assertions.assertThrows(NullPointerException.class, () -> {
-            list.removePath(null);
+            list.addPaths((Stream<Path>) null);
         });
     }
 
     @Test
-    public void canRemovePath() throws IOException {
+    public void canAddPathsFromPublisher() throws Exception {
         final var fileSystem = Jimfs.newFileSystem();
-        final var path = fileSystem.getPath("test");
-        Files.createFile(path);
+
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < 3000 ; i++) {
+            final var path = fileSystem.getPath("file" + i);
+            Files.createFile(path);
+            paths.add(path);
+        }
 
         final var list = new JPathList();
-        list.addPath(path);
-        list.removePath(path);
 
-        Assertions.assertEquals(0, list.getPaths().size());
+        final CompletableFuture<Void> future;
+        try (final var publisher = new SubmissionPublisher<Path>()) {
+            future = list.addPathsFrom(publisher);
+            paths.forEach(publisher::submit);
+        }
+        future.get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(paths, list.getPaths());
     }
 
     @Test
-    public void cannotRemoveArrayOfPathsWhenArrayIsNull() {
+    public void canAddPathsFromPublisherWhenOnePathDoesNotExist() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        Files.createFile(fileA);
+
         final var list = new JPathList();
-        Assertions.assertThrows(NullPointerException.class, () -> {
-            list.removePaths((Path[]) null);
+
+        final CompletableFuture<Void> future;
+        try (final var publisher = new SubmissionPublisher<Path>()) {
+            future = list.addPathsFrom(publisher);
+            publisher.submit(fileA);
+            publisher.submit(fileSystem.getPath("missing"));
+        }
+
+        final var exception = Assertions.assertThrows(ExecutionException.class, () -> {
+            future.get(5, TimeUnit.SECONDS);
         });
+        Assertions.assertInstanceOf(FileNotFoundException.class, exception.getCause());
+        Assertions.assertEquals(List.of(fileA), list.getPaths());
     }
 
     @Test
-    public void canRemoveArrayOfPathsWhenArrayIsEmpty() {
+    public void canAddPathsAsync() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var fileA = fileSystem.getPath("directoryA/fileA");
+        final var fileB = fileSystem.getPath("directoryA/fileB");
+        Files.createDirectory(directoryA);
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
         final var list = new JPathList();
-        list.removePaths();
-        Assertions.assertEquals(0, list.getPaths().size());
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPathsAsync(List.of(directoryA)).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(3, list.getPaths().size());
+        Assertions.assertEquals(directoryA, list.getPaths().get(0));
+        Assertions.assertTrue(list.getPaths().contains(fileA));
+        Assertions.assertTrue(list.getPaths().contains(fileB));
     }
 
     @Test
-    public void canRemoveArrayOfPaths() throws IOException {
+    public void canAddPathsAsyncWhenOnePathDoesNotExist() throws IOException {
         final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        Files.createFile(fileA);
+
+        final var list = new JPathList();
+        final var future = list.addPathsAsync(List.of(fileSystem.getPath("missing"), fileA));
 
+        final var exception = Assertions.assertThrows(ExecutionException.class, () -> {
+            future.get(5, TimeUnit.SECONDS);
+        });
+        Assertions.assertInstanceOf(FileNotFoundException.class, exception.getCause());
+        Assertions.assertEquals(List.of(fileA), list.getPaths());
+    }
+
+    @Test
+    public void canCancelAddPathsAsync() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
         final var fileA = fileSystem.getPath("fileA");
-        final var fileB = fileSystem.getPath("fileB");
         Files.createFile(fileA);
-        Files.createFile(fileB);
 
-        final var paths = new Path[] {fileA, fileB};
+        final var tasks = new ArrayList<Runnable>();
 
         final var list = new JPathList();
-        list.addPaths(paths);
-        list.removePaths(paths);
+        list.setIngestionExecutor(tasks::add);
 
+        final var future = list.addPathsAsync(List.of(fileA));
+        future.cancel(true);
+        tasks.forEach(Runnable::run);
+
+        Assertions.assertTrue(future.isCancelled());
         Assertions.assertEquals(0, list.getPaths().size());
     }
 
     @Test
-    public void cannotRemoveListOfPathsWhenArrayIsNull() {
+    public void canAddDirectoryAgainAfterCancellingAddPathsAsync() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = Files.createDirectory(fileSystem.getPath("directory"));
+        Files.createFile(directory.resolve("fileA"));
+        Files.createFile(directory.resolve("fileB"));
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setIngestionExecutor(Runnable::run);
+
+        // The directory is listed, and its chunk queued, before the future is cancelled, so the chunk is discarded. This
+        // is done on the Event Dispatch Thread, so that the chunk can't be published before the future is cancelled.
+        SwingUtilities.invokeAndWait(() -> list.addPathsAsync(List.of(directory)).cancel(true));
+        SwingUtilities.invokeAndWait(() -> {});
+        Assertions.assertEquals(0, list.getPaths().size());
+
+        // The directory's fingerprint was discarded along with the chunk, so it is listed again.
+        list.addPath(directory);
+        Assertions.assertEquals(3, list.getPaths().size());
+        Assertions.assertTrue(list.getPaths().contains(directory.resolve("fileA")));
+        Assertions.assertTrue(list.getPaths().contains(directory.resolve("fileB")));
+    }
+
+    @Test
+    public void canReportProgressOfAddPathsAsync() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        Files.createDirectory(directoryA);
+        Files.createFile(fileSystem.getPath("directoryA/fileA"));
+        Files.createFile(fileSystem.getPath("directoryA/fileB"));
+
+        final var progress = new CopyOnWriteArrayList<IngestionProgress>();
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPathsAsync(List.of(directoryA), progress::add).get(5, TimeUnit.SECONDS);
+
+        // The final progress is reported before the future completes.
+        final var finalProgress = progress.get(progress.size() - 1);
+        Assertions.assertEquals(3, finalProgress.discoveredCount());
+        Assertions.assertEquals(3, finalProgress.addedCount());
+        Assertions.assertEquals(directoryA, finalProgress.currentDirectory());
+    }
+
+    @Test
+    public void cannotAddPathsAsyncWhenProgressListenerIsNull() {
         final var list = new JPathList();
         Assertions.assertThrows(NullPointerException.class, () -> {
-            list.removePaths((List<Path>) null);
+            list.addPathsAsync(List.of(), null);
         });
     }
 
     @Test
-    public void canRemoveListOfPathsWhenArrayIsEmpty() {
+    public void cannotAddPathsAsyncWhenListIsNull() {
         final var list = new JPathList();
-        list.removePaths(new ArrayList<>());
-        Assertions.assertEquals(0, list.getPaths().size());
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.addPathsAsync(null);
+        });
     }
 
     @Test
-    public void canRemoveListOfPaths() throws IOException {
+    public void cannotSetIngestionExecutorWhenExecutorIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.setIngestionExecutor(null);
+        });
+    }
+
+    @Test
+    public void canReportIngestionMetrics() throws IOException {
         final var fileSystem = Jimfs.newFileSystem();
 
-        final var fileA = fileSystem.getPath("fileA");
-        final var fileB = fileSystem.getPath("fileB");
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryA/directoryB");
+        final var fileA = fileSystem.getPath("directoryA/fileA");
+        final var fileB = fileSystem.getPath("directoryA/fileB");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
         Files.createFile(fileA);
         Files.createFile(fileB);
 
-        final var paths = new ArrayList<Path>();
-        paths.add(fileA);
-        paths.add(fileB);
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+        list.addPath(fileA);
+
+        final var metrics = new ArrayList<IngestionMetrics>();
+        list.addIngestionListener(metrics::add);
+        list.addPath(directoryA);
+
+        Assertions.assertEquals(1, metrics.size());
+        // In this mode, subdirectories are not recursed, so directoryB is rejected.
+        Assertions.assertEquals(4, metrics.get(0).attributeReadCount());
+        Assertions.assertEquals(1, metrics.get(0).addedCount());
+        Assertions.assertEquals(1, metrics.get(0).duplicateCount());
+        Assertions.assertEquals(1, metrics.get(0).rejectedCount());
+        Assertions.assertEquals(0, metrics.get(0).failureCount());
+        Assertions.assertFalse(metrics.get(0).elapsedTime().isNegative());
+    }
+
+    @Test
+    public void canReportRejectedPathsInIngestionMetrics() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryA/directoryB");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
+        Files.createFile(fileSystem.getPath("directoryA/fileA"));
+        Files.createFile(fileSystem.getPath("directoryA/directoryB/fileB"));
+
+        final var metrics = new ArrayList<IngestionMetrics>();
 
         final var list = new JPathList();
-        list.addPaths(paths);
-        list.removePaths(paths);
+        list.setRecursionMode(JFileChooser.DIRECTORIES_ONLY);
+        list.addIngestionListener(metrics::add);
+        list.addPath(directoryA);
 
-        Assertions.assertEquals(0, list.getPaths().size());
+        Assertions.assertEquals(2, metrics.get(0).addedCount());
+        Assertions.assertEquals(2, metrics.get(0).rejectedCount());
     }
 
     @Test
-    public void canRemoveAllPaths() throws IOException {
+    public void canReportFailuresInIngestionMetrics() {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var metrics = new ArrayList<IngestionMetrics>();
+
+        final var list = new JPathList();
+        list.addIngestionListener(metrics::add);
+        Assertions.assertThrows(FileNotFoundException.class, () -> {
+            list.addPath(fileSystem.getPath("missing"));
+        });
+
+        Assertions.assertEquals(1, metrics.size());
+        Assertions.assertEquals(1, metrics.get(0).failureCount());
+        Assertions.assertEquals(0, metrics.get(0).addedCount());
+    }
+
+    @Test
+    public void canReportIngestionMetricsAsync() throws Exception {
         final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        Files.createFile(fileA);
+
+        final var metrics = new CompletableFuture<IngestionMetrics>();
+
+        final var list = new JPathList();
+        list.addIngestionListener(metrics::complete);
+
+        final var future = list.addPathsAsync(List.of(fileSystem.getPath("missing"), fileA));
+        Assertions.assertThrows(ExecutionException.class, () -> {
+            future.get(5, TimeUnit.SECONDS);
+        });
 
+        Assertions.assertEquals(1, metrics.get(5, TimeUnit.SECONDS).addedCount());
+        Assertions.assertEquals(1, metrics.get(5, TimeUnit.SECONDS).failureCount());
+    }
+
+    @Test
+    public void canRemoveIngestionListener() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
         final var fileA = fileSystem.getPath("fileA");
-        final var fileB = fileSystem.getPath("fileB");
         Files.createFile(fileA);
-        Files.createFile(fileB);
+
+        final var metrics = new ArrayList<IngestionMetrics>();
+        final IngestionListener listener = metrics::add;
 
         final var list = new JPathList();
+        list.addIngestionListener(listener);
+        Assertions.assertEquals(1, list.getIngestionListeners().length);
+
+        list.removeIngestionListener(listener);
         list.addPath(fileA);
-        list.addPath(fileB);
-        list.removeAllPaths();
 
-        Assertions.assertEquals(0, list.getPaths().size());
+        Assertions.assertEquals(0, list.getIngestionListeners().length);
+        Assertions.assertTrue(metrics.isEmpty());
     }
 
     @Test
-    public void canSetDragAndDropEnabled() {
+    public void cannotAddIngestionListenerWhenListenerIsNull() {
         final var list = new JPathList();
-        list.setDragAndDropEnabled(false);
-        Assertions.assertFalse(list.isDragAndDropEnabled());
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.addIngestionListener(null);
+        });
     }
 
     @Test
-    public void canSetEnabled() {
-        final boolean[][] testCases = {
-            // isEnabled, isDragAndDropEnabled, expected
-            {true, true, true},
-            {true, false, false},
-            {false, true, false},
-            {false, false, false}
-        };
+    public void canSyncWithDiskWhenWatchIsEnabled() throws Exception {
+        final var fileSystem = DirectoryWatcherTest.newPollingFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var fileA = fileSystem.getPath("directoryA/fileA");
+        final var fileB = fileSystem.getPath("directoryA/fileB");
+        Files.createDirectory(directoryA);
+        Files.createFile(fileA);
 
         final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setWatchEnabled(true);
+        list.addPath(directoryA);
+        Assertions.assertEquals(List.of(directoryA, fileA), list.getPaths());
 
-        for (final var testCase : testCases) {
-            list.setDragAndDropEnabled(testCase[1]);
-            list.setEnabled(testCase[0]);
+        Files.createFile(fileB);
+        waitUntil(() -> list.getPaths().contains(fileB));
 
-            if (testCase[2]) {
-                Assertions.assertNotNull(list.getDropTarget());
-            } else {
-                Assertions.assertNull(list.getDropTarget());
-            }
-        }
+        // A rename is applied as the removal of the old path, and the addition of the new path.
+        final var directoryB = fileSystem.getPath("directoryA/directoryB");
+        final var fileC = fileSystem.getPath("directoryA/directoryB/fileC");
+        Files.createDirectory(directoryB);
+        Files.move(fileA, fileC);
+        waitUntil(() -> list.getPaths().contains(fileC) && !list.getPaths().contains(fileA));
+
+        Files.delete(fileC);
+        Files.delete(directoryB);
+        waitUntil(() -> list.getPaths().equals(List.of(directoryA, fileB)));
+
+        list.setWatchEnabled(false);
+        Assertions.assertFalse(list.isWatchEnabled());
+
+        fileSystem.close();
     }
 
     @Test
-    public void canSetRecursionMode() {
+    public void canStopWatchingRemovedDirectory() throws Exception {
+        final var fileSystem = DirectoryWatcherTest.newPollingFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryB");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
+
         final var list = new JPathList();
         list.setRecursionMode(JFileChooser.FILES_ONLY);
-        Assertions.assertEquals(JFileChooser.FILES_ONLY, list.getRecursionMode());
+        list.setWatchEnabled(true);
+        list.addPaths(directoryA, directoryB);
+        list.removePath(directoryA);
+
+        Files.createFile(directoryA.resolve("fileA"));
+        Files.createFile(directoryB.resolve("fileB"));
+        waitUntil(() -> list.getPaths().contains(directoryB.resolve("fileB")));
+
+        Assertions.assertEquals(List.of(directoryB.resolve("fileB")), list.getPaths());
+
+        list.setWatchEnabled(false);
+        fileSystem.close();
+    }
+
+    @Test
+    public void canSaveAndRestorePaths() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var fileA = fileSystem.getPath("directoryA/fileA");
+        final var fileB = fileSystem.getPath("directoryA/fileB");
+        Files.createDirectory(directoryA);
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPath(directoryA);
+
+        final var file = fileSystem.getPath("session.bin");
+        list.savePaths(file);
+
+        final var restoredList = new JPathList();
+        restoredList.restorePaths(file, false).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(list.getPaths(), restoredList.getPaths());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canRemoveStalePathsWhenRestoringPaths() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var list = new JPathList();
+        list.addPaths(fileA, fileB);
+
+        final var file = fileSystem.getPath("session.bin");
+        list.savePaths(file);
+        Files.delete(fileA);
+
+        final var restoredList = new JPathList();
+        final var future = restoredList.restorePaths(file, true);
+
+        // The paths are restored immediately, and are only validated in the background.
+        Assertions.assertEquals(2, restoredList.getPaths().size());
+
+        future.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of(fileB), restoredList.getPaths());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canRejectDuplicatesOfRestoredPaths() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.write(fileA, new byte[] {1, 2, 3});
+        Files.write(fileB, new byte[] {1, 2, 3});
+
+        final var list = new JPathList();
+        list.addPath(fileA);
+
+        final var file = fileSystem.getPath("session.bin");
+        list.savePaths(file);
+
+        // The restored path is registered in the background, so a copy of it is rejected once the future completes.
+        final var restoredList = new JPathList();
+        restoredList.setDuplicateMode(DuplicateMode.CONTENT);
+        restoredList.restorePaths(file, false).get(5, TimeUnit.SECONDS);
+
+        restoredList.addPath(fileB);
+        Assertions.assertEquals(List.of(fileA), restoredList.getPaths());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotRestorePathsWhenFileIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.restorePaths(null, false);
+        });
+    }
+
+    @Test
+    public void canReAddUnchangedDirectoryWithoutListingIt() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        Files.createDirectory(directoryA);
+        for (int i = 0 ; i < 10 ; i++) {
+            Files.createFile(directoryA.resolve("file" + i));
+        }
+
+        final var metrics = new ArrayList<IngestionMetrics>();
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+        list.addIngestionListener(metrics::add);
+        list.addPath(directoryA);
+        list.addPath(directoryA);
+
+        Assertions.assertEquals(11, metrics.get(0).attributeReadCount());
+        Assertions.assertEquals(1, metrics.get(1).attributeReadCount());
+        Assertions.assertEquals(10, list.getPaths().size());
+
+        // Once one of its paths is removed, the directory must be listed again to restore it.
+        list.removePath(directoryA.resolve("file0"));
+        list.addPath(directoryA);
+        Assertions.assertEquals(10, list.getPaths().size());
+    }
+
+    @Test
+    public void canRefreshPath() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryA/directoryB");
+        final var fileA = fileSystem.getPath("directoryA/fileA");
+        final var fileB = fileSystem.getPath("directoryA/directoryB/fileB");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPath(directoryA);
+
+        final var directoryC = fileSystem.getPath("directoryA/directoryC");
+        final var fileC = fileSystem.getPath("directoryA/directoryB/fileC");
+        final var fileD = fileSystem.getPath("directoryA/directoryC/fileD");
+        Files.delete(fileA);
+        Files.createFile(fileC);
+        Files.createDirectory(directoryC);
+        Files.createFile(fileD);
+
+        list.refreshPath(directoryA);
+
+        Assertions.assertEquals(Set.of(directoryA, directoryB, fileB, fileC, directoryC, fileD), new HashSet<>(list.getPaths()));
+        Assertions.assertEquals(6, list.getPaths().size());
+    }
+
+    @Test
+    public void canRefreshUnchangedPathWithoutListingIt() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryA/directoryB");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
+        Files.createFile(fileSystem.getPath("directoryA/fileA"));
+        Files.createFile(fileSystem.getPath("directoryA/directoryB/fileB"));
+
+        final var metrics = new ArrayList<IngestionMetrics>();
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPath(directoryA);
+        list.addIngestionListener(metrics::add);
+        list.refreshPath(directoryA);
+
+        // Only the two directories are checked.
+        Assertions.assertEquals(2, metrics.get(0).attributeReadCount());
+        Assertions.assertEquals(0, metrics.get(0).addedCount());
+        Assertions.assertEquals(4, list.getPaths().size());
+    }
+
+    @Test
+    public void canRefreshDeletedPath() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var fileA = fileSystem.getPath("directoryA/fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.createDirectory(directoryA);
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPaths(directoryA, fileB);
+
+        Files.delete(fileA);
+        Files.delete(directoryA);
+        list.refreshPath(directoryA);
+
+        Assertions.assertEquals(List.of(fileB), list.getPaths());
+    }
+
+    @Test
+    public void cannotRemovePathWhenPathIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.removePath(null);
+        });
+    }
+
+    @Test
+    public void canRemovePath() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var path = fileSystem.getPath("test");
+        Files.createFile(path);
+
+        final var list = new JPathList();
+        list.addPath(path);
+        list.removePath(path);
+
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @Test
+    public void canRemovePathsIf() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var fileA = fileSystem.getPath("fileA.txt");
+        final var fileB = fileSystem.getPath("fileB.png");
+        final var fileC = fileSystem.getPath("fileC.txt");
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+        Files.createFile(fileC);
+
+        final var list = new JPathList();
+        list.addPaths(fileA, fileB, fileC);
+
+        Assertions.assertEquals(2, list.removeIf(path -> path.toString().endsWith(".txt")));
+        Assertions.assertEquals(List.of(fileB), list.getPaths());
+    }
+
+    @Test
+    public void canRemoveSubtree() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        final var subdirectory = directory.resolve("subdirectory");
+        Files.createDirectories(subdirectory);
+        Files.createFile(directory.resolve("fileA"));
+        Files.createFile(subdirectory.resolve("fileB"));
+
+        final var sibling = fileSystem.getPath("directory-sibling");
+        Files.createFile(sibling);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.addPaths(directory, sibling);
+        Assertions.assertEquals(5, list.getPaths().size());
+
+        Assertions.assertEquals(2, list.removeSubtree(subdirectory));
+        Assertions.assertEquals(3, list.getPaths().size());
+        Assertions.assertFalse(list.getPaths().contains(subdirectory.resolve("fileB")));
+        Assertions.assertTrue(list.getPaths().contains(sibling));
+    }
+
+    @Test
+    public void cannotRemoveArrayOfPathsWhenArrayIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.removePaths((Path[]) null);
+        });
+    }
+
+    @Test
+    public void canRemoveArrayOfPathsWhenArrayIsEmpty() {
+        final var list = new JPathList();
+        list.removePaths();
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @Test
+    public void canRemoveArrayOfPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var paths = new Path[] {fileA, fileB};
+
+        final var list = new JPathList();
+        list.addPaths(paths);
+        list.removePaths(paths);
+
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @Test
+    public void cannotRemoveListOfPathsWhenArrayIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.removePaths((List<Path>) null);
+        });
+    }
+
+    @Test
+    public void canRemoveListOfPathsWhenArrayIsEmpty() {
+        final var list = new JPathList();
+        list.removePaths(new ArrayList<>());
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @Test
+    public void canRemoveListOfPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var paths = new ArrayList<Path>();
+        paths.add(fileA);
+        paths.add(fileB);
+
+        final var list = new JPathList();
+        list.addPaths(paths);
+        list.removePaths(paths);
+
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @Test
+    public void canRemoveAllPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var list = new JPathList();
+        list.addPath(fileA);
+        list.addPath(fileB);
+        list.removeAllPaths();
+
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @Test
+    public void canGetPathsSnapshot() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        Files.createFile(fileA);
+
+        final var list = new JPathList();
+        list.addPath(fileA);
+
+        Assertions.assertEquals(List.of(fileA), list.getPathsSnapshot());
+        Assertions.assertSame(list.getPathsSnapshot(), list.getPathsSnapshot());
+    }
+
+    @Test
+    public void canSetDragAndDropEnabled() {
+        final var list = new JPathList();
+        list.setDragAndDropEnabled(false);
+        Assertions.assertFalse(list.isDragAndDropEnabled());
+    }
+
+    @Test
+    public void canSetEnabled() {
+        final boolean[][] testCases = {
+            // isEnabled, isDragAndDropEnabled, expected
+            {true, true, true},
+            {true, false, false},
+            {false, true, false},
+            {false, false, false}
+        };
+
+        final var list = new JPathList();
+
+        for (final var testCase : testCases) {
+            list.setDragAndDropEnabled(testCase[1]);
+            list.setEnabled(testCase[0]);
+
+            if (testCase[2]) {
+                Assertions.assertNotNull(list.getDropTarget());
+            } else {
+                Assertions.assertNull(list.getDropTarget());
+            }
+        }
+    }
+
+    @Test
+    public void canAddPathsConcurrently() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        PathWalkerTest.createTree(root, 2, 4);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0 ; i < 4 ; i++) {
+                futures.add(executor.submit(() -> {
+                    list.addPath(root);
+                    return null;
+                }));
+            }
+
+            for (final var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final var paths = list.getPaths();
+        Assertions.assertEquals(new HashSet<>(paths).size(), paths.size());
+
+        // 1 root, 4 + 16 subdirectories, and 4 files in each of the 21 directories.
+        Assertions.assertEquals(105, paths.size());
+    }
+
+    @Test
+    public void canSetTraversalParallelism() {
+        final var list = new JPathList();
+        list.setTraversalParallelism(4);
+        Assertions.assertEquals(4, list.getTraversalParallelism());
+    }
+
+    @Test
+    public void canSetTraversalExecutor() {
+        final var list = new JPathList();
+        Assertions.assertNotNull(list.getTraversalExecutor());
+
+        final Executor executor = Runnable::run;
+        list.setTraversalExecutor(executor);
+        Assertions.assertSame(executor, list.getTraversalExecutor());
+    }
+
+    @Test
+    public void cannotSetTraversalExecutorWhenExecutorIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.setTraversalExecutor(null);
+        });
+    }
+
+    @Test
+    public void cannotSetTraversalParallelismWhenParallelismIsInvalid() {
+        final var list = new JPathList();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            list.setTraversalParallelism(0);
+        });
+    }
+
+    @Test
+    public void canAddDirectoryPathInParallel() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        PathWalkerTest.createTree(root, 2, 3);
+
+        final var sequentialList = new JPathList();
+        sequentialList.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        sequentialList.addPath(root);
+
+        final var parallelList = new JPathList();
+        parallelList.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        parallelList.setTraversalParallelism(4);
+        parallelList.addPath(root);
+
+        Assertions.assertEquals(sequentialList.getPaths(), parallelList.getPaths());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {JFileChooser.FILES_ONLY, JFileChooser.DIRECTORIES_ONLY, JFileChooser.FILES_AND_DIRECTORIES})
+    public void canAddDirectoryPathWithLazyExpansion(final int recursionMode) throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        PathWalkerTest.createTree(root, 2, 3);
+
+        final var eagerList = new JPathList();
+        eagerList.setRecursionMode(recursionMode);
+        eagerList.addPath(root);
+
+        final var lazyList = new JPathList();
+        lazyList.setRecursionMode(recursionMode);
+        lazyList.setLazyExpansionEnabled(true);
+        lazyList.addPath(root);
+
+        // Only the root has been added, as nothing has been displayed.
+        Assertions.assertEquals(1, lazyList.getModel().getSize());
+        Assertions.assertEquals(root, lazyList.getModel().getElementAt(0));
+
+        Assertions.assertEquals(eagerList.getPaths(), lazyList.getPaths());
+        Assertions.assertEquals(eagerList.getModel().getSize(), lazyList.getModel().getSize());
+    }
+
+    @Test
+    public void canExpandDisplayedDirectoryOnIngestionExecutor() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        Files.createDirectories(root.resolve("directory"));
+        Files.createFile(root.resolve("fileA"));
+
+        final var tasks = new ArrayList<Runnable>();
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setLazyExpansionEnabled(true);
+        list.setIngestionExecutor(tasks::add);
+        list.addPath(root);
+
+        // Painting the unexpanded root starts its expansion, which is walked on the ingestion executor.
+        list.setSize(200, 200);
+        list.paint(new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB).createGraphics());
+        Assertions.assertEquals(1, tasks.size());
+        Assertions.assertEquals(1, list.getModel().getSize());
+
+        // Painting again, before the expansion has completed, doesn't expand the root twice.
+        list.paint(new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB).createGraphics());
+        Assertions.assertEquals(1, tasks.size());
+
+        tasks.forEach(Runnable::run);
+        SwingUtilities.invokeAndWait(() -> {});
+
+        Assertions.assertEquals(3, list.getModel().getSize());
+        Assertions.assertEquals(root, list.getModel().getElementAt(0));
+    }
+
+    @Test
+    public void canRemoveUnexpandedDirectoryPath() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        PathWalkerTest.createTree(root, 1, 2);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setLazyExpansionEnabled(true);
+        list.addPath(root);
+        list.removePath(root);
+
+        Assertions.assertEquals(0, list.getPaths().size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void canAddDirectoryPathWithMaxDepth(final boolean isLazy) throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        PathWalkerTest.createTree(root, 3, 2);
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setLazyExpansionEnabled(isLazy);
+        list.setMaxDepth(2);
+        list.addPath(root);
+
+        // The root and its subdirectories are listed, whilst their subdirectories are added without being listed.
+        final var paths = list.getPaths();
+        Assertions.assertEquals(13, paths.size());
+        for (final var path : paths) {
+            Assertions.assertTrue(root.relativize(path).getNameCount() <= 2);
+        }
+    }
+
+    @Test
+    public void canSetDragPrescanEnabled() {
+        final var list = new JPathList();
+        Assertions.assertTrue(list.isDragPrescanEnabled());
+
+        list.setDragPrescanEnabled(false);
+        Assertions.assertFalse(list.isDragPrescanEnabled());
+    }
+
+    @Test
+    public void canRejectDuplicateContentsWhenAddingPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+
+        final var fileA = directory.resolve("fileA");
+        final var fileB = directory.resolve("fileB");
+        final var fileC = directory.resolve("fileC");
+        Files.write(fileA, new byte[] {1, 2, 3});
+        Files.write(fileB, new byte[] {1, 2, 3});
+        Files.write(fileC, new byte[] {4, 5, 6});
+
+        final var metrics = new ArrayList<IngestionMetrics>();
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setDuplicateMode(DuplicateMode.CONTENT);
+        list.addIngestionListener(metrics::add);
+        list.addPath(directory);
+
+        Assertions.assertEquals(3, list.getPaths().size());
+        Assertions.assertTrue(list.getPaths().contains(fileC));
+        Assertions.assertEquals(1, metrics.get(0).duplicateCount());
+
+        // Once the retained copy has been removed, the other copy can be added.
+        final var retainedCopy = list.getPaths().contains(fileA) ? fileA : fileB;
+        final var otherCopy = retainedCopy == fileA ? fileB : fileA;
+        list.removePath(retainedCopy);
+        list.addPath(otherCopy);
+        Assertions.assertTrue(list.getPaths().contains(otherCopy));
+    }
+
+    @Test
+    public void canAddDirectoryWithRejectedDuplicateAgainAfterOriginalIsRemoved() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directoryA = fileSystem.getPath("directoryA");
+        final var directoryB = fileSystem.getPath("directoryB");
+        Files.createDirectory(directoryA);
+        Files.createDirectory(directoryB);
+
+        final var fileA = directoryA.resolve("fileA");
+        final var fileB = directoryB.resolve("fileB");
+        Files.write(fileA, new byte[] {1, 2, 3});
+        Files.write(fileB, new byte[] {1, 2, 3});
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setDuplicateMode(DuplicateMode.CONTENT);
+        list.addPath(directoryA);
+        list.addPath(directoryB);
+        Assertions.assertFalse(list.getPaths().contains(fileB));
+
+        // The second directory's fingerprint wasn't recorded, as its file was rejected, so it's listed again.
+        list.removePath(fileA);
+        list.refreshPath(directoryB);
+        Assertions.assertTrue(list.getPaths().contains(fileB));
+
+        // Changing the mode discards the fingerprints, so a file which was previously rejected can be added.
+        list.removePath(fileB);
+        list.addPath(fileA);
+        list.refreshPath(directoryB);
+        Assertions.assertFalse(list.getPaths().contains(fileB));
+
+        list.setDuplicateMode(DuplicateMode.PATH);
+        list.refreshPath(directoryB);
+        Assertions.assertTrue(list.getPaths().contains(fileB));
+    }
+
+    @Test
+    public void canRejectPathsToSameFileWhenAddingPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("file");
+        Files.createFile(file);
+
+        final var list = new JPathList();
+        list.addPath(file);
+        list.setDuplicateMode(DuplicateMode.FILE);
+        list.addPath(file.toAbsolutePath());
+
+        Assertions.assertEquals(List.of(file), list.getPaths());
+    }
+
+    @Test
+    public void canSetDuplicateMode() {
+        final var list = new JPathList();
+        Assertions.assertEquals(DuplicateMode.PATH, list.getDuplicateMode());
+
+        list.setDuplicateMode(DuplicateMode.CONTENT);
+        Assertions.assertEquals(DuplicateMode.CONTENT, list.getDuplicateMode());
+    }
+
+    @Test
+    public void cannotSetDuplicateModeWhenModeIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.setDuplicateMode(null);
+        });
+    }
+
+    @Test
+    public void canSetMaxDepth() {
+        final var list = new JPathList();
+        Assertions.assertEquals(Integer.MAX_VALUE, list.getMaxDepth());
+
+        list.setMaxDepth(3);
+        Assertions.assertEquals(3, list.getMaxDepth());
+    }
+
+    @Test
+    public void cannotSetMaxDepthWhenDepthIsNegative() {
+        final var list = new JPathList();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            list.setMaxDepth(-1);
+        });
+    }
+
+    @Test
+    public void canSetFollowLinksEnabled() {
+        final var list = new JPathList();
+        Assertions.assertTrue(list.isFollowLinksEnabled());
+
+        list.setFollowLinksEnabled(false);
+        Assertions.assertFalse(list.isFollowLinksEnabled());
+    }
+
+    @Test
+    public void canSetRecursionMode() {
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+        Assertions.assertEquals(JFileChooser.FILES_ONLY, list.getRecursionMode());
+    }
+
+    @Test
+    public void canAddDirectoryPathWithPathFilter() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        final var subdirectory = directory.resolve("subdirectory");
+        final var hiddenDirectory = directory.resolve(".hidden");
+        Files.createDirectories(subdirectory);
+        Files.createDirectories(hiddenDirectory);
+        Files.createFile(directory.resolve("a.png"));
+        Files.createFile(directory.resolve("b.txt"));
+        Files.createFile(subdirectory.resolve("c.PNG"));
+        Files.createFile(hiddenDirectory.resolve("d.png"));
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        list.setPathFilter(PathFilter.extensions("png").and(PathFilter.excludeHidden()));
+
+        final var metrics = new ArrayList<IngestionMetrics>();
+        list.addIngestionListener(metrics::add);
+        list.addPath(directory);
+
+        Assertions.assertEquals(Set.of(directory, subdirectory, directory.resolve("a.png"), subdirectory.resolve("c.PNG")), new HashSet<>(list.getPaths()));
+
+        // The text file and the hidden directory are rejected, and the hidden directory is never listed.
+        Assertions.assertEquals(1, metrics.size());
+        Assertions.assertEquals(2, metrics.get(0).rejectedCount());
+    }
+
+    @Test
+    public void canReAddDirectoryPathAfterChangingPathFilter() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        Files.createFile(directory.resolve("a.png"));
+        Files.createFile(directory.resolve("b.txt"));
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+        list.setPathFilter(PathFilter.glob("*.png"));
+        list.addPath(directory);
+        Assertions.assertEquals(List.of(directory.resolve("a.png")), list.getPaths());
+
+        // The directory is unchanged, but it must be listed again, as the previous listing skipped the text file.
+        list.setPathFilter(PathFilter.acceptAll());
+        list.addPath(directory);
+        Assertions.assertEquals(Set.of(directory.resolve("a.png"), directory.resolve("b.txt")), new HashSet<>(list.getPaths()));
+    }
+
+    @Test
+    public void canSetPathFilter() {
+        final var filter = PathFilter.glob("*.png");
+
+        final var list = new JPathList();
+        list.setPathFilter(filter);
+        Assertions.assertSame(filter, list.getPathFilter());
+    }
+
+    @Test
+    public void cannotSetPathFilterWhenFilterIsNull() {
+        final var list = new JPathList();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            list.setPathFilter(null);
+        });
+    }
+
+    @Test
+    public void canSetSearchQuery() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        Files.createFile(directory.resolve("image.png"));
+        Files.createFile(directory.resolve("notes.txt"));
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+        list.addPath(directory);
+
+        list.setSearchQuery("PNG");
+        Assertions.assertEquals("png", list.getSearchQuery());
+        Assertions.assertEquals(1, list.getModel().getSize());
+        Assertions.assertEquals(directory.resolve("image.png"), list.getModel().getElementAt(0));
+        Assertions.assertEquals(2, list.getPaths().size());
+
+        list.setSearchQuery("");
+        Assertions.assertEquals(2, list.getModel().getSize());
+    }
+
+    @Test
+    public void canSetSortOrder() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        for (final var name : List.of("c.png", "a.txt", "b.png")) {
+            Files.createFile(directory.resolve(name));
+        }
+
+        final var list = new JPathList();
+        list.setRecursionMode(JFileChooser.FILES_ONLY);
+        list.addPath(directory);
+
+        list.setSearchQuery("png");
+        list.setSortOrder(SortedPathListModel.SortKey.NAME, true);
+        Assertions.assertEquals(SortedPathListModel.SortKey.NAME, list.getSortKey());
+        Assertions.assertTrue(list.isSortAscending());
+        Assertions.assertEquals("png", list.getSearchQuery());
+        Assertions.assertEquals(2, list.getModel().getSize());
+        Assertions.assertEquals(directory.resolve("b.png"), list.getModel().getElementAt(0));
+        Assertions.assertEquals(directory.resolve("c.png"), list.getModel().getElementAt(1));
+
+        // Paths added afterwards are displayed in sorted order.
+        Files.createFile(directory.resolve("a.png"));
+        list.addPath(directory.resolve("a.png"));
+        Assertions.assertEquals(directory.resolve("a.png"), list.getModel().getElementAt(0));
+
+        list.setSortOrder(null, true);
+        Assertions.assertNull(list.getSortKey());
+
+        final var pngPaths = list.getPaths().stream().filter(path -> path.toString().endsWith(".png")).toList();
+        for (int i = 0 ; i < pngPaths.size() ; i++) {
+            Assertions.assertEquals(pngPaths.get(i), list.getModel().getElementAt(i));
+        }
+    }
+
+    @Test
+    public void canSetAttributePrefetchEnabled() {
+        final var list = new JPathList();
+        Assertions.assertFalse(list.isAttributePrefetchEnabled());
+
+        list.setAttributePrefetchEnabled(true);
+        Assertions.assertTrue(list.isAttributePrefetchEnabled());
+    }
+
+    @Test
+    public void canInvalidateAttributesOfRemovedPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = Files.createFile(fileSystem.getPath("file"));
+
+        final var list = new JPathList();
+        list.setIngestionExecutor(Runnable::run);
+        list.addPath(file);
+
+        list.getAttributeCache().prefetch(List.of(file));
+        Assertions.assertTrue(list.getAttributeCache().contains(file));
+
+        list.removePath(file);
+        Assertions.assertFalse(list.getAttributeCache().contains(file));
+    }
+
+    /**
+     * Waits for a condition to become true, failing the test if it does not within five seconds.
+     *
+     * @param condition The condition.
+     */
+    private static void waitUntil(final BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("The condition was not met within five seconds.");
+            }
+
+            Thread.sleep(10);
+        }
     }
 }
@@ -0,0 +1,96 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PathAttributeCacheTest {
+    @Test
+    public void canPrefetchAttributes() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("file");
+        Files.write(file, new byte[10]);
+
+        final var loadCount = new AtomicInteger();
+        final var cache = new PathAttributeCache(10, Runnable::run, loadCount::incrementAndGet);
+        Assertions.assertNull(cache.getAttributes(file));
+
+        cache.prefetch(List.of(file));
+        Assertions.assertEquals(10, cache.getAttributes(file).size());
+        Assertions.assertEquals(1, loadCount.get());
+
+        // Cached paths aren't read again.
+        cache.prefetch(List.of(file));
+        Assertions.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void canCacheUnreadablePaths() {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var missing = fileSystem.getPath("missing");
+
+        final var loadCount = new AtomicInteger();
+        final var cache = new PathAttributeCache(10, Runnable::run, loadCount::incrementAndGet);
+
+        cache.prefetch(List.of(missing));
+        cache.prefetch(List.of(missing));
+        Assertions.assertTrue(cache.contains(missing));
+        Assertions.assertNull(cache.getAttributes(missing));
+        Assertions.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void canEvictLeastRecentlyUsedAttributes() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < 3 ; i++) {
+            paths.add(Files.createFile(fileSystem.getPath("file" + i)));
+        }
+
+        final var cache = new PathAttributeCache(2, Runnable::run, () -> {});
+        cache.prefetch(paths.subList(0, 2));
+
+        // Using the first path makes the second the least recently used.
+        Assertions.assertNotNull(cache.getAttributes(paths.get(0)));
+        cache.prefetch(paths.subList(2, 3));
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.contains(paths.get(0)));
+        Assertions.assertFalse(cache.contains(paths.get(1)));
+        Assertions.assertTrue(cache.contains(paths.get(2)));
+    }
+
+    @Test
+    public void canInvalidateAttributes() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = Files.createFile(fileSystem.getPath("file"));
+
+        final var cache = new PathAttributeCache(10, Runnable::run, () -> {});
+        cache.prefetch(List.of(file));
+        Files.write(file, new byte[5]);
+        Assertions.assertEquals(0, cache.getAttributes(file).size());
+
+        cache.invalidate(file);
+        Assertions.assertFalse(cache.contains(file));
+
+        cache.prefetch(List.of(file));
+        Assertions.assertEquals(5, cache.getAttributes(file).size());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void cannotCreatePathAttributeCacheWhenCapacityIsInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new PathAttributeCache(0, Runnable::run, () -> {});
+        });
+    }
+}
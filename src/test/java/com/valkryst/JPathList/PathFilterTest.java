@@ -0,0 +1,110 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+public class PathFilterTest {
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        fileSystem = Jimfs.newFileSystem();
+        Files.createDirectory(fileSystem.getPath("directory"));
+        Files.createDirectory(fileSystem.getPath(".hidden"));
+        Files.createFile(fileSystem.getPath("image.png"));
+        Files.createFile(fileSystem.getPath("notes.TXT"));
+        Files.createFile(fileSystem.getPath(".profile"));
+        Files.write(fileSystem.getPath("large.bin"), new byte[1024]);
+    }
+
+    @Test
+    public void canFilterByGlob() throws IOException {
+        final var filter = PathFilter.glob("*.{png,bin}");
+        Assertions.assertTrue(accept(filter, "image.png"));
+        Assertions.assertTrue(accept(filter, "large.bin"));
+        Assertions.assertFalse(accept(filter, "notes.TXT"));
+        Assertions.assertTrue(accept(filter, "directory"));
+    }
+
+    @Test
+    public void cannotCreateGlobFilterWhenPatternIsInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            PathFilter.glob("*.{png");
+        });
+    }
+
+    @Test
+    public void canFilterByRegex() throws IOException {
+        final var filter = PathFilter.regex("[a-z]+\\.png");
+        Assertions.assertTrue(accept(filter, "image.png"));
+        Assertions.assertFalse(accept(filter, "large.bin"));
+        Assertions.assertTrue(accept(filter, "directory"));
+    }
+
+    @Test
+    public void canFilterByExtensions() throws IOException {
+        final var filter = PathFilter.extensions(".txt", "PNG");
+        Assertions.assertTrue(accept(filter, "image.png"));
+        Assertions.assertTrue(accept(filter, "notes.TXT"));
+        Assertions.assertFalse(accept(filter, "large.bin"));
+        Assertions.assertTrue(accept(filter, "directory"));
+    }
+
+    @Test
+    public void canFilterBySize() throws IOException {
+        final var filter = PathFilter.size(1, 2048);
+        Assertions.assertTrue(accept(filter, "large.bin"));
+        Assertions.assertFalse(accept(filter, "image.png"));
+        Assertions.assertTrue(accept(filter, "directory"));
+    }
+
+    @Test
+    public void cannotCreateSizeFilterWhenRangeIsInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            PathFilter.size(-1, 0);
+        });
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            PathFilter.size(2, 1);
+        });
+    }
+
+    @Test
+    public void canExcludeHiddenPaths() throws IOException {
+        final var filter = PathFilter.excludeHidden();
+        Assertions.assertFalse(accept(filter, ".hidden"));
+        Assertions.assertFalse(accept(filter, ".profile"));
+        Assertions.assertTrue(accept(filter, "image.png"));
+        Assertions.assertTrue(accept(filter, "directory"));
+    }
+
+    @Test
+    public void canCombineFilters() throws IOException {
+        final var filter = PathFilter.extensions("png").or(PathFilter.extensions("txt")).and(PathFilter.excludeHidden());
+        Assertions.assertTrue(accept(filter, "image.png"));
+        Assertions.assertTrue(accept(filter, "notes.TXT"));
+        Assertions.assertFalse(accept(filter, "large.bin"));
+        Assertions.assertFalse(accept(filter, ".hidden"));
+        Assertions.assertTrue(accept(filter, "directory"));
+    }
+
+    /**
+     * Applies a filter to a path.
+     *
+     * @param filter The filter.
+     * @param name The name of the path.
+     * @return Whether the filter accepts the path.
+     */
+    private boolean accept(final PathFilter filter, final String name) throws IOException {
+        final Path path = fileSystem.getPath(name);
+        return filter.accept(path, Files.readAttributes(path, BasicFileAttributes.class));
+    }
+}
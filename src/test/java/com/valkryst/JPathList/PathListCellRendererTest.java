@@ -0,0 +1,65 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class PathListCellRendererTest {
+    @Test
+    public void canRenderPathWithoutCachedAttributes() {
+        final var cache = new PathAttributeCache(10, Runnable::run, () -> {});
+        final var renderer = new PathListCellRenderer(cache);
+
+        final var path = Path.of("image.png");
+        final var component = (JLabel) renderer.getListCellRendererComponent(new JList<Path>(), path, 0, false, false);
+        Assertions.assertEquals(path.toString(), component.getText());
+        Assertions.assertNotNull(component.getIcon());
+        Assertions.assertNull(component.getToolTipText());
+    }
+
+    @Test
+    public void canRenderPathWithCachedAttributes() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("image.png");
+        final var otherFile = fileSystem.getPath("photo.png");
+        final var directory = fileSystem.getPath("directory");
+        Files.write(file, new byte[2048]);
+        Files.createFile(otherFile);
+        Files.createDirectory(directory);
+
+        final var cache = new PathAttributeCache(10, Runnable::run, () -> {});
+        cache.prefetch(List.of(file, otherFile, directory));
+
+        final var renderer = new PathListCellRenderer(cache);
+        final var list = new JList<Path>();
+
+        final var fileIcon = ((JLabel) renderer.getListCellRendererComponent(list, file, 0, false, false)).getIcon();
+        Assertions.assertTrue(renderer.getToolTipText().startsWith("2.0 KiB"));
+
+        // Paths of the same type share an icon.
+        Assertions.assertSame(fileIcon, ((JLabel) renderer.getListCellRendererComponent(list, otherFile, 1, false, false)).getIcon());
+        Assertions.assertNotSame(fileIcon, ((JLabel) renderer.getListCellRendererComponent(list, directory, 2, false, false)).getIcon());
+        Assertions.assertTrue(renderer.getToolTipText().startsWith("Modified"));
+    }
+
+    @Test
+    public void canFormatSize() {
+        Assertions.assertEquals("0 B", PathListCellRenderer.formatSize(0));
+        Assertions.assertEquals("1023 B", PathListCellRenderer.formatSize(1023));
+        Assertions.assertEquals("1.5 KiB", PathListCellRenderer.formatSize(1536));
+        Assertions.assertEquals("1.0 GiB", PathListCellRenderer.formatSize(1L << 30));
+    }
+
+    @Test
+    public void cannotCreatePathListCellRendererWhenCacheIsNull() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new PathListCellRenderer(null);
+        });
+    }
+}
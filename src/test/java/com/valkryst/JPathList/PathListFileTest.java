@@ -0,0 +1,114 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PathListFileTest {
+    @Test
+    public void canWriteAndReadPaths() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var paths = List.of(
+            fileSystem.getPath("/directoryA/fileA"),
+            fileSystem.getPath("/directoryA/fileB"),
+            fileSystem.getPath("/directoryA"),
+            fileSystem.getPath("relative/ファイル"),
+            fileSystem.getPath("/")
+        );
+
+        final var file = fileSystem.getPath("/paths.bin");
+        PathListFile.write(file, paths);
+
+        Assertions.assertEquals(paths, PathListFile.read(file, fileSystem));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canSkipPathsWhichCannotBeEncoded() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var encodablePaths = List.of(fileSystem.getPath("/fileA"), fileSystem.getPath("/\uD83D\uDE00"));
+        final var paths = List.of(
+            encodablePaths.get(0),
+            fileSystem.getPath("/file\uD800"),
+            fileSystem.getPath("/file\uFFFD"),
+            encodablePaths.get(1)
+        );
+
+        final var file = fileSystem.getPath("/paths.bin");
+        Assertions.assertEquals(2, PathListFile.write(file, paths));
+        Assertions.assertEquals(encodablePaths, PathListFile.read(file, fileSystem));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWriteAndReadManyPaths(final @TempDir Path directory) throws IOException {
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < 10_000 ; i++) {
+            paths.add(directory.resolve("directory" + (i / 100)).resolve("file" + i));
+        }
+
+        final var file = directory.resolve("paths.bin");
+        PathListFile.write(file, paths);
+
+        // Front-coding means that, on average, little more than each file name is stored.
+        Assertions.assertTrue(Files.size(file) < 12 * paths.size());
+        Assertions.assertEquals(paths, PathListFile.read(file, FileSystems.getDefault()));
+    }
+
+    @Test
+    public void canReplaceExistingFile() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("paths.bin");
+
+        PathListFile.write(file, List.of(fileSystem.getPath("a")));
+        PathListFile.write(file, List.of(fileSystem.getPath("b")));
+
+        Assertions.assertEquals(List.of(fileSystem.getPath("b")), PathListFile.read(file, fileSystem));
+        try (final var files = Files.list(fileSystem.getPath(""))) {
+            Assertions.assertEquals(1, files.count());
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotReadFileInOtherFormat() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("paths.bin");
+        Files.writeString(file, "This is not a path list.");
+
+        Assertions.assertThrows(IOException.class, () -> {
+            PathListFile.read(file, fileSystem);
+        });
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotReadTruncatedFile() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("paths.bin");
+        PathListFile.write(file, List.of(fileSystem.getPath("a"), fileSystem.getPath("b")));
+
+        final var bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        Assertions.assertThrows(EOFException.class, () -> {
+            PathListFile.read(file, fileSystem);
+        });
+
+        fileSystem.close();
+    }
+}
@@ -0,0 +1,496 @@
+package com.valkryst.JPathList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PathListModelTest {
+    @Test
+    public void canCreatePathListModel() {
+        final var model = new PathListModel();
+        Assertions.assertEquals(0, model.getSize());
+        Assertions.assertTrue(model.toList().isEmpty());
+    }
+
+    @Test
+    public void canAddPath() {
+        final var path = Paths.get("test");
+
+        final var model = new PathListModel();
+        Assertions.assertTrue(model.add(path));
+
+        Assertions.assertEquals(1, model.getSize());
+        Assertions.assertEquals(path, model.getElementAt(0));
+        Assertions.assertTrue(model.contains(path));
+        Assertions.assertEquals(0, model.indexOf(path));
+    }
+
+    @Test
+    public void cannotAddPathWhenPathIsNull() {
+        final var model = new PathListModel();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            model.add(null);
+        });
+    }
+
+    @Test
+    public void cannotAddDuplicatePath() {
+        final var model = new PathListModel();
+        Assertions.assertTrue(model.add(Paths.get("test")));
+        Assertions.assertFalse(model.add(Paths.get("test")));
+        Assertions.assertEquals(1, model.getSize());
+    }
+
+    @Test
+    public void canPreserveInsertionOrder() {
+        final var paths = List.of(Paths.get("c"), Paths.get("a"), Paths.get("b"));
+
+        final var model = new PathListModel();
+        paths.forEach(model::add);
+
+        Assertions.assertEquals(paths, model.toList());
+    }
+
+    @Test
+    public void canRemovePath() {
+        final var pathA = Paths.get("a");
+        final var pathB = Paths.get("b");
+        final var pathC = Paths.get("c");
+
+        final var model = new PathListModel();
+        model.add(pathA);
+        model.add(pathB);
+        model.add(pathC);
+
+        Assertions.assertTrue(model.remove(pathA));
+        Assertions.assertFalse(model.remove(pathA));
+
+        Assertions.assertEquals(List.of(pathB, pathC), model.toList());
+        Assertions.assertFalse(model.contains(pathA));
+        Assertions.assertEquals(0, model.indexOf(pathB));
+        Assertions.assertEquals(1, model.indexOf(pathC));
+    }
+
+    @Test
+    public void canInterleaveRemovalsWithOtherModifications() {
+        final var random = new Random(42);
+        final var expected = new ArrayList<Path>();
+
+        final var model = new PathListModel();
+        for (int i = 0 ; i < 2_000 ; i++) {
+            final var path = Paths.get("path" + i);
+            model.add(path);
+            expected.add(path);
+
+            // Paths are removed from random positions, and occasionally inserted and bulk removed, so that the
+            // tombstones of single removals are interleaved with every other kind of modification.
+            if (random.nextInt(3) == 0) {
+                final var removedPath = expected.remove(random.nextInt(expected.size()));
+                Assertions.assertTrue(model.remove(removedPath));
+            }
+
+            if (i % 250 == 0) {
+                final var index = random.nextInt(expected.size() + 1);
+                final var insertedPath = Paths.get("inserted" + i);
+                model.insertAll(index, List.of(insertedPath));
+                expected.add(index, insertedPath);
+            }
+
+            if (i % 400 == 0) {
+                final var removedPath = expected.remove(random.nextInt(expected.size()));
+                model.removeAll(List.of(removedPath));
+            }
+        }
+
+        Assertions.assertEquals(expected, model.toList());
+        for (int i = 0 ; i < expected.size() ; i++) {
+            Assertions.assertEquals(expected.get(i), model.getElementAt(i));
+            Assertions.assertEquals(i, model.indexOf(expected.get(i)));
+        }
+
+        // Removing most of the paths causes the storage to be compacted.
+        while (expected.size() > 10) {
+            Assertions.assertTrue(model.remove(expected.remove(random.nextInt(expected.size()))));
+        }
+        Assertions.assertEquals(expected, model.toList());
+    }
+
+    @Test
+    public void cannotRemovePathWhenPathIsNull() {
+        final var model = new PathListModel();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            model.remove(null);
+        });
+    }
+
+    @Test
+    public void canClear() {
+        final var model = new PathListModel();
+        model.add(Paths.get("a"));
+        model.add(Paths.get("b"));
+        model.clear();
+
+        Assertions.assertEquals(0, model.getSize());
+        Assertions.assertFalse(model.contains(Paths.get("a")));
+        Assertions.assertEquals(-1, model.indexOf(Paths.get("b")));
+    }
+
+    @Test
+    public void canAddManyPaths() {
+        final var model = new PathListModel();
+        for (int i = 0 ; i < 100_000 ; i++) {
+            model.add(Path.of("file" + i));
+        }
+
+        for (int i = 0 ; i < 100_000 ; i++) {
+            Assertions.assertFalse(model.add(Path.of("file" + i)));
+        }
+
+        Assertions.assertEquals(100_000, model.getSize());
+        Assertions.assertEquals(99_999, model.indexOf(Path.of("file99999")));
+    }
+
+    @Test
+    public void canAddAllPaths() {
+        final var events = new ArrayList<ListDataEvent>();
+
+        final var model = new PathListModel();
+        model.add(Paths.get("a"));
+        model.addListDataListener(new RecordingListener(events));
+
+        final var added = model.addAll(List.of(Paths.get("a"), Paths.get("b"), Paths.get("c"), Paths.get("b")));
+
+        Assertions.assertEquals(2, added);
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("b"), Paths.get("c")), model.toList());
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(0).getType());
+        Assertions.assertEquals(1, events.get(0).getIndex0());
+        Assertions.assertEquals(2, events.get(0).getIndex1());
+    }
+
+    @Test
+    public void canAddAllPathsWhenAllAreDuplicates() {
+        final var events = new ArrayList<ListDataEvent>();
+
+        final var model = new PathListModel();
+        model.add(Paths.get("a"));
+        model.addListDataListener(new RecordingListener(events));
+
+        Assertions.assertEquals(0, model.addAll(List.of(Paths.get("a"))));
+        Assertions.assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void cannotAddAllPathsWhenCollectionIsNull() {
+        final var model = new PathListModel();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            model.addAll(null);
+        });
+    }
+
+    @Test
+    public void canRemoveAllPaths() {
+        final var events = new ArrayList<ListDataEvent>();
+
+        final var model = new PathListModel();
+        for (final var name : List.of("a", "b", "c", "d", "e", "f")) {
+            model.add(Paths.get(name));
+        }
+        model.addListDataListener(new RecordingListener(events));
+
+        final var removed = model.removeAll(List.of(Paths.get("b"), Paths.get("c"), Paths.get("e"), Paths.get("x")));
+
+        Assertions.assertEquals(3, removed);
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("d"), Paths.get("f")), model.toList());
+        Assertions.assertEquals(1, model.indexOf(Paths.get("d")));
+        Assertions.assertEquals(2, model.indexOf(Paths.get("f")));
+
+        // One event per contiguous range, from last to first.
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(4, events.get(0).getIndex0());
+        Assertions.assertEquals(4, events.get(0).getIndex1());
+        Assertions.assertEquals(1, events.get(1).getIndex0());
+        Assertions.assertEquals(2, events.get(1).getIndex1());
+    }
+
+    @Test
+    public void cannotRemoveAllPathsWhenCollectionIsNull() {
+        final var model = new PathListModel();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            model.removeAll(null);
+        });
+    }
+
+    @Test
+    public void canRemovePathsIf() {
+        final var events = new ArrayList<ListDataEvent>();
+
+        final var model = new PathListModel();
+        for (final var name : List.of("a", "b", "c", "d", "e", "f")) {
+            model.add(Paths.get(name));
+        }
+        model.addListDataListener(new RecordingListener(events));
+
+        final var removed = model.removeIf(path -> List.of("b", "c", "e").contains(path.toString()));
+
+        Assertions.assertEquals(3, removed);
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("d"), Paths.get("f")), model.toList());
+        Assertions.assertEquals(2, model.indexOf(Paths.get("f")));
+
+        // One event per contiguous range, from last to first.
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(4, events.get(0).getIndex0());
+        Assertions.assertEquals(1, events.get(1).getIndex0());
+        Assertions.assertEquals(2, events.get(1).getIndex1());
+    }
+
+    @Test
+    public void canCoalesceEventsWhenRemovingManyRanges() {
+        final var events = new ArrayList<ListDataEvent>();
+
+        final var model = new PathListModel();
+        for (int i = 0 ; i < 100 ; i++) {
+            model.add(Paths.get(String.valueOf(i)));
+        }
+        model.addListDataListener(new RecordingListener(events));
+
+        final var removed = model.removeIf(path -> Integer.parseInt(path.toString()) % 2 == 1);
+
+        Assertions.assertEquals(50, removed);
+        Assertions.assertEquals(50, model.getSize());
+        Assertions.assertEquals(Paths.get("98"), model.getElementAt(49));
+        Assertions.assertEquals(49, model.indexOf(Paths.get("98")));
+
+        // Rather than one event per removed path, the entire list is removed and then re-added.
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_REMOVED, events.get(0).getType());
+        Assertions.assertEquals(0, events.get(0).getIndex0());
+        Assertions.assertEquals(99, events.get(0).getIndex1());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(1).getType());
+        Assertions.assertEquals(0, events.get(1).getIndex0());
+        Assertions.assertEquals(49, events.get(1).getIndex1());
+    }
+
+    @Test
+    public void cannotRemovePathsIfWhenPredicateIsNull() {
+        final var model = new PathListModel();
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            model.removeIf(null);
+        });
+    }
+
+    @Test
+    public void canRemoveSubtree() {
+        final var model = new PathListModel();
+        for (final var name : List.of("a", "a/b", "a/b/c", "a/bc", "d")) {
+            model.add(Paths.get(name));
+        }
+
+        final var removed = model.removeSubtree(Paths.get("a/b"));
+
+        Assertions.assertEquals(2, removed);
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("a/bc"), Paths.get("d")), model.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void canInsertAllPaths(final boolean isCompact) {
+        final var events = new ArrayList<ListDataEvent>();
+
+        final var model = new PathListModel();
+        model.setCompactStorageEnabled(isCompact);
+        model.addAll(List.of(Paths.get("a"), Paths.get("b"), Paths.get("c")));
+        model.addListDataListener(new RecordingListener(events));
+
+        final var inserted = model.insertAll(1, List.of(Paths.get("x"), Paths.get("c"), Paths.get("y"), Paths.get("x")));
+
+        Assertions.assertEquals(2, inserted);
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("x"), Paths.get("y"), Paths.get("b"), Paths.get("c")), model.toList());
+        Assertions.assertEquals(4, model.indexOf(Paths.get("c")));
+
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_ADDED, events.get(0).getType());
+        Assertions.assertEquals(1, events.get(0).getIndex0());
+        Assertions.assertEquals(2, events.get(0).getIndex1());
+    }
+
+    @Test
+    public void cannotInsertAllPathsWhenIndexIsOutOfBounds() {
+        final var model = new PathListModel();
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+            model.insertAll(1, List.of(Paths.get("a")));
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void canAddPathsConcurrently(final boolean isCompact) throws Exception {
+        final var model = new PathListModel();
+        model.setCompactStorageEnabled(isCompact);
+
+        final var threadCount = 8;
+        final var executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int thread = 0 ; thread < threadCount ; thread++) {
+                final var offset = thread * 500;
+                futures.add(executor.submit(() -> {
+                    // Each thread's range overlaps the next thread's range.
+                    for (int i = offset ; i < offset + 1000 ; i += 10) {
+                        final var chunk = new ArrayList<Path>();
+                        for (int j = i ; j < i + 10 ; j++) {
+                            final var path = Paths.get("file" + j);
+                            if (!model.contains(path)) {
+                                chunk.add(path);
+                            }
+                        }
+                        model.addAll(chunk);
+                    }
+                }));
+            }
+
+            for (final var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final var paths = model.toList();
+        Assertions.assertEquals(4500, paths.size());
+        Assertions.assertEquals(4500, new HashSet<>(paths).size());
+        for (int i = 0 ; i < paths.size() ; i++) {
+            Assertions.assertEquals(i, model.indexOf(paths.get(i)));
+        }
+    }
+
+    @Test
+    public void canReuseSnapshotUntilModified() {
+        final var model = new PathListModel();
+        model.add(Paths.get("a"));
+
+        final var snapshotA = model.snapshot();
+        final var modificationCount = model.getModificationCount();
+        Assertions.assertSame(snapshotA, model.snapshot());
+        Assertions.assertEquals(List.of(Paths.get("a")), snapshotA);
+
+        model.add(Paths.get("b"));
+
+        final var snapshotB = model.snapshot();
+        Assertions.assertNotSame(snapshotA, snapshotB);
+        Assertions.assertTrue(model.getModificationCount() > modificationCount);
+        Assertions.assertEquals(List.of(Paths.get("a")), snapshotA);
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("b")), snapshotB);
+    }
+
+    @Test
+    public void canKeepSnapshotsUnaffectedByLaterModifications() {
+        final var random = new Random(42);
+        final var expected = new ArrayList<Path>();
+        final var snapshots = new ArrayList<List<Path>>();
+        final var expectedSnapshots = new ArrayList<List<Path>>();
+
+        final var model = new PathListModel();
+        for (int i = 0 ; i < 1_000 ; i++) {
+            final var path = Paths.get("path" + i);
+            model.add(path);
+            expected.add(path);
+
+            // Snapshots are taken between appends, single removals, insertions, and bulk removals, so that each kind of
+            // modification is made whilst the storage is shared, with and without tombstones.
+            if (random.nextInt(4) == 0) {
+                Assertions.assertTrue(model.remove(expected.remove(random.nextInt(expected.size()))));
+            }
+
+            if (i % 100 == 0) {
+                final var index = random.nextInt(expected.size() + 1);
+                final var insertedPath = Paths.get("inserted" + i);
+                model.insertAll(index, List.of(insertedPath));
+                expected.add(index, insertedPath);
+            }
+
+            if (i % 150 == 0) {
+                model.removeAll(List.of(expected.remove(random.nextInt(expected.size()))));
+            }
+
+            if (i % 20 == 0) {
+                snapshots.add(model.snapshot());
+                expectedSnapshots.add(List.copyOf(expected));
+            }
+        }
+
+        model.clear();
+
+        for (int i = 0 ; i < snapshots.size() ; i++) {
+            Assertions.assertEquals(expectedSnapshots.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    public void cannotModifySnapshot() {
+        final var model = new PathListModel();
+        model.add(Paths.get("a"));
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> {
+            model.snapshot().add(Paths.get("b"));
+        });
+    }
+
+    @Test
+    public void canSetCompactStorageEnabled() {
+        final var paths = List.of(Paths.get("a", "b"), Paths.get("a", "c"), Paths.get("d"));
+
+        final var model = new PathListModel();
+        paths.forEach(model::add);
+
+        model.setCompactStorageEnabled(true);
+        Assertions.assertTrue(model.isCompactStorageEnabled());
+        Assertions.assertEquals(paths, model.toList());
+        Assertions.assertFalse(model.add(Paths.get("a", "b")));
+        Assertions.assertTrue(model.remove(Paths.get("a", "c")));
+
+        model.setCompactStorageEnabled(false);
+        Assertions.assertFalse(model.isCompactStorageEnabled());
+        Assertions.assertEquals(List.of(Paths.get("a", "b"), Paths.get("d")), model.toList());
+    }
+
+    @Test
+    public void canEstimateBytesPerPath() {
+        final var model = new PathListModel();
+        Assertions.assertEquals(0, model.estimateBytesPerPath());
+
+        model.add(Paths.get("a"));
+        Assertions.assertTrue(model.estimateBytesPerPath() > 0);
+    }
+
+    /** Records every {@link ListDataEvent} fired by a model. */
+    private record RecordingListener(List<ListDataEvent> events) implements ListDataListener {
+        @Override
+        public void intervalAdded(final ListDataEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void intervalRemoved(final ListDataEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void contentsChanged(final ListDataEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.swing.*;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PathWalkerTest {
+    @Test
+    public void canWalkInChunks() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        for (int i = 0 ; i < 10 ; i++) {
+            Files.createFile(directory.resolve("file" + i));
+        }
+
+        final var chunks = new ArrayList<List<Path>>();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 4, chunks::add, () -> false);
+        walker.walk(directory);
+        walker.flush();
+
+        Assertions.assertEquals(3, chunks.size());
+        Assertions.assertEquals(4, chunks.get(0).size());
+        Assertions.assertEquals(4, chunks.get(1).size());
+        Assertions.assertEquals(2, chunks.get(2).size());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canSkipPathsAlreadyInModel() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var fileA = fileSystem.getPath("fileA");
+        final var fileB = fileSystem.getPath("fileB");
+        Files.createFile(fileA);
+        Files.createFile(fileB);
+
+        final var model = new PathListModel();
+        model.add(fileA);
+
+        final var chunks = new ArrayList<List<Path>>();
+        final var walker = new PathWalker(model, JFileChooser.FILES_ONLY, 100, chunks::add, () -> false);
+        walker.walk(fileA);
+        walker.walk(fileB);
+        walker.walk(fileB);
+        walker.flush();
+
+        Assertions.assertEquals(List.of(List.of(fileB)), chunks);
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotWalkWhenCancelled() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var file = fileSystem.getPath("file");
+        Files.createFile(file);
+
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 100, chunk -> {}, () -> true);
+        Assertions.assertThrows(CancellationException.class, () -> {
+            walker.walk(file);
+        });
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canStopWalkPromptlyWhenCancelled() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        for (int i = 0 ; i < 1000 ; i++) {
+            Files.createFile(directory.resolve("file" + i));
+        }
+
+        // Every file is rejected in this mode, so the cancellation must be checked as the directory is listed.
+        final var checks = new AtomicInteger();
+        final var recorder = new IngestionRecorder();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.DIRECTORIES_ONLY, 100, chunk -> {}, () -> checks.incrementAndGet() > 10);
+        walker.setRecorder(recorder);
+
+        Assertions.assertThrows(CancellationException.class, () -> {
+            walker.walk(directory);
+        });
+        Assertions.assertTrue(recorder.toMetrics().attributeReadCount() < 20);
+
+        fileSystem.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {JFileChooser.FILES_ONLY, JFileChooser.DIRECTORIES_ONLY, JFileChooser.FILES_AND_DIRECTORIES})
+    public void canWalkInParallelWithDeterministicOrdering(final int recursionMode) throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        createTree(root, 3, 4);
+
+        final var sequential = walk(root, recursionMode, 1, true);
+        final var parallel = walk(root, recursionMode, 4, true);
+
+        Assertions.assertFalse(sequential.isEmpty());
+        Assertions.assertEquals(sequential, parallel);
+
+        fileSystem.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {JFileChooser.FILES_ONLY, JFileChooser.DIRECTORIES_ONLY, JFileChooser.FILES_AND_DIRECTORIES})
+    public void canWalkInParallelWithoutDeterministicOrdering(final int recursionMode) throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        createTree(root, 3, 4);
+
+        final var sequential = walk(root, recursionMode, 1, true);
+        final var parallel = walk(root, recursionMode, 4, false);
+
+        Assertions.assertEquals(sequential.size(), parallel.size());
+        Assertions.assertEquals(new HashSet<>(sequential), new HashSet<>(parallel));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWalkLargeDirectoryInParallel() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        Files.createDirectories(root.resolve("subdirectory"));
+
+        // The attributes of the entries are read in several batches.
+        for (int i = 0 ; i < 300 ; i++) {
+            Files.createFile(root.resolve("file" + i));
+        }
+
+        final var sequential = walk(root, JFileChooser.FILES_AND_DIRECTORIES, 1, true);
+        final var parallel = walk(root, JFileChooser.FILES_AND_DIRECTORIES, 4, true);
+
+        Assertions.assertEquals(302, sequential.size());
+        Assertions.assertEquals(sequential, parallel);
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWalkInParallelOnSingleThreadedExecutor() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        createTree(root, 3, 4);
+
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final var paths = new ArrayList<Path>();
+            final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+            walker.setParallelism(4);
+            walker.setExecutor(executor);
+            walker.walk(root);
+            walker.flush();
+
+            // Tasks which the executor hasn't started are run by the tasks which wait for them, so the walk completes.
+            Assertions.assertEquals(walk(root, JFileChooser.FILES_AND_DIRECTORIES, 1, true), paths);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWalkLargeDirectoriesInParallelOnMultiThreadedExecutor() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+
+        // Each directory's attributes are read in many batches, whilst there are fewer permits than directories.
+        for (int i = 0 ; i < 16 ; i++) {
+            final var directory = Files.createDirectories(root.resolve("directory" + i));
+            for (int j = 0 ; j < 2_000 ; j++) {
+                Files.createFile(directory.resolve("file" + j));
+            }
+        }
+
+        final var executor = Executors.newCachedThreadPool();
+        try {
+            final var paths = new ArrayList<Path>();
+            final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+            walker.setParallelism(2);
+            walker.setExecutor(executor);
+
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+                walker.walk(root);
+                walker.flush();
+            });
+
+            Assertions.assertEquals(1 + 16 + 16 * 2_000, paths.size());
+            Assertions.assertEquals(walk(root, JFileChooser.FILES_AND_DIRECTORIES, 1, true), paths);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWalkInParallelWhenExecutorRejectsTasks() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        createTree(root, 2, 3);
+
+        final var paths = new ArrayList<Path>();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+        walker.setParallelism(4);
+        walker.setExecutor(runnable -> {
+            throw new RejectedExecutionException();
+        });
+        walker.walk(root);
+        walker.flush();
+
+        Assertions.assertEquals(walk(root, JFileChooser.FILES_AND_DIRECTORIES, 1, true), paths);
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canLimitTasksSubmittedWhenWalkingWideDirectoryInParallel() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        for (int i = 0 ; i < 60 ; i++) {
+            Files.createFile(Files.createDirectories(root.resolve("directory" + i)).resolve("file"));
+        }
+
+        // The executor never starts its tasks, so each is run by the task which waits for it.
+        final var submittedTasks = new ArrayList<Runnable>();
+        final var paths = new ArrayList<Path>();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+        walker.setParallelism(2);
+        walker.setExecutor(submittedTasks::add);
+        walker.walk(root);
+        walker.flush();
+
+        // Only a few subdirectories are submitted to the executor, and the others are walked by the root's task.
+        Assertions.assertEquals(8, submittedTasks.size());
+        Assertions.assertEquals(walk(root, JFileChooser.FILES_AND_DIRECTORIES, 1, true), paths);
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canSharePermitsBetweenWalkers() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var rootA = fileSystem.getPath("rootA");
+        final var rootB = fileSystem.getPath("rootB");
+        createTree(rootA, 3, 4);
+        createTree(rootB, 3, 4);
+
+        final var heldPermits = new AtomicInteger();
+        final var maxHeldPermits = new AtomicInteger();
+        final var permits = new Semaphore(2) {
+            @Override
+            public void acquireUninterruptibly() {
+                super.acquireUninterruptibly();
+                maxHeldPermits.accumulateAndGet(heldPermits.incrementAndGet(), Math::max);
+            }
+
+            @Override
+            public void release() {
+                heldPermits.decrementAndGet();
+                super.release();
+            }
+        };
+
+        final var executor = Executors.newCachedThreadPool();
+        try {
+            final var walks = new ArrayList<Future<List<Path>>>();
+            for (final var root : List.of(rootA, rootB)) {
+                walks.add(executor.submit(() -> {
+                    final var paths = new ArrayList<Path>();
+                    final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+                    walker.setParallelism(4);
+                    walker.setPermits(permits);
+                    walker.setExecutor(executor);
+                    walker.walk(root);
+                    walker.flush();
+                    return paths;
+                }));
+            }
+
+            Assertions.assertEquals(walk(rootA, JFileChooser.FILES_AND_DIRECTORIES, 1, true), walks.get(0).get(60, TimeUnit.SECONDS));
+            Assertions.assertEquals(walk(rootB, JFileChooser.FILES_AND_DIRECTORIES, 1, true), walks.get(1).get(60, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Both walkers' tasks took their permits from the shared semaphore, so they never performed more I/O at once.
+        Assertions.assertTrue(maxHeldPermits.get() >= 1);
+        Assertions.assertTrue(maxHeldPermits.get() <= 2);
+        Assertions.assertEquals(2, permits.availablePermits());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotSetPermitsWhenPermitsAreNull() {
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, chunk -> {}, () -> false);
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            walker.setPermits(null);
+        });
+    }
+
+    @Test
+    public void cannotSetExecutorWhenExecutorIsNull() {
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, chunk -> {}, () -> false);
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            walker.setExecutor(null);
+        });
+    }
+
+    @Test
+    public void canSkipBrokenLinkWhenRecursionModeIsFilesOnly() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        final var file = directory.resolve("file");
+        Files.createDirectory(directory);
+        Files.createFile(file);
+        Files.createSymbolicLink(directory.resolve("link"), fileSystem.getPath("missing"));
+
+        Assertions.assertEquals(List.of(file), walk(directory, JFileChooser.FILES_ONLY, 1, true));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotWalkBrokenLinkWhenRecursionModeIsFilesAndDirectories() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+        Files.createSymbolicLink(directory.resolve("link"), fileSystem.getPath("missing"));
+
+        Assertions.assertThrows(FileNotFoundException.class, () -> {
+            walk(directory, JFileChooser.FILES_AND_DIRECTORIES, 1, true);
+        });
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWalkDefaultFileSystem(final @TempDir Path directory) throws IOException {
+        createTree(directory.resolve("root"), 2, 2);
+
+        final var paths = walk(directory.resolve("root"), JFileChooser.FILES_AND_DIRECTORIES, 1, true);
+
+        // 1 root, 2 + 4 subdirectories, and 2 files in each of the 7 directories.
+        Assertions.assertEquals(21, paths.size());
+        Assertions.assertEquals(directory.resolve("root"), paths.get(0));
+    }
+
+    @Test
+    public void cannotRescanWithoutFingerprintCache() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var directory = fileSystem.getPath("directory");
+        Files.createDirectory(directory);
+
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 100, chunk -> {}, () -> false);
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            walker.rescan(directory, new HashMap<>());
+        });
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotSetParallelismWhenParallelismIsInvalid() {
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, chunk -> {}, () -> false);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            walker.setParallelism(0);
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    public void canLimitDepth(final int parallelism) throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        createTree(root, 3, 2);
+
+        final var paths = new ArrayList<Path>();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+        walker.setParallelism(parallelism);
+        walker.setMaxDepth(1);
+        walker.walk(root);
+        walker.flush();
+
+        // The root's subdirectories are found, but not listed.
+        final var expected = List.of(
+            root,
+            root.resolve("file0"),
+            root.resolve("file1"),
+            root.resolve("directory0"),
+            root.resolve("directory1")
+        );
+        Assertions.assertEquals(expected, paths);
+
+        fileSystem.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    public void canSkipLinkToAncestorWhenFollowingLinks(final int parallelism) throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        final var directory = Files.createDirectories(root.resolve("directory"));
+        Files.createFile(directory.resolve("file"));
+        Files.createSymbolicLink(directory.resolve("loop"), root.toAbsolutePath());
+
+        final var recorder = new IngestionRecorder();
+        final var paths = new ArrayList<Path>();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+        walker.setParallelism(parallelism);
+        walker.setRecorder(recorder);
+        walker.walk(root);
+        walker.flush();
+
+        Assertions.assertEquals(List.of(root, directory, directory.resolve("file")), paths);
+        Assertions.assertEquals(1, recorder.toMetrics().rejectedCount());
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canAddLinksWithoutFollowingThem() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+        final var directory = Files.createDirectories(root.resolve("directory"));
+        Files.createFile(directory.resolve("file"));
+        final var link = Files.createSymbolicLink(root.resolve("link"), directory.toAbsolutePath());
+
+        final var paths = new ArrayList<Path>();
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_AND_DIRECTORIES, 16, paths::addAll, () -> false);
+        walker.setFollowLinks(false);
+        walker.walk(root);
+        walker.flush();
+
+        // The link is added once, as a file, rather than its target's entries being added a second time.
+        final var expected = Set.of(root, directory, directory.resolve("file"), link);
+        Assertions.assertEquals(expected.size(), paths.size());
+        Assertions.assertEquals(expected, new HashSet<>(paths));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void canWalkVeryDeepTree() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+        final var root = fileSystem.getPath("root");
+
+        var directory = Files.createDirectory(root);
+        for (int i = 0 ; i < 5000 ; i++) {
+            directory = Files.createDirectory(directory.resolve("d"));
+        }
+        Files.createFile(directory.resolve("file"));
+
+        final var paths = walk(root, JFileChooser.FILES_AND_DIRECTORIES, 1, true);
+        Assertions.assertEquals(5002, paths.size());
+        Assertions.assertTrue(paths.get(5001).equals(directory.resolve("file")));
+
+        fileSystem.close();
+    }
+
+    @Test
+    public void cannotSetMaxDepthWhenDepthIsNegative() {
+        final var walker = new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 1, chunk -> {}, () -> false);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            walker.setMaxDepth(-1);
+        });
+    }
+
+    @Test
+    public void cannotCreateWalkerWhenChunkSizeIsInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new PathWalker(new PathListModel(), JFileChooser.FILES_ONLY, 0, chunk -> {}, () -> false);
+        });
+    }
+
+    /**
+     * Walks a path, and collects every found path.
+     *
+     * @param path Path to be walked.
+     * @param recursionMode How to recurse directories.
+     * @param parallelism The number of threads used to walk directories.
+     * @param isDeterministic Whether the order of the found paths is deterministic.
+     * @return The found paths.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<Path> walk(final Path path, final int recursionMode, final int parallelism, final boolean isDeterministic) throws IOException {
+        final var paths = new ArrayList<Path>();
+
+        final var walker = new PathWalker(new PathListModel(), recursionMode, 16, paths::addAll, () -> false);
+        walker.setParallelism(parallelism);
+        walker.setDeterministic(isDeterministic);
+        walker.walk(path);
+        walker.flush();
+
+        return paths;
+    }
+
+    /**
+     * Creates a tree of directories, where each directory contains {@code fanOut} files and, unless the maximum depth
+     * has been reached, {@code fanOut} subdirectories.
+     *
+     * @param root The root directory.
+     * @param depth The depth of the tree.
+     * @param fanOut The number of files and subdirectories in each directory.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    static void createTree(final Path root, final int depth, final int fanOut) throws IOException {
+        Files.createDirectories(root);
+
+        for (int i = 0 ; i < fanOut ; i++) {
+            Files.createFile(root.resolve("file" + i));
+
+            if (depth > 0) {
+                createTree(root.resolve("directory" + i), depth - 1, fanOut);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.valkryst.JPathList;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class SortedPathListModelTest {
+    @Test
+    public void canSortByName() {
+        final var source = new PathListModel();
+        source.addAll(List.of(Paths.get("b"), Paths.get("C"), Paths.get("a")));
+
+        final var model = new SortedPathListModel(source, SortedPathListModel.SortKey.NAME, true);
+        Assertions.assertSame(source, model.getSource());
+        Assertions.assertEquals(List.of(Paths.get("a"), Paths.get("b"), Paths.get("C")), toList(model));
+
+        model.setSortOrder(SortedPathListModel.SortKey.NAME, false);
+        Assertions.assertFalse(model.isAscending());
+        Assertions.assertEquals(List.of(Paths.get("C"), Paths.get("b"), Paths.get("a")), toList(model));
+    }
+
+    @Test
+    public void canSortBySizeAndLastModifiedTime() throws IOException {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var small = fileSystem.getPath("small");
+        final var medium = fileSystem.getPath("medium");
+        final var large = fileSystem.getPath("large");
+        Files.write(small, new byte[1]);
+        Files.write(medium, new byte[10]);
+        Files.write(large, new byte[100]);
+        Files.setLastModifiedTime(small, FileTime.fromMillis(3000));
+        Files.setLastModifiedTime(medium, FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(large, FileTime.fromMillis(2000));
+
+        final var source = new PathListModel();
+        source.addAll(List.of(medium, large, small));
+
+        final var model = new SortedPathListModel(source, SortedPathListModel.SortKey.SIZE, true);
+        Assertions.assertEquals(List.of(small, medium, large), toList(model));
+
+        // The keys are read once, so modifying a file doesn't reorder it.
+        Files.write(small, new byte[1000]);
+        model.setSortOrder(SortedPathListModel.SortKey.LAST_MODIFIED, true);
+        Assertions.assertEquals(SortedPathListModel.SortKey.LAST_MODIFIED, model.getSortKey());
+        Assertions.assertEquals(List.of(medium, large, small), toList(model));
+
+        model.setSortOrder(SortedPathListModel.SortKey.SIZE, false);
+        Assertions.assertEquals(List.of(large, medium, small), toList(model));
+    }
+
+    @Test
+    public void canSortByCachedAndBackgroundLoadedAttributes() throws Exception {
+        final var fileSystem = Jimfs.newFileSystem();
+
+        final var small = fileSystem.getPath("small");
+        final var medium = fileSystem.getPath("medium");
+        final var large = fileSystem.getPath("large");
+        final var deleted = fileSystem.getPath("deleted");
+        Files.write(small, new byte[1]);
+        Files.write(medium, new byte[10]);
+        Files.write(large, new byte[100]);
+        Files.write(deleted, new byte[1000]);
+
+        final var attributeCache = new PathAttributeCache(10, Runnable::run, () -> {});
+        attributeCache.prefetch(List.of(large));
+
+        final var source = new PathListModel();
+        source.addAll(List.of(medium, large, small));
+
+        // The cached path is sorted immediately, whilst the others are sorted first until they've been read.
+        final var tasks = new ArrayList<Runnable>();
+        final var model = new SortedPathListModel(source, SortedPathListModel.SortKey.SIZE, true, attributeCache, tasks::add);
+        Assertions.assertEquals(List.of(medium, small, large), toList(model));
+        Assertions.assertEquals(1, tasks.size());
+
+        tasks.removeFirst().run();
+        SwingUtilities.invokeAndWait(() -> {});
+        Assertions.assertEquals(List.of(small, medium, large), toList(model));
+
+        // A path which is removed before it's read isn't reinserted.
+        source.add(deleted);
+        source.remove(deleted);
+        Assertions.assertEquals(1, tasks.size());
+        tasks.removeFirst().run();
+        SwingUtilities.invokeAndWait(() -> {});
+        Assertions.assertEquals(List.of(small, medium, large), toList(model));
+
+        // The keys are read once, so sorting by another key doesn't read them again.
+        model.setSortOrder(SortedPathListModel.SortKey.SIZE, false);
+        Assertions.assertEquals(List.of(large, medium, small), toList(model));
+        Assertions.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void cannotCreateSortedPathListModelWhenSortKeyIsNull() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new SortedPathListModel(new PathListModel(), null, true);
+        });
+    }
+
+    @Test
+    public void canFireOneEventPerChangedRange() {
+        final var source = new PathListModel();
+        source.addAll(List.of(Paths.get("b"), Paths.get("d")));
+
+        final var model = new SortedPathListModel(source, SortedPathListModel.SortKey.NAME, true);
+
+        final var events = new ArrayList<ListDataEvent>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(final ListDataEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void intervalRemoved(final ListDataEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void contentsChanged(final ListDataEvent event) {
+                events.add(event);
+            }
+        });
+
+        source.add(Paths.get("c"));
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(1, events.get(0).getIndex0());
+        Assertions.assertEquals(1, events.get(0).getIndex1());
+
+        // The source fires one event per removed range, from last to first, and each is applied in turn.
+        events.clear();
+        source.removeAll(List.of(Paths.get("b"), Paths.get("c")));
+        Assertions.assertEquals(List.of(Paths.get("d")), toList(model));
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(ListDataEvent.INTERVAL_REMOVED, events.get(0).getType());
+        Assertions.assertEquals(1, events.get(0).getIndex0());
+        Assertions.assertEquals(1, events.get(0).getIndex1());
+        Assertions.assertEquals(0, events.get(1).getIndex0());
+        Assertions.assertEquals(0, events.get(1).getIndex1());
+    }
+
+    @Test
+    public void canMatchBruteForceSort() {
+        final var random = new Random(7);
+        final var source = new PathListModel();
+
+        final var model = new SortedPathListModel(source, SortedPathListModel.SortKey.NAME, false);
+
+        // The events are replayed onto a copy of the view, to check that they describe the changes exactly.
+        final var replayed = new ArrayList<Path>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(final ListDataEvent event) {
+                for (int i = event.getIndex0() ; i <= event.getIndex1() ; i++) {
+                    replayed.add(i, model.getElementAt(i));
+                }
+            }
+
+            @Override
+            public void intervalRemoved(final ListDataEvent event) {
+                replayed.subList(event.getIndex0(), event.getIndex1() + 1).clear();
+            }
+
+            @Override
+            public void contentsChanged(final ListDataEvent event) {
+                Assertions.fail("No contents should be changed.");
+            }
+        });
+
+        final Comparator<Path> byName = Comparator.comparing(path -> path.getFileName().toString().toLowerCase(Locale.ROOT));
+        for (int round = 0 ; round < 100 ; round++) {
+            final var paths = new ArrayList<Path>();
+            final var count = random.nextBoolean() ? 1 + random.nextInt(4) : 20 + random.nextInt(40);
+            for (int i = 0 ; i < count ; i++) {
+                paths.add(Paths.get("dir" + random.nextInt(3), "file" + random.nextInt(100_000)));
+            }
+
+            if (random.nextBoolean()) {
+                source.addAll(paths);
+            } else {
+                source.insertAll(random.nextInt(source.getSize() + 1), paths);
+            }
+
+            final var removed = new ArrayList<Path>();
+            for (int i = 0 ; i < 10 && source.getSize() > 0 ; i++) {
+                removed.add(source.getElementAt(random.nextInt(source.getSize())));
+            }
+            source.removeAll(removed);
+
+            final var expected = new ArrayList<>(source.toList());
+            expected.sort(byName.reversed());
+
+            // Paths with equal names may be in either order, so only the names are compared.
+            Assertions.assertEquals(names(expected), names(toList(model)));
+            Assertions.assertEquals(toList(model), replayed);
+        }
+    }
+
+    /**
+     * Retrieves the file names of paths.
+     *
+     * @param paths The paths.
+     * @return The file names.
+     */
+    private static List<String> names(final List<Path> paths) {
+        return paths.stream().map(path -> path.getFileName().toString()).toList();
+    }
+
+    /**
+     * Retrieves the displayed paths of a model.
+     *
+     * @param model The model.
+     * @return The paths.
+     */
+    private static List<Path> toList(final SortedPathListModel model) {
+        final var paths = new ArrayList<Path>();
+        for (int i = 0 ; i < model.getSize() ; i++) {
+            paths.add(model.getElementAt(i));
+        }
+
+        return paths;
+    }
+}